@@ -8,10 +8,19 @@ export function uploadArticles(data) {
 }
 
 /**
- * 获取所有文章
+ * 获取文章列表
+ * @param {Object} params - 查询参数，{ all: true } 返回全部文章(不分页)
  */
 export function getArticles(params) {
-  return request.get("/articles", params);
+  return request.get("/articles", { params });
+}
+
+/**
+ * 获取文章详情(包含正文)
+ * @param {number} articleId - 文章ID
+ */
+export function getArticleById(articleId) {
+  return request.get(`/articles/${articleId}`);
 }
 
 /**
@@ -13,12 +13,14 @@ export function uploadGalleries(data) {
 }
 
 /**
- * 获取所有图片
+ * 分页获取图片（包括已禁用的）
+ * params: { pageSize, after, tagId, from, to, isDeleted, withTotal }
  */
-export function getGalleries() {
+export function getGalleries(params) {
   return request({
     url: "/gallery/admin/images",
     method: "get",
+    params: params,
   });
 }
 
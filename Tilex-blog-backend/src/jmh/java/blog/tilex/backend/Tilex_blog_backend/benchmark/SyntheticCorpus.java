@@ -0,0 +1,115 @@
+package blog.tilex.backend.Tilex_blog_backend.benchmark;
+
+import blog.tilex.backend.Tilex_blog_backend.entity.Post;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试用的合成语料
+ * 按固定随机种子生成中文或英文的 Markdown 文章，保证每次运行的数据完全一致
+ */
+public final class SyntheticCorpus {
+
+    /** 每篇文章包含的段落数范围 */
+    private static final int MIN_PARAGRAPHS = 4;
+    private static final int MAX_PARAGRAPHS = 12;
+
+    /** 所有语料中都会出现的关键词，作为搜索/高亮的目标 */
+    public static final String ZH_KEYWORD = "缓存";
+    public static final String EN_KEYWORD = "cache";
+
+    private static final String[] ZH_WORDS = {
+            "缓存", "索引", "数据库", "性能", "优化", "分页", "查询", "文章", "博客", "前端",
+            "后端", "接口", "线程", "并发", "内存", "磁盘", "网络", "请求", "响应", "延迟",
+            "吞吐", "批量", "事务", "连接池", "序列化", "图片", "标签", "上传", "下载", "签名"
+    };
+
+    private static final String[] EN_WORDS = {
+            "cache", "index", "database", "performance", "query", "page", "article", "blog", "frontend",
+            "backend", "api", "thread", "concurrency", "memory", "disk", "network", "request", "response",
+            "latency", "throughput", "batch", "transaction", "pool", "serialization", "image", "tag",
+            "upload", "download", "signature", "spring"
+    };
+
+    private SyntheticCorpus() {
+    }
+
+    /**
+     * 生成语料
+     *
+     * @param size     文章数
+     * @param language zh 或 en
+     */
+    public static List<Post> generate(int size, String language) {
+        boolean chinese = "zh".equals(language);
+        Random random = new Random(42L + size);
+        LocalDateTime base = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+        List<Post> posts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Post post = new Post();
+            post.setId(i + 1);
+            post.setTitle(sentence(random, chinese, 3 + random.nextInt(5)));
+            post.setContent(markdown(random, chinese));
+            post.setStatus(1);
+            post.setCreatedAt(base.plusMinutes(i * 37L));
+            post.setUpdatedAt(post.getCreatedAt());
+            posts.add(post);
+        }
+        return posts;
+    }
+
+    /**
+     * 语料对应的关键词
+     */
+    public static String keyword(String language) {
+        return "zh".equals(language) ? ZH_KEYWORD : EN_KEYWORD;
+    }
+
+    private static String markdown(Random random, boolean chinese) {
+        StringBuilder sb = new StringBuilder();
+        int paragraphs = MIN_PARAGRAPHS + random.nextInt(MAX_PARAGRAPHS - MIN_PARAGRAPHS + 1);
+        for (int p = 0; p < paragraphs; p++) {
+            switch (random.nextInt(5)) {
+                case 0:
+                    sb.append("## ").append(sentence(random, chinese, 4)).append("\n\n");
+                    break;
+                case 1:
+                    sb.append("```java\n")
+                            .append("String value = cache.get(\"key-").append(random.nextInt(1000)).append("\");\n")
+                            .append("```\n\n");
+                    break;
+                case 2:
+                    for (int item = 0; item < 3; item++) {
+                        sb.append("- ").append(sentence(random, chinese, 6)).append('\n');
+                    }
+                    sb.append('\n');
+                    break;
+                default:
+                    sb.append(sentence(random, chinese, 30 + random.nextInt(60))).append("\n\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String sentence(Random random, boolean chinese, int words) {
+        String[] dictionary = chinese ? ZH_WORDS : EN_WORDS;
+        StringBuilder sb = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (!chinese && w > 0) {
+                sb.append(' ');
+            }
+            String word = dictionary[random.nextInt(dictionary.length)];
+            // 英文语料混入一些大写形式，覆盖不区分大小写的匹配
+            if (!chinese && random.nextInt(10) == 0) {
+                word = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+            }
+            sb.append(word);
+        }
+        sb.append(chinese ? '。' : '.');
+        return sb.toString();
+    }
+}
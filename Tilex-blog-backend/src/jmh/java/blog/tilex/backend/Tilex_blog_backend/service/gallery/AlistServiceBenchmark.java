@@ -0,0 +1,82 @@
+package blog.tilex.backend.Tilex_blog_backend.service.gallery;
+
+import blog.tilex.backend.Tilex_blog_backend.benchmark.SyntheticCorpus;
+import blog.tilex.backend.Tilex_blog_backend.config.GalleryConfig;
+import blog.tilex.backend.Tilex_blog_backend.dto.gallery.URLComponents;
+import blog.tilex.backend.Tilex_blog_backend.entity.Post;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AList 路径编码与 URL 解析基准
+ * 每次上传都会执行 encodeUrlPath，每次入库都会执行 parseUrl
+ * 文件名取自合成语料的标题，覆盖中文与英文路径
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class AlistServiceBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int corpusSize;
+
+    @Param({"zh", "en"})
+    private String language;
+
+    private String[] paths;
+    private String[] urls;
+    private AlistClient alistClient;
+    private AlistTokenHolder tokenHolder;
+    private AlistService alistService;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws UnsupportedEncodingException {
+        // parseUrl / encodeUrlPath 不访问 AList，协作对象按默认配置构造即可，不会发起请求
+        GalleryConfig galleryConfig = new GalleryConfig();
+        alistClient = new AlistClient(galleryConfig, 32, 16, 2000, 60000, 5000);
+        tokenHolder = new AlistTokenHolder(galleryConfig, alistClient, 2880, 60);
+        AlistUrlSigner urlSigner = new AlistUrlSigner("", 0, 30);
+        alistService = new AlistService(galleryConfig, alistClient, tokenHolder, urlSigner);
+
+        List<Post> posts = SyntheticCorpus.generate(corpusSize, language);
+        paths = new String[posts.size()];
+        urls = new String[posts.size()];
+        for (int i = 0; i < posts.size(); i++) {
+            Post post = posts.get(i);
+            paths[i] = String.format("/blog-images/2026/%02d/%02d/%s.png",
+                    i % 12 + 1, i % 28 + 1, post.getTitle());
+            urls[i] = "http://oss.tilex.world/d" + alistService.encodeUrlPath(paths[i])
+                    + (i % 2 == 0 ? "?sign=abcdefghijklmnopqrstuvwxyz=:0" : "");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        tokenHolder.shutdown();
+        alistClient.close();
+    }
+
+    private int nextIndex() {
+        int i = cursor;
+        cursor = (cursor + 1) % paths.length;
+        return i;
+    }
+
+    @Benchmark
+    public String encodeUrlPath() throws UnsupportedEncodingException {
+        return alistService.encodeUrlPath(paths[nextIndex()]);
+    }
+
+    @Benchmark
+    public URLComponents parseUrl() {
+        return alistService.parseUrl(urls[nextIndex()]);
+    }
+}
@@ -0,0 +1,45 @@
+package blog.tilex.backend.Tilex_blog_backend.service.impl;
+
+import blog.tilex.backend.Tilex_blog_backend.benchmark.SyntheticCorpus;
+import blog.tilex.backend.Tilex_blog_backend.dto.ArticleVO;
+import blog.tilex.backend.Tilex_blog_backend.entity.Post;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文章 Entity -> VO 转换基准
+ * 列表接口对每一行都会执行一次，文章越长复制的数据越多
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class ArticleServiceImplBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int corpusSize;
+
+    @Param({"zh", "en"})
+    private String language;
+
+    private List<Post> posts;
+    private ArticleServiceImpl articleService;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        posts = SyntheticCorpus.generate(corpusSize, language);
+        articleService = new ArticleServiceImpl();
+    }
+
+    @Benchmark
+    public ArticleVO convertToVO() {
+        Post post = posts.get(cursor);
+        cursor = (cursor + 1) % posts.size();
+        return articleService.convertToVO(post);
+    }
+}
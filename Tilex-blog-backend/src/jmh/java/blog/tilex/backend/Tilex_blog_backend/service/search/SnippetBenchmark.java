@@ -0,0 +1,150 @@
+package blog.tilex.backend.Tilex_blog_backend.service.search;
+
+import blog.tilex.backend.Tilex_blog_backend.benchmark.SyntheticCorpus;
+import blog.tilex.backend.Tilex_blog_backend.dao.PostDao;
+import blog.tilex.backend.Tilex_blog_backend.entity.Post;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 搜索热路径基准：片段提取、关键词高亮、索引查询
+ *
+ * legacy* 方法保留了改造前基于正则的实现，作为对比基线
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class SnippetBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int corpusSize;
+
+    @Param({"zh", "en"})
+    private String language;
+
+    private List<Post> posts;
+    private int[][] indexPositions;
+    private String keyword;
+    private ArticleSearchIndex index;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        posts = SyntheticCorpus.generate(corpusSize, language);
+        keyword = SyntheticCorpus.keyword(language);
+
+        // 预先算好命中位置，模拟索引给出的位置信息
+        indexPositions = new int[posts.size()][];
+        for (int i = 0; i < posts.size(); i++) {
+            indexPositions[i] = SnippetBuilder.findMatches(posts.get(i).getContent(), keyword);
+        }
+
+        PostDao postDao = mock(PostDao.class);
+        when(postDao.selectAll()).thenReturn(posts);
+        index = new ArticleSearchIndex(postDao);
+        index.rebuild();
+    }
+
+    private int nextIndex() {
+        int i = cursor;
+        cursor = (cursor + 1) % posts.size();
+        return i;
+    }
+
+    @Benchmark
+    public List<String> legacyExtractSnippets() {
+        return LegacySnippets.extractSnippets(posts.get(nextIndex()).getContent(), keyword);
+    }
+
+    @Benchmark
+    public List<String> extractSnippets() {
+        String content = posts.get(nextIndex()).getContent();
+        return SnippetBuilder.build(content, SnippetBuilder.findMatches(content, keyword), keyword.length());
+    }
+
+    @Benchmark
+    public List<String> buildFromIndexPositions() {
+        int i = nextIndex();
+        return SnippetBuilder.build(posts.get(i).getContent(), indexPositions[i], keyword.length());
+    }
+
+    @Benchmark
+    public String legacyHighlightKeyword() {
+        return LegacySnippets.highlightKeyword(posts.get(nextIndex()).getTitle(), keyword);
+    }
+
+    @Benchmark
+    public String highlightKeyword() {
+        return SnippetBuilder.highlight(posts.get(nextIndex()).getTitle(), keyword);
+    }
+
+    @Benchmark
+    public List<ArticleSearchIndex.SearchHit> indexSearch() {
+        return index.search(keyword, 50);
+    }
+
+    /**
+     * 改造前 ArticleServiceImpl 中基于正则的片段提取与高亮实现
+     */
+    static final class LegacySnippets {
+        private static final String HIGHLIGHT_PREFIX = "<span class='markdown-highlight'>";
+        private static final String HIGHLIGHT_SUFFIX = "</span>";
+        private static final int SNIPPET_CONTEXT_LENGTH = 20;
+        private static final int MAX_SNIPPETS = 5;
+
+        private LegacySnippets() {
+        }
+
+        static List<String> extractSnippets(String content, String keyword) {
+            List<String> snippets = new ArrayList<>();
+            Pattern pattern = Pattern.compile(Pattern.quote(keyword), Pattern.CASE_INSENSITIVE);
+            Matcher matcher = pattern.matcher(content);
+
+            int count = 0;
+            while (matcher.find() && count < MAX_SNIPPETS) {
+                int snippetStart = Math.max(0, matcher.start() - SNIPPET_CONTEXT_LENGTH);
+                int snippetEnd = Math.min(content.length(), matcher.end() + SNIPPET_CONTEXT_LENGTH);
+
+                StringBuilder sb = new StringBuilder();
+                if (snippetStart > 0) {
+                    sb.append("...");
+                }
+                sb.append(content, snippetStart, snippetEnd);
+                if (snippetEnd < content.length()) {
+                    sb.append("...");
+                }
+                snippets.add(highlightKeyword(sb.toString(), keyword));
+                count++;
+            }
+
+            if (snippets.isEmpty()) {
+                String preview = content.substring(0, Math.min(content.length(), 150));
+                snippets.add(content.length() > 150 ? preview + "..." : preview);
+            }
+            return snippets;
+        }
+
+        static String highlightKeyword(String text, String keyword) {
+            Pattern pattern = Pattern.compile(Pattern.quote(keyword), Pattern.CASE_INSENSITIVE);
+            Matcher matcher = pattern.matcher(text);
+
+            StringBuffer sb = new StringBuffer();
+            while (matcher.find()) {
+                matcher.appendReplacement(sb, HIGHLIGHT_PREFIX + matcher.group() + HIGHLIGHT_SUFFIX);
+            }
+            matcher.appendTail(sb);
+            return sb.toString();
+        }
+    }
+}
@@ -1,17 +1,27 @@
 package blog.tilex.backend.Tilex_blog_backend.controller;
 
 import blog.tilex.backend.Tilex_blog_backend.dto.*;
+import blog.tilex.backend.Tilex_blog_backend.dto.common.ResourceVersion;
 import blog.tilex.backend.Tilex_blog_backend.service.ArticleService;
+import blog.tilex.backend.Tilex_blog_backend.utils.CursorPageResult;
 import blog.tilex.backend.Tilex_blog_backend.utils.PageResult;
 import blog.tilex.backend.Tilex_blog_backend.utils.ResultMsg;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.format.SignStyle;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 文章控制器
@@ -29,22 +39,42 @@ public class ArticleController {
      * GET /articles?all=true
      *
      * 前端调用：getArticles({ all: true })
+     *
+     * 游标分页：GET /articles?cursor=true&pageSize=10
+     * 下一页：GET /articles?after={上一页的 nextCursor}&pageSize=10
+     *
+     * 支持条件 GET：文章表没有变化时返回 304
      */
     @GetMapping
     public ResultMsg<Object> getArticles(
             @RequestParam(required = false) Boolean all,
-            @Validated ArticleQueryDTO queryDTO) {
+            @Validated ArticleQueryDTO queryDTO,
+            WebRequest webRequest) {
 
         log.info("接收到获取文章请求，all={}, queryDTO={}", all, queryDTO);
 
+        // 条件 GET：ETag 区分不同的查询参数；列表不使用 Last-Modified，
+        // MAX(updated_at) 不随物理删除和带较早时间的导入变化，只凭 If-Modified-Since 会误判为未修改
+        ResourceVersion version = articleService.getArticlesVersion();
+        if (webRequest.checkNotModified(version.etag("articles", all + "|" + queryDTO))) {
+            log.info("文章列表未变化，返回 304");
+            return null;
+        }
+
         // 如果 all=true，返回所有文章（不分页）
         if (Boolean.TRUE.equals(all)) {
-            List<ArticleVO> articles = articleService.getAllArticles();
+            List<ArticleSummaryVO> articles = articleService.getAllArticles();
             return ResultMsg.success(articles);
         }
 
+        // 游标分页
+        if (Boolean.TRUE.equals(queryDTO.getCursor()) || queryDTO.getAfter() != null) {
+            CursorPageResult<ArticleSummaryVO> cursorResult = articleService.getArticleListByCursor(queryDTO);
+            return ResultMsg.success(cursorResult);
+        }
+
         // 否则返回分页数据
-        PageResult<ArticleVO> pageResult = articleService.getArticleList(queryDTO);
+        PageResult<ArticleSummaryVO> pageResult = articleService.getArticleList(queryDTO);
         return ResultMsg.success(pageResult);
     }
 
@@ -55,9 +85,17 @@ public class ArticleController {
      * 前端调用：request("/articles/1", "GET")
      */
     @GetMapping("/{id}")
-    public ResultMsg<ArticleVO> getArticleById(@PathVariable int id) {
+    public ResultMsg<ArticleVO> getArticleById(@PathVariable int id, WebRequest webRequest) {
         log.info("获取文章详情，ID: {}", id);
 
+        // 条件 GET：只查询 updated_at，未变化时返回 304
+        ResourceVersion version = articleService.getArticleVersion(id);
+        if (version != null
+                && webRequest.checkNotModified(version.etag("article", null), version.lastModifiedMillis())) {
+            log.info("文章未变化，返回 304，ID: {}", id);
+            return null;
+        }
+
         ArticleVO article = articleService.getArticleById(id);
         return ResultMsg.success(article);
     }
@@ -86,12 +124,43 @@ public class ArticleController {
 
     // 批量上传接口
     @PostMapping("/batch")
-    public ResultMsg<List<ArticleVO>> createArticles(@RequestBody List<UploadArticleDTO> articleDTOList) {
+    public ResultMsg<ArticleBatchResultVO> createArticles(@RequestBody List<UploadArticleDTO> articleDTOList) {
         log.info("开始批量创建文章，共 {} 篇", articleDTOList.size());
 
-        List<ArticleVO> voList = articleService.createArticles(articleDTOList);
+        ArticleBatchResultVO result = articleService.createArticles(articleDTOList);
 
-        return ResultMsg.success(voList);
+        return ResultMsg.success(result);
+    }
+
+    /**
+     * 导出全部文章（NDJSON，每行一篇）
+     * GET /articles/export
+     *
+     * 边查边写，不在内存中拼装完整结果，适用于备份和迁移
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportArticles() {
+        log.info("开始导出文章");
+
+        StreamingResponseBody body = articleService::exportArticles;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson;charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"articles.ndjson\"")
+                .body(body);
+    }
+
+    /**
+     * 导入文章（NDJSON，每行一篇，格式与导出一致）
+     * POST /articles/import
+     *
+     * 直接读取请求体流，逐行解析、分块写入
+     */
+    @PostMapping("/import")
+    public ResultMsg<ArticleBatchResultVO> importArticles(HttpServletRequest request) throws IOException {
+        log.info("开始导入文章");
+
+        ArticleBatchResultVO result = articleService.importArticles(request.getInputStream());
+        return ResultMsg.success(result);
     }
 
     /**
@@ -102,10 +171,11 @@ public class ArticleController {
     public ResultMsg<List<ArticleSearchVO>> searchArticles(
             @Valid @RequestBody SearchRequestDTO searchRequestDTO) {
         String keyword = searchRequestDTO.getKeyword();
+        boolean includeContent = !Boolean.FALSE.equals(searchRequestDTO.getIncludeContent());
 
         try {
             // service层进行搜索
-            List<ArticleSearchVO> results = articleService.searchArticles(keyword);
+            List<ArticleSearchVO> results = articleService.searchArticles(keyword, includeContent);
 
             log.info("搜索成功，关键词： {}， 匹配数目: {}", keyword, results.size());
             return ResultMsg.success(results);
@@ -114,6 +184,24 @@ public class ArticleController {
         }
     }
 
+    /**
+     * 搜索统计
+     * GET /articles/search/stats
+     */
+    @GetMapping("/search/stats")
+    public ResultMsg<Map<String, Object>> getSearchStats() {
+        return ResultMsg.success(articleService.getSearchStats());
+    }
+
+    /**
+     * 文章缓存统计
+     * GET /articles/cache/stats
+     */
+    @GetMapping("/cache/stats")
+    public ResultMsg<Map<String, Object>> getCacheStats() {
+        return ResultMsg.success(articleService.getCacheStats());
+    }
+
     /**
      * 更新文章
      */
@@ -1,14 +1,22 @@
 package blog.tilex.backend.Tilex_blog_backend.controller;
 
+import blog.tilex.backend.Tilex_blog_backend.dto.common.ResourceVersion;
 import blog.tilex.backend.Tilex_blog_backend.dto.common.Result;
 import blog.tilex.backend.Tilex_blog_backend.dto.gallery.*;
 import blog.tilex.backend.Tilex_blog_backend.entity.GalleryImage;
+import blog.tilex.backend.Tilex_blog_backend.entity.GalleryImageVariant;
 import blog.tilex.backend.Tilex_blog_backend.service.gallery.AlistService;
 import blog.tilex.backend.Tilex_blog_backend.service.gallery.GalleryImageService;
 import blog.tilex.backend.Tilex_blog_backend.service.gallery.GalleryImageTagService;
-import blog.tilex.backend.Tilex_blog_backend.utils.gallery.FileValidator;
+import blog.tilex.backend.Tilex_blog_backend.service.gallery.GalleryTagIndex;
+import blog.tilex.backend.Tilex_blog_backend.service.gallery.GalleryUploadPipeline;
+import blog.tilex.backend.Tilex_blog_backend.service.gallery.job.ContentHashJobHandler;
+import blog.tilex.backend.Tilex_blog_backend.service.gallery.job.GalleryJobService;
+import blog.tilex.backend.Tilex_blog_backend.service.gallery.job.GalleryJobWorker;
+import blog.tilex.backend.Tilex_blog_backend.utils.CursorPageResult;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -26,16 +34,25 @@ public class GalleryImageController {
     private final GalleryImageService galleryImageService;
     private final GalleryImageTagService galleryImageTagService;
     private final AlistService alistService;
-    private final FileValidator fileValidator;
+    private final GalleryUploadPipeline galleryUploadPipeline;
+    private final GalleryJobService galleryJobService;
+    private final GalleryJobWorker galleryJobWorker;
+    private final GalleryTagIndex galleryTagIndex;
 
     public GalleryImageController(GalleryImageService galleryImageService,
                                 GalleryImageTagService galleryImageTagService,
                                 AlistService alistService,
-                                FileValidator fileValidator) {
+                                GalleryUploadPipeline galleryUploadPipeline,
+                                GalleryJobService galleryJobService,
+                                GalleryJobWorker galleryJobWorker,
+                                GalleryTagIndex galleryTagIndex) {
         this.galleryImageService = galleryImageService;
         this.galleryImageTagService = galleryImageTagService;
         this.alistService = alistService;
-        this.fileValidator = fileValidator;
+        this.galleryUploadPipeline = galleryUploadPipeline;
+        this.galleryJobService = galleryJobService;
+        this.galleryJobWorker = galleryJobWorker;
+        this.galleryTagIndex = galleryTagIndex;
     }
 
     /**
@@ -66,43 +83,34 @@ public class GalleryImageController {
                 " files per upload");
         }
 
-        // 第一阶段：验证并上传所有文件到AList，不保存到数据库
+        // 第一阶段：并行验证并上传所有文件到AList(校验、哈希、上传、签名四个阶段在文件之间流水线执行)，不保存到数据库
+        // 内容已存在的文件不会上传，第二阶段直接复用已有图片
+        GalleryUploadPipeline.BatchUpload batch = galleryUploadPipeline.uploadAll(files);
+
         List<Map<String, Object>> uploadedFiles = new ArrayList<>();
         List<String> errors = new ArrayList<>();
 
-        for (int i = 0; i < files.length; i++) {
-            try {
-                MultipartFile file = files[i];
-
-                // 验证文件
-                fileValidator.validate(file);
-
-                // 上载到 AList
-                log.debug("Uploading file {} to AList: {}", i, file.getOriginalFilename());
-                String imageUrl = alistService.uploadFile(file);
-
-                // 解析 URL
-                URLComponents components = alistService.parseUrl(imageUrl);
-
-                // 保存上传信息到临时List中
-                Map<String, Object> uploadInfo = new LinkedHashMap<>();
-                uploadInfo.put("imageUrl", imageUrl);
-                uploadInfo.put("components", components);
-                uploadInfo.put("title", titles != null && i < titles.length ? 
-                    titles[i] : file.getOriginalFilename());
-                uploadInfo.put("description", descriptions != null && i < descriptions.length ? 
-                    descriptions[i] : "");
-
-                uploadedFiles.add(uploadInfo);
-                log.debug("File {} uploaded to AList successfully", i);
-
-            } catch (Exception e) {
-                String errorMsg = "File " + i + " (" + 
-                    (files[i] != null ? files[i].getOriginalFilename() : "unknown") + 
-                    "): " + e.getMessage();
-                errors.add(errorMsg);
-                log.error("Error uploading file {}: {}", i, e.getMessage());
+        for (GalleryUploadPipeline.FileUpload upload : batch.getUploads()) {
+            int i = upload.getIndex();
+            if (!upload.isSucceeded()) {
+                errors.add("File " + i + " (" + upload.getOriginalFilename() + "): " + upload.getError());
+                continue;
             }
+
+            // 保存上传信息到临时List中
+            Map<String, Object> uploadInfo = new LinkedHashMap<>();
+            uploadInfo.put("index", i);
+            uploadInfo.put("imageUrl", upload.getImageUrl());
+            uploadInfo.put("components", upload.getComponents());
+            uploadInfo.put("contentHash", upload.getContentHash());
+            uploadInfo.put("existingImageId", upload.getExistingImageId());
+            uploadInfo.put("duplicateOfIndex", upload.getDuplicateOfIndex());
+            uploadInfo.put("title", titles != null && i < titles.length ? 
+                titles[i] : upload.getOriginalFilename());
+            uploadInfo.put("description", descriptions != null && i < descriptions.length ? 
+                descriptions[i] : "");
+
+            uploadedFiles.add(uploadInfo);
         }
 
         // 如果有任何文件上传失败，返回错误，避免数据库与AList不一致
@@ -112,51 +120,81 @@ public class GalleryImageController {
             data.put("uploadedCount", uploadedFiles.size());
             data.put("totalCount", files.length);
             data.put("errors", errors);
+            data.put("elapsedMillis", batch.getElapsedMillis());
+            data.put("stageLatency", batch.getStageLatency());
             data.put("message", "Upload failed, no files were saved to database (consistency maintained)");
             return Result.fail(data, "Batch upload failed due to errors in AList upload");
         }
 
-        // 第二阶段：如果所有文件都成功上传到AList，则保存到数据库
+        // 第二阶段：如果所有文件都成功上传到AList，则在一个事务中保存到数据库(全部成功或全部回滚)
         List<Long> imageIds = new ArrayList<>();
+        List<Map<String, Object>> duplicates = new ArrayList<>();
+        int newCount = 0;
+        int insertStatements = 0;
         
+        // 创建图库图片实体(内容已存在的文件不创建)
+        Map<Integer, GalleryImage> newImageByIndex = new LinkedHashMap<>();
+        Map<Integer, Long> existingByIndex = new LinkedHashMap<>();
+        Map<Integer, Integer> duplicateOfByIndex = new LinkedHashMap<>();
+        for (Map<String, Object> uploadInfo : uploadedFiles) {
+            int index = (Integer) uploadInfo.get("index");
+            if (uploadInfo.get("duplicateOfIndex") != null) {
+                duplicateOfByIndex.put(index, (Integer) uploadInfo.get("duplicateOfIndex"));
+                continue;
+            }
+            if (uploadInfo.get("existingImageId") != null) {
+                existingByIndex.put(index, (Long) uploadInfo.get("existingImageId"));
+                continue;
+            }
+            URLComponents components = (URLComponents) uploadInfo.get("components");
+
+            GalleryImage image = new GalleryImage();
+            image.setTitle((String) uploadInfo.get("title"));
+            image.setDescription((String) uploadInfo.get("description"));
+            image.setImageUrl((String) uploadInfo.get("imageUrl"));
+            image.setAlistPath(components.getPath());
+            image.setAlistDomain(components.getDomain());
+            image.setSourceType("alist");
+            image.setHasSignParam(components.isHasSign() ? 1 : 0);
+            image.setContentHash((String) uploadInfo.get("contentHash"));
+            image.setIsDeleted(0);
+            newImageByIndex.put(index, image);
+        }
+
         try {
-            for (int i = 0; i < uploadedFiles.size(); i++) {
-                Map<String, Object> uploadInfo = uploadedFiles.get(i);
-                URLComponents components = (URLComponents) uploadInfo.get("components");
-
-                // 创建图库图片实体
-                GalleryImage image = new GalleryImage();
-                image.setTitle((String) uploadInfo.get("title"));
-                image.setDescription((String) uploadInfo.get("description"));
-                image.setImageUrl((String) uploadInfo.get("imageUrl"));
-                image.setAlistPath(components.getPath());
-                image.setAlistDomain(components.getDomain());
-                image.setSourceType("alist");
-                image.setHasSignParam(components.isHasSign() ? 1 : 0);
-                image.setIsDeleted(0);
-
-                // 保存到数据库
-                GalleryImage savedImage = galleryImageService.saveImage(image);
-                imageIds.add(savedImage.getId());
-
-                log.debug("Image saved to database: {}", savedImage.getId());
+            GalleryImageService.UploadSaveResult saved =
+                galleryImageService.saveUploadedImages(newImageByIndex, existingByIndex, duplicateOfByIndex);
+            insertStatements = saved.getInsertStatements();
+            for (Map.Entry<Integer, Long> entry : saved.getImageIdByIndex().entrySet()) {
+                imageIds.add(entry.getValue());
+                if (saved.getNewIndexes().contains(entry.getKey())) {
+                    newCount++;
+                } else {
+                    duplicates.add(Map.of("index", entry.getKey(), "imageId", entry.getValue()));
+                }
             }
         } catch (Exception e) {
             log.error("Error saving images to database: {}", e.getMessage());
-            // 注意：此时文件已经上传到AList，但数据库保存失败
+            // 注意：此时文件已经上传到AList，但数据库保存失败(整批已回滚)
             // 这是不可恢复的情况，需要手动清理或重试
             errors.add("Database save failed: " + e.getMessage());
         }
 
         Map<String, Object> data = new LinkedHashMap<>();
-        data.put("uploadedCount", imageIds.size());
+        data.put("uploadedCount", newCount);
+        data.put("duplicateCount", duplicates.size());
         data.put("totalCount", files.length);
         data.put("imageIds", imageIds);
+        data.put("duplicates", duplicates);
+        data.put("insertStatements", insertStatements);
         data.put("errors", errors);
+        data.put("elapsedMillis", batch.getElapsedMillis());
+        data.put("stageLatency", batch.getStageLatency());
 
         String message = imageIds.isEmpty() ? 
             "All uploads failed" : 
-            ("Successfully uploaded " + imageIds.size() + "/" + files.length);
+            ("Successfully uploaded " + imageIds.size() + "/" + files.length
+                + (duplicates.isEmpty() ? "" : " (" + duplicates.size() + " already existed)"));
 
         return imageIds.isEmpty() ? Result.fail(data, message) : Result.ok(data, message);
     }
@@ -184,29 +222,56 @@ public class GalleryImageController {
     }
 
     /**
-     * 获取所有嚾片
+     * 分页获取嚾片(游标分页，按 sortOrder, id 升序)
+     * 支持按标签和创建日期筛选；支持条件 GET：If-None-Match 命中时返回 304，不查询图片列表
      * 
-     * @return 所有主动嚾片的列表
+     * @param query 分页和筛选参数，客户端用返回的 nextCursor 作为 after 请求下一页
+     * @return 一页主动嚾片，withTotal=true 时附带总数
      */
     @GetMapping("/images")
-    public Result<Map<String, Object>> getAllImages() {
-        log.info("Fetching all images");
+    public Result<Map<String, Object>> getAllImages(GalleryImageQuery query, WebRequest webRequest) {
+        log.info("Fetching images page: {}", query);
 
         try {
-            List<GalleryImage> images = galleryImageService.findAllImages();
-            long totalCount = galleryImageService.getImageCount();
-
-            Map<String, Object> data = new LinkedHashMap<>();
-            data.put("images", images);
-            data.put("totalCount", totalCount);
+            // 列表只用 ETag 判断：MAX(updated_at) 不随物理删除和较早时间的插入变化，不能作为 Last-Modified
+            ResourceVersion version = galleryImageService.getImagesVersion();
+            String variant = query.toString();
+            if (query.getTagId() != null) {
+                // 按标签筛选时结果还取决于关联表，增删关联不会改变 gallery_images 的版本
+                variant += "|" + galleryImageService.getImageTagsVersion(query.getTagId()).etag("image-tags", null);
+            }
+            if (webRequest.checkNotModified(version.etag("images", variant))) {
+                log.debug("Images not modified, returning 304");
+                return null;
+            }
 
-            return Result.ok(data);
+            return Result.ok(toPageData(galleryImageService.findImagesPage(query)));
         } catch (Exception e) {
             log.error("Error fetching images: {}", e.getMessage());
             return Result.fail(e.getMessage());
         }
     }
 
+    /**
+     * 按标签表达式分页获取嚾片，每张图片附带其标签
+     * 例：tags=1,2&anyTags=3,4&notTags=5 表示同时带有 1 和 2、至少带有 3 或 4 之一、且不带 5
+     * 
+     * @param query tags(AND)、anyTags(OR)、notTags 以及分页参数
+     * @return 一页带标签的嚾片
+     */
+    @GetMapping("/images/by-tags")
+    public Result<Map<String, Object>> getImagesByTags(GalleryImageQuery query) {
+        log.info("Fetching images by tags: all={}, any={}, not={}",
+            query.getTags(), query.getAnyTags(), query.getNotTags());
+
+        try {
+            return Result.ok(toPageData(galleryImageService.findImagesByTags(query)));
+        } catch (Exception e) {
+            log.error("Error fetching images by tags: {}", e.getMessage());
+            return Result.fail(e.getMessage());
+        }
+    }
+
     /**
      * 根据 ID 获取嚾片
      * 
@@ -230,6 +295,25 @@ public class GalleryImageController {
         }
     }
 
+    /**
+     * 获取图片的衍生尺寸(按宽度升序)，用于构建响应式图片 srcset
+     * 
+     * @param imageId 图片 ID
+     * @return 衍生尺寸列表，无法生成衍生尺寸的图片返回空列表
+     */
+    @GetMapping("/images/{imageId}/variants")
+    public Result<List<GalleryImageVariant>> getImageVariants(@PathVariable Long imageId) {
+        try {
+            if (galleryImageService.findImageById(imageId).isEmpty()) {
+                return Result.fail("Image not found");
+            }
+            return Result.ok(galleryImageService.findVariants(imageId));
+        } catch (Exception e) {
+            log.error("Error fetching image variants: {}", e.getMessage());
+            return Result.fail(e.getMessage());
+        }
+    }
+
     /**
      * 根据标题搜索嚾片
      * 
@@ -337,30 +421,56 @@ public class GalleryImageController {
         }
     }
 
+    /**
+     * AList 客户端统计
+     * 连接池占用(leased/available/pending)和各接口的请求数、平均/最大耗时，用于判断 AList 是否成为瓶颈
+     *
+     * @return 统计数据
+     */
+    @GetMapping("/diagnostic/alist-client")
+    public Result<Map<String, Object>> getAlistClientStats() {
+        try {
+            return Result.ok(alistService.getClientStats());
+        } catch (Exception e) {
+            log.error("Error fetching AList client stats: {}", e.getMessage());
+            return Result.fail(e.getMessage());
+        }
+    }
+
+    /**
+     * 标签索引统计
+     * 标签数、关联数、位图占用内存以及最近一次全量重建的时间和耗时
+     *
+     * @return 统计数据
+     */
+    @GetMapping("/diagnostic/tag-index")
+    public Result<Map<String, Object>> getTagIndexStats() {
+        try {
+            return Result.ok(galleryTagIndex.snapshot());
+        } catch (Exception e) {
+            log.error("Error fetching tag index stats: {}", e.getMessage());
+            return Result.fail(e.getMessage());
+        }
+    }
+
     /**
      * ============ 后台管理接口 ============
      * 以下接口仅用于后台管理员，返回所有图片（包括已删除的）
      */
 
     /**
-     * 后台接口：获取所有图片（包括已删除的）
-     * 用于后台管理员查看所有图片
+     * 后台接口：分页获取图片（包括已删除的）
+     * 用于后台管理员查看所有图片，可用 isDeleted 只看已发布或已删除的图片
      * 
-     * @return 所有图片列表
+     * @param query 分页和筛选参数
+     * @return 一页图片
      */
     @GetMapping("/admin/images")
-    public Result<Map<String, Object>> getAllImagesForAdmin() {
-        log.info("Fetching all images for admin panel");
+    public Result<Map<String, Object>> getAllImagesForAdmin(GalleryImageQuery query) {
+        log.info("Fetching images page for admin panel: {}", query);
 
         try {
-            List<GalleryImage> images = galleryImageService.findAllImagesForAdmin();
-            long totalCount = images.size();
-
-            Map<String, Object> data = new LinkedHashMap<>();
-            data.put("images", images);
-            data.put("totalCount", totalCount);
-
-            return Result.ok(data);
+            return Result.ok(toPageData(galleryImageService.findImagesPageForAdmin(query)));
         } catch (Exception e) {
             log.error("Error fetching all images for admin: {}", e.getMessage());
             return Result.fail(e.getMessage());
@@ -431,6 +541,106 @@ public class GalleryImageController {
         }
     }
 
+    /**
+     * 后台接口：重新签名所有带 sign 参数的图片 URL
+     * 用于 AList 签名过期或更换签名密钥之后
+     * 
+     * @return 更新数量和失败信息
+     */
+    @PostMapping("/admin/images/resign")
+    public Result<Map<String, Object>> resignImages() {
+        log.info("Re-signing image URLs");
+
+        try {
+            Map<String, Object> result = galleryImageService.resignImages();
+            return Result.ok(result, "Image URLs re-signed");
+        } catch (Exception e) {
+            log.error("Error re-signing images: {}", e.getMessage());
+            return Result.fail(e.getMessage());
+        }
+    }
+
+    /**
+     * 后台接口：为尚未计算内容哈希的历史图片排队回填任务
+     * 回填之后重复上传这些图片也会被识别
+     * 
+     * @return 排队的任务数量
+     */
+    @PostMapping("/admin/images/hash-backfill")
+    public Result<Map<String, Object>> backfillContentHashes() {
+        log.info("Queueing content hash backfill");
+
+        try {
+            List<Long> imageIds = galleryImageService.findImageIdsWithoutContentHash();
+            int queued = 0;
+            for (Long imageId : imageIds) {
+                if (galleryJobService.enqueue(ContentHashJobHandler.JOB_TYPE, imageId)) {
+                    queued++;
+                }
+            }
+            Map<String, Object> result = new HashMap<>();
+            result.put("pendingCount", imageIds.size());
+            result.put("queuedCount", queued);
+            return Result.ok(result, "Content hash backfill queued");
+        } catch (Exception e) {
+            log.error("Error queueing content hash backfill: {}", e.getMessage());
+            return Result.fail(e.getMessage());
+        }
+    }
+
+    /**
+     * 后台接口：后台任务队列状态
+     * queue 为所有实例共享的队列深度和吞吐量，worker 为当前实例的工作线程统计
+     * 
+     * @return 队列统计
+     */
+    @GetMapping("/admin/jobs")
+    public Result<Map<String, Object>> getJobStats() {
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("queue", galleryJobService.queueStats());
+            stats.put("worker", galleryJobWorker.snapshot());
+            return Result.ok(stats);
+        } catch (Exception e) {
+            log.error("Error fetching job stats: {}", e.getMessage());
+            return Result.fail(e.getMessage());
+        }
+    }
+
+    /**
+     * 后台接口：重试失败的后台任务
+     * 
+     * @param jobId 任务 ID
+     * @return 操作结果
+     */
+    @PostMapping("/admin/jobs/{jobId}/retry")
+    public Result<Void> retryJob(@PathVariable Long jobId) {
+        log.info("Retrying gallery job: {}", jobId);
+
+        try {
+            galleryJobService.retry(jobId);
+            return Result.ok(null, "Job queued for retry");
+        } catch (Exception e) {
+            log.error("Error retrying job: {}", e.getMessage());
+            return Result.fail(e.getMessage());
+        }
+    }
+
+    /**
+     * 图片分页结果转为响应数据，沿用列表接口原有的 images / totalCount 字段名
+     */
+    private Map<String, Object> toPageData(CursorPageResult<?> page) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("images", page.getRecords());
+        data.put("pageSize", page.getPageSize());
+        data.put("hasMore", page.getHasMore());
+        data.put("nextCursor", page.getNextCursor());
+        if (page.getTotal() != null) {
+            data.put("totalCount", page.getTotal());
+        }
+        return data;
+    }
+
     /**
      * 后台接口：获取统计信息（包含已删除的图片统计）
      * 
@@ -6,7 +6,6 @@ import blog.tilex.backend.Tilex_blog_backend.service.gallery.GalleryImageTagServ
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -125,7 +124,7 @@ public class GalleryImageTagController {
     /**
      * Batch disassociate images from tags
      * 
-     * @param request Batch disassociate request (uses associations mode)
+     * @param request Batch disassociate request (associations or imageIds + tagIds)
      * @return Disassociation result
      */
     @PostMapping("/batch-disassociate")
@@ -135,24 +134,11 @@ public class GalleryImageTagController {
         log.info("Starting batch image-tag disassociation");
 
         try {
-            int successCount = 0;
-            List<String> errors = new ArrayList<>();
-
-            if (request.getAssociations() != null) {
-                for (var assoc : request.getAssociations()) {
-                    try {
-                        galleryImageTagService.disassociateImageFromTags(
-                            assoc.getImageId(), assoc.getTagIds());
-                        successCount += assoc.getTagIds().size();
-                    } catch (Exception e) {
-                        errors.add("Image:" + assoc.getImageId() + " - " + e.getMessage());
-                    }
-                }
-            }
+            int successCount = galleryImageTagService.batchDisassociateImageTags(request);
 
             Map<String, Object> result = new LinkedHashMap<>();
             result.put("successCount", successCount);
-            result.put("errors", errors);
+            result.put("errors", List.of());
 
             return Result.ok(result, "Batch disassociation completed");
         } catch (Exception e) {
@@ -1,17 +1,21 @@
 package blog.tilex.backend.Tilex_blog_backend.controller;
 
+import blog.tilex.backend.Tilex_blog_backend.dto.common.ResourceVersion;
 import blog.tilex.backend.Tilex_blog_backend.dto.common.Result;
 import blog.tilex.backend.Tilex_blog_backend.dto.gallery.BatchCreateTagRequest;
 import blog.tilex.backend.Tilex_blog_backend.dto.gallery.TagCreateItem;
+import blog.tilex.backend.Tilex_blog_backend.dto.gallery.TagSuggestionVO;
 import blog.tilex.backend.Tilex_blog_backend.entity.GalleryTag;
 import blog.tilex.backend.Tilex_blog_backend.service.gallery.GalleryTagService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 画庶标签 Controller
@@ -23,6 +27,9 @@ import java.util.Optional;
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class GalleryTagController {
 
+    /** 输入联想每次最多返回数量 */
+    private static final int MAX_SUGGEST_LIMIT = 50;
+
     private final GalleryTagService galleryTagService;
 
     public GalleryTagController(GalleryTagService galleryTagService) {
@@ -93,10 +100,17 @@ public class GalleryTagController {
      * @return 所有活动标签的列表
      */
     @GetMapping
-    public Result<Map<String, Object>> getAllTags() {
+    public Result<Map<String, Object>> getAllTags(WebRequest webRequest) {
         log.info("Fetching all tags");
 
         try {
+            // 条件 GET：标签表没有变化时直接返回 304(列表只用 ETag，不使用 Last-Modified)
+            ResourceVersion version = galleryTagService.getTagsVersion();
+            if (webRequest.checkNotModified(version.etag("tags", null))) {
+                log.debug("Tags not modified, returning 304");
+                return null;
+            }
+
             List<GalleryTag> tags = galleryTagService.findAllTags();
             long totalCount = galleryTagService.getTagCount();
 
@@ -111,6 +125,24 @@ public class GalleryTagController {
         }
     }
 
+    /**
+     * 获取每个标签的图片数(标签云使用)
+     * 从内存标签索引读取，不执行 COUNT 查询；没有图片的标签不出现
+     * 
+     * @return 标签 ID 到图片数的映射
+     */
+    @GetMapping("/counts")
+    public Result<Map<String, Object>> getTagImageCounts() {
+        try {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("counts", galleryTagService.getTagImageCounts());
+            return Result.ok(data);
+        } catch (Exception e) {
+            log.error("Error fetching tag counts: {}", e.getMessage());
+            return Result.fail(e.getMessage());
+        }
+    }
+
     /**
      * Get tag by ID
      * 
@@ -162,6 +194,35 @@ public class GalleryTagController {
         }
     }
 
+    /**
+     * 标签输入联想(管理端标签选择器每次按键调用)
+     * 名称包含 q 的标签(不区分大小写，支持中文)，按图片数降序取前 limit 个；q 为空时返回图片最多的标签
+     *
+     * @param q     输入内容
+     * @param limit 最多返回数量(1-50)
+     * @return 联想结果与服务端耗时(微秒)
+     */
+    @GetMapping("/suggest")
+    public Result<Map<String, Object>> suggestTags(
+        @RequestParam(value = "q", required = false) String q,
+        @RequestParam(value = "limit", defaultValue = "10") int limit) {
+
+        try {
+            long start = System.nanoTime();
+            List<TagSuggestionVO> tags = galleryTagService.suggestTags(q, Math.max(1, Math.min(limit, MAX_SUGGEST_LIMIT)));
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("tags", tags);
+            data.put("count", tags.size());
+            data.put("micros", micros);
+            return Result.ok(data);
+        } catch (Exception e) {
+            log.error("Error suggesting tags: {}", e.getMessage());
+            return Result.fail(e.getMessage());
+        }
+    }
+
     /**
      * Delete tag (soft delete)
      * 
@@ -1,9 +1,13 @@
 package blog.tilex.backend.Tilex_blog_backend.dao;
 
+import blog.tilex.backend.Tilex_blog_backend.dto.common.ResourceVersion;
 import blog.tilex.backend.Tilex_blog_backend.entity.Post;
+import blog.tilex.backend.Tilex_blog_backend.entity.PostSummary;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -14,6 +18,12 @@ public interface PostDao {
     // 查询所有文章
     List<Post> selectAll();
 
+    // 查询所有文章的列表投影（不含 content）
+    List<PostSummary> selectAllSummaries();
+
+    // 流式读取全部文章（含草稿），需在事务内遍历，用于导出
+    Cursor<Post> streamAll();
+
     /**
      * 条件查询文章（分页）
      *
@@ -23,9 +33,9 @@ public interface PostDao {
      * @param status    状态
      * @param sortField 排序字段
      * @param sortOrder 排序方式（ASC/DESC）
-     * @return 当前页文章列表
+     * @return 当前页文章列表（不含 content）
      */
-    List<Post> selectArticlesByCondition(
+    List<PostSummary> selectArticlesByCondition(
             @Param("offset") int offset,
             @Param("size") int size,
             @Param("title") String title,
@@ -35,27 +45,66 @@ public interface PostDao {
     );
 
 
+    /**
+     * 游标分页查询文章（keyset）
+     * 按 (created_at, id) 直接定位到上一页末尾之后，依赖 (status, created_at, id) 索引
+     *
+     * @param afterCreatedAt 上一页最后一条的创建时间（第一页为 null）
+     * @param afterId        上一页最后一条的ID（第一页为 null）
+     * @param size           本次读取条数
+     * @param title          标题关键字（模糊查询）
+     * @param status         状态
+     * @param ascending      是否按创建时间升序
+     * @return 当前页文章列表（不含 content）
+     */
+    List<PostSummary> selectArticlesAfter(
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+            @Param("afterId") Integer afterId,
+            @Param("size") int size,
+            @Param("title") String title,
+            @Param("status") Integer status,
+            @Param("ascending") boolean ascending
+    );
+
     // 根据ID查询文章
     Post selectById(@Param("id") Integer id);
 
     // 根据关键词搜索文章
     List<Post> searchArticlesByKeyword(@Param("keyword") String keyword);
 
-    // 根据状态查询文章
-    List<Post> selectByStatus(@Param("status") Integer status);
+    // 根据ID列表批量查询已发布文章（搜索索引命中后回表）
+    List<Post> selectByIds(@Param("ids") List<Integer> ids);
+
+    // 根据状态查询文章（不含 content）
+    List<PostSummary> selectByStatus(@Param("status") Integer status);
 
     // 插入文章
     int insert(Post post);
 
+    // 多行插入文章（一条 INSERT ... VALUES (...),(...)），生成的ID回填到每个 Post
+    int insertBatch(List<Post> posts);
+
     // 更新文章
     int update(Post post);
 
+    // 按 id 分块查询还没有摘要的文章（上线前的历史数据），只返回 id 和 content
+    List<Post> selectWithoutSummary(@Param("afterId") int afterId, @Param("limit") int limit);
+
+    // 批量回填摘要和字数（一条 UPDATE ... CASE id）
+    int updateSummaries(List<Post> posts);
+
     // 删除文章
     int deleteById(@Param("id") Integer id);
 
     // 统计文章总数
     int count();
 
+    // 文章表版本探针（条件 GET 使用）
+    ResourceVersion selectVersion();
+
+    // 查询已发布文章的更新时间（条件 GET 使用）
+    LocalDateTime selectUpdatedAtById(@Param("id") Integer id);
+
     /**
      * 查询满足条件的总记录数
      *
@@ -0,0 +1,63 @@
+package blog.tilex.backend.Tilex_blog_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量上传文章结果VO
+ */
+@Data
+public class ArticleBatchResultVO {
+    /**
+     * 提交的文章数
+     */
+    private int totalCount;
+
+    /**
+     * 成功写入的文章数
+     */
+    private int successCount;
+
+    /**
+     * 失败的文章数
+     */
+    private int failedCount;
+
+    /**
+     * 成功写入的文章(含数据库生成的ID)，顺序与提交顺序一致
+     * NDJSON 导入不返回该列表，避免结果随文件大小增长
+     */
+    private List<ArticleVO> articles = new ArrayList<>();
+
+    /**
+     * 失败的行及原因(NDJSON 导入时 index 为行号，最多返回前 100 条)
+     */
+    private List<RowError> errors = new ArrayList<>();
+
+    /**
+     * 耗时(毫秒)
+     */
+    private long elapsedMillis;
+
+    /**
+     * 写入速度(行/秒)
+     */
+    private double rowsPerSecond;
+
+    /**
+     * 单行失败信息
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        /** 在请求数组中的下标(从0开始) */
+        private int index;
+        private String title;
+        private String message;
+    }
+}
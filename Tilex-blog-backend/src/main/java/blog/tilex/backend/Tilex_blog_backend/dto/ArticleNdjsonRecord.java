@@ -0,0 +1,26 @@
+package blog.tilex.backend.Tilex_blog_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 文章导入/导出的单行记录（NDJSON：每行一个 JSON 对象）
+ * 导出时包含ID，导入时忽略ID，由数据库重新生成
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ArticleNdjsonRecord {
+    private Integer id;
+    private String title;
+    private String content;
+    private Integer status;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createdAt;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime updatedAt;
+}
@@ -21,4 +21,12 @@ public class ArticleQueryDTO {
     private Integer status;    // 状态筛选（0-草稿 1-已发布）
     private String sortField;  // 排序字段（createdAt/updatedAt）
     private String sortOrder;  // 排序方式（asc/desc）
+
+    /*
+     * 游标分页（keyset）：cursor=true 或传入 after 时启用
+     * 按 (created_at, id) 定位，深翻页与第一页开销相同；不支持 pageNum 和 updatedAt 排序
+     */
+    private Boolean cursor;     // 是否使用游标分页
+    private String after;       // 上一页返回的 nextCursor，格式 "createdAt,id"
+    private Boolean withTotal;  // 游标分页时是否返回总数（默认不返回）
 }
@@ -1,5 +1,6 @@
 package blog.tilex.backend.Tilex_blog_backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 import java.util.List;
@@ -28,6 +29,8 @@ public class ArticleSearchVO {
 
     /**
      * 完整的文章内容(用于详情页展示)
+     * 请求 includeContent=false 时不返回该字段
      */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private String content;
 }
@@ -0,0 +1,26 @@
+package blog.tilex.backend.Tilex_blog_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 文章列表响应对象
+ * 列表页只返回摘要和字数，完整内容通过 GET /articles/{id} 获取
+ */
+@Data
+public class ArticleSummaryVO {
+    private int id;
+    private String title;
+    private String excerpt;     // 摘要（Markdown 片段）
+    private Integer wordCount;  // 字数
+    private Integer status;
+    private String statusName;  // 状态名称（草稿/已发布）
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createdAt;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime updatedAt;
+}
@@ -9,4 +9,10 @@ public class SearchRequestDTO {
     @NotBlank(message = "搜索关键词不能为空")
     @Size(max = 100, message = "搜索关键词过长，最多100字符")
     private String keyword;
+
+    /**
+     * 是否返回完整的文章内容
+     * 搜索列表只需要片段，传 false 可以大幅减小响应体
+     */
+    private Boolean includeContent = true;
 }
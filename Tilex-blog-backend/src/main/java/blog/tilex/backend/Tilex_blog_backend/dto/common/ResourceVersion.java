@@ -0,0 +1,60 @@
+package blog.tilex.backend.Tilex_blog_backend.dto.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 资源版本探针
+ * 通过一次 COUNT/MAX(updated_at)/MAX(id) 聚合查询得到，用于条件 GET(ETag / Last-Modified)，
+ * 判断客户端缓存是否仍然有效时不需要读取完整数据
+ *
+ * 任何新增会改变 count 和 maxId，更新(包括软删除)会推进 updated_at，物理删除会减少 count
+ *
+ * 整表聚合出的 lastModified 不会随物理删除或带较早时间的插入前进，列表资源只能用 ETag 判断；
+ * Last-Modified 只用于单行资源
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResourceVersion {
+
+    /** 记录数 */
+    private Long count;
+
+    /** 最近一次更新时间 */
+    private LocalDateTime lastModified;
+
+    /** 最大ID */
+    private Long maxId;
+
+    /**
+     * 强 ETag
+     *
+     * @param resource 资源名称
+     * @param variant  同一资源的不同表示(例如查询参数)，没有时传 null
+     */
+    public String etag(String resource, String variant) {
+        StringBuilder sb = new StringBuilder("\"").append(resource)
+                .append('-').append(count == null ? 0 : count)
+                .append('-').append(maxId == null ? 0 : maxId)
+                .append('-').append(lastModifiedMillis());
+        if (variant != null && !variant.isEmpty()) {
+            sb.append('-').append(Integer.toHexString(variant.hashCode()));
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Last-Modified 对应的毫秒时间戳，没有数据时为 -1(不参与比较)
+     */
+    public long lastModifiedMillis() {
+        if (lastModified == null) {
+            return -1;
+        }
+        return lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
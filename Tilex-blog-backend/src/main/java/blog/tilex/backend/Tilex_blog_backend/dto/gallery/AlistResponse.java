@@ -0,0 +1,57 @@
+package blog.tilex.backend.Tilex_blog_backend.dto.gallery;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * AList API 响应
+ * AList 统一返回 {"code": 200, "message": "...", "data": ...}，由 AlistClient 直接从响应流解码
+ *
+ * @param <T> data 字段的类型
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record AlistResponse<T>(Integer code, String message, T data) {
+
+    /**
+     * 是否成功
+     * 没有 code 字段时视为成功(向后兼容，AList 部分接口不返回 code)
+     */
+    public boolean isSuccess() {
+        return code == null || code == 200;
+    }
+
+    /**
+     * 是否为认证错误(token 失效、未登录等)
+     */
+    public boolean isAuthenticationError() {
+        if (code != null) {
+            return code == 401 || code == 403 || code == 400;
+        }
+        if (message != null) {
+            String lower = message.toLowerCase();
+            return lower.contains("unauthorized")
+                || lower.contains("authentication")
+                || lower.contains("token")
+                || lower.contains("forbidden");
+        }
+        return false;
+    }
+
+    /**
+     * /api/auth/login 的 data
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record LoginData(String token) {
+    }
+
+    /**
+     * /api/fs/get 的 data，只保留用到的字段
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record FsObject(String name,
+                           Long size,
+                           String sign,
+                           @JsonProperty("raw_url") String rawUrl,
+                           String url) {
+    }
+}
@@ -0,0 +1,67 @@
+package blog.tilex.backend.Tilex_blog_backend.dto.gallery;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 画廊图片列表查询参数
+ * 游标分页(keyset)：按 (sort_order, id) 升序定位，深翻页与第一页开销相同
+ */
+@Data
+public class GalleryImageQuery {
+
+    /**
+     * 每页数量(1-100)
+     */
+    private Integer pageSize = 30;
+
+    /**
+     * 上一页返回的 nextCursor，格式 "sortOrder,id"；为空表示第一页
+     */
+    private String after;
+
+    /**
+     * 只返回带有该标签的图片
+     */
+    private Long tagId;
+
+    /**
+     * 标签表达式：必须同时带有的标签 ID(AND)，逗号分隔
+     */
+    private List<Long> tags;
+
+    /**
+     * 标签表达式：至少带有其中一个的标签 ID(OR)
+     */
+    private List<Long> anyTags;
+
+    /**
+     * 标签表达式：不能带有的标签 ID
+     */
+    private List<Long> notTags;
+
+    /**
+     * 创建日期起(含)
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    /**
+     * 创建日期止(含)
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    /**
+     * 删除状态：0 = 未删除，1 = 已删除，为空表示全部(仅后台接口生效，前台固定为 0)
+     */
+    private Integer isDeleted;
+
+    /**
+     * 是否返回总数(走计数缓存)，默认不返回
+     */
+    private Boolean withTotal;
+}
@@ -0,0 +1,25 @@
+package blog.tilex.backend.Tilex_blog_backend.dto.gallery;
+
+import blog.tilex.backend.Tilex_blog_backend.entity.GalleryImage;
+import blog.tilex.backend.Tilex_blog_backend.entity.GalleryTag;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 带标签的画廊图片
+ * 图片字段平铺输出，tags 为按排序号排列的标签
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GalleryImageWithTagsVO {
+
+    @JsonUnwrapped
+    private GalleryImage image;
+
+    private List<GalleryTag> tags;
+}
@@ -0,0 +1,25 @@
+package blog.tilex.backend.Tilex_blog_backend.dto.gallery;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 标签输入联想的一项
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagSuggestionVO {
+
+    private Long id;
+
+    private String tagName;
+
+    private String colorCode;
+
+    /**
+     * 带有该标签的未删除图片数
+     */
+    private Integer imageCount;
+}
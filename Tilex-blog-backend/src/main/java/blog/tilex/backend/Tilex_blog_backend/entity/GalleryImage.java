@@ -29,7 +29,10 @@ import java.time.LocalDateTime;
 @Table(name = "gallery_images", indexes = {
     @Index(name = "idx_created_at", columnList = "created_at"),
     @Index(name = "idx_is_deleted", columnList = "is_deleted"),
-    @Index(name = "idx_sort_order", columnList = "sort_order")
+    @Index(name = "idx_sort_order", columnList = "sort_order"),
+    @Index(name = "idx_deleted_sort_id", columnList = "is_deleted, sort_order, id"),
+    @Index(name = "idx_sort_id", columnList = "sort_order, id"),
+    @Index(name = "uk_content_hash", columnList = "content_hash", unique = true)
 })
 @Data
 @NoArgsConstructor
@@ -60,6 +63,13 @@ public class GalleryImage {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String imageUrl;
 
+    /**
+     * 最小衍生尺寸的 URL(列表展示使用，原图仍为 imageUrl)
+     * 无法生成衍生尺寸的图片(如 SVG)为空
+     */
+    @Column(columnDefinition = "TEXT")
+    private String thumbnailUrl;
+
     /**
      * 从 URL 解析出来的相对路径(后端解析)
      * 不可修改，系统生成
@@ -68,6 +78,13 @@ public class GalleryImage {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String alistPath;
 
+    /**
+     * 原图内容的 SHA-256(小写十六进制)，用于上传去重
+     * 系统生成，不可修改；历史图片回填前为空
+     */
+    @Column(length = 64)
+    private String contentHash;
+
     /**
      * AList 域名
      * 有限修改，通常由琳自动竟管理
@@ -0,0 +1,81 @@
+package blog.tilex.backend.Tilex_blog_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 画廊图片衍生尺寸 Entity
+ * 上传时由原图缩放生成的不同宽度版本，用于列表缩略图和响应式图片(srcset)
+ */
+@Entity
+@Table(name = "gallery_image_variants", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"image_id", "width"})
+}, indexes = {
+    @Index(name = "idx_variant_image_id", columnList = "image_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GalleryImageVariant {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 原图 ID(外键)
+     */
+    @Column(nullable = false)
+    private Long imageId;
+
+    /**
+     * 宽度(像素)
+     */
+    @Column(nullable = false)
+    private Integer width;
+
+    /**
+     * 高度(像素)
+     */
+    @Column(nullable = false)
+    private Integer height;
+
+    /**
+     * 编码格式：jpeg, png
+     */
+    @Column(nullable = false, length = 20)
+    private String format;
+
+    /**
+     * 文件大小(字节)
+     */
+    @Column(nullable = false)
+    private Long fileSize;
+
+    /**
+     * 完整访问 URL(签名后)
+     */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String imageUrl;
+
+    /**
+     * URL 路径，格式同 GalleryImage.alistPath
+     */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String alistPath;
+
+    /**
+     * 创建时间戳(不可修改)
+     */
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,120 @@
+package blog.tilex.backend.Tilex_blog_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 画廊后台任务 Entity
+ * 上传后的耗时处理(生成衍生尺寸等)写入任务表，由各实例的工作线程通过 SELECT ... FOR UPDATE SKIP LOCKED 认领执行
+ *
+ * 状态流转：PENDING -> RUNNING -> DONE
+ *                          \-> PENDING(失败重试，run_at 按退避时间推后) -> ... -> FAILED(超过最大次数)
+ */
+@Entity
+@Table(name = "gallery_jobs", indexes = {
+    @Index(name = "idx_job_status_run_at", columnList = "status, run_at"),
+    @Index(name = "idx_job_image_id", columnList = "image_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GalleryJob {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_DONE = "DONE";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 任务类型，对应一个 GalleryJobHandler
+     */
+    @Column(nullable = false, length = 50)
+    private String jobType;
+
+    /**
+     * 处理的图片 ID
+     */
+    @Column(nullable = false)
+    private Long imageId;
+
+    /**
+     * 状态：PENDING, RUNNING, DONE, FAILED
+     */
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    /**
+     * 已执行次数
+     */
+    @Column(nullable = false)
+    private Integer attempts;
+
+    /**
+     * 最大执行次数
+     */
+    @Column(nullable = false)
+    private Integer maxAttempts;
+
+    /**
+     * 最早可执行时间(失败重试时按退避时间推后)
+     */
+    @Column(nullable = false)
+    private LocalDateTime runAt;
+
+    /**
+     * 认领该任务的工作实例
+     */
+    @Column(length = 100)
+    private String lockedBy;
+
+    /**
+     * 认领时间，超过租期仍未完成的任务会被重新放回队列
+     */
+    private LocalDateTime lockedAt;
+
+    /**
+     * 最近一次失败的原因
+     */
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    /**
+     * 创建时间戳(不可修改)
+     */
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * 更新时间戳(不可手动修改)
+     */
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+        if (status == null) {
+            status = STATUS_PENDING;
+        }
+        if (attempts == null) {
+            attempts = 0;
+        }
+        if (runAt == null) {
+            runAt = createdAt;
+        }
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -9,6 +9,8 @@ public class Post {
     private Integer id;
     private String title;
     private String content;
+    private String excerpt;     // 摘要，写入时由 content 计算
+    private Integer wordCount;  // 字数，写入时由 content 计算
     private Integer status = 1; // 默认状态为1
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -0,0 +1,20 @@
+package blog.tilex.backend.Tilex_blog_backend.entity;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 文章列表投影
+ * 只包含列表页需要的字段，不含 content 全文
+ */
+@Data
+public class PostSummary {
+    private Integer id;
+    private String title;
+    private String excerpt;     // 预先计算的摘要
+    private Integer wordCount;  // 预先计算的字数
+    private Integer status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
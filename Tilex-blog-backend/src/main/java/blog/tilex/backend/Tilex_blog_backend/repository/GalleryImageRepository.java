@@ -1,11 +1,17 @@
 package blog.tilex.backend.Tilex_blog_backend.repository;
 
+import blog.tilex.backend.Tilex_blog_backend.dto.common.ResourceVersion;
 import blog.tilex.backend.Tilex_blog_backend.entity.GalleryImage;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,7 +19,7 @@ import java.util.Optional;
  * 画廊图片存储源
  */
 @Repository
-public interface GalleryImageRepository extends JpaRepository<GalleryImage, Long> {
+public interface GalleryImageRepository extends JpaRepository<GalleryImage, Long>, GalleryImageRepositoryCustom {
 
     /**
      * 根据 ID 找到未删除的图片
@@ -25,6 +31,18 @@ public interface GalleryImageRepository extends JpaRepository<GalleryImage, Long
      */
     List<GalleryImage> findByIsDeletedOrderBySortOrderAsc(Integer isDeleted);
 
+    /**
+     * 所有未删除图片的 ID(构建标签索引使用)
+     */
+    @Query("SELECT g.id FROM GalleryImage g WHERE g.isDeleted = 0")
+    List<Long> findActiveIds();
+
+    /**
+     * 给定 ID 中未删除图片的 ID(批量校验)
+     */
+    @Query("SELECT g.id FROM GalleryImage g WHERE g.id IN :ids AND g.isDeleted = 0")
+    List<Long> findActiveIdsIn(@Param("ids") Collection<Long> ids);
+
     /**
      * 检查 ID 的未删除图片是否存在
      */
@@ -37,11 +55,50 @@ public interface GalleryImageRepository extends JpaRepository<GalleryImage, Long
     List<GalleryImage> searchByTitle(@Param("title") String title);
 
     /**
-     * 分页查询未删除的图片
+     * 游标分页查询图片，按 (sort_order, id) 升序
+     * 为 null 的条件不生效；MySQL 驱动默认在客户端拼接参数，"NULL IS NULL" 这类恒真条件会被优化器消掉，
+     * 不影响 (is_deleted, sort_order, id) 索引的使用
+     *
+     * @param isDeleted      删除状态，null 表示全部
+     * @param afterSortOrder 上一页最后一条的 sort_order，null 表示第一页
+     * @param afterId        上一页最后一条的 id
+     * @param tagId          标签筛选
+     * @param from           创建时间起(含)
+     * @param to             创建时间止(不含)
+     * @param limit          最多返回条数
+     */
+    @Query("SELECT g FROM GalleryImage g WHERE (:isDeleted IS NULL OR g.isDeleted = :isDeleted) " +
+           "AND (:afterSortOrder IS NULL OR g.sortOrder > :afterSortOrder " +
+           "OR (g.sortOrder = :afterSortOrder AND g.id > :afterId)) " +
+           "AND (:from IS NULL OR g.createdAt >= :from) AND (:to IS NULL OR g.createdAt < :to) " +
+           "AND (:tagId IS NULL OR EXISTS (SELECT 1 FROM GalleryImageTag t WHERE t.imageId = g.id AND t.tagId = :tagId)) " +
+           "ORDER BY g.sortOrder ASC, g.id ASC")
+    List<GalleryImage> findPage(@Param("isDeleted") Integer isDeleted,
+                                @Param("afterSortOrder") Integer afterSortOrder,
+                                @Param("afterId") Long afterId,
+                                @Param("tagId") Long tagId,
+                                @Param("from") LocalDateTime from,
+                                @Param("to") LocalDateTime to,
+                                Limit limit);
+
+    /**
+     * 游标分页查询未删除的图片
+     */
+    default List<GalleryImage> findPagedNotDeleted(Integer afterSortOrder, Long afterId, Long tagId,
+                                                   LocalDateTime from, LocalDateTime to, int limit) {
+        return findPage(0, afterSortOrder, afterId, tagId, from, to, Limit.of(limit));
+    }
+
+    /**
+     * 统计满足筛选条件的图片数(条件与 findPage 相同，不含游标)
      */
-    @Query(value = "SELECT * FROM gallery_images WHERE is_deleted = 0 ORDER BY sort_order ASC LIMIT :limit OFFSET :offset",
-           nativeQuery = true)
-    List<GalleryImage> findPagedNotDeleted(@Param("offset") int offset, @Param("limit") int limit);
+    @Query("SELECT COUNT(g) FROM GalleryImage g WHERE (:isDeleted IS NULL OR g.isDeleted = :isDeleted) " +
+           "AND (:from IS NULL OR g.createdAt >= :from) AND (:to IS NULL OR g.createdAt < :to) " +
+           "AND (:tagId IS NULL OR EXISTS (SELECT 1 FROM GalleryImageTag t WHERE t.imageId = g.id AND t.tagId = :tagId))")
+    long countFiltered(@Param("isDeleted") Integer isDeleted,
+                       @Param("tagId") Long tagId,
+                       @Param("from") LocalDateTime from,
+                       @Param("to") LocalDateTime to);
 
     /**
      * 统计未删除的图片总数
@@ -49,9 +106,35 @@ public interface GalleryImageRepository extends JpaRepository<GalleryImage, Long
     long countByIsDeleted(Integer isDeleted);
 
     /**
-     * 获取所有图片（包括已删除的图片，用于管理后台）
+     * 图片表版本探针(条件 GET 使用)
+     * 软删除/恢复同样会推进 updatedAt，所以统计全部记录
+     */
+    @Query("SELECT new blog.tilex.backend.Tilex_blog_backend.dto.common.ResourceVersion(COUNT(g), MAX(g.updatedAt), MAX(g.id)) FROM GalleryImage g")
+    ResourceVersion findVersion();
+
+    /**
+     * 根据内容哈希查找图片(包括已删除的)
+     */
+    Optional<GalleryImage> findByContentHash(String contentHash);
+
+    /**
+     * 根据内容哈希加共享锁读取图片(包括已删除的)
+     * 锁定读读取最新提交的数据，不受事务快照影响：插入因唯一约束冲突后，能读到刚由其他事务提交的那一行
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT g FROM GalleryImage g WHERE g.contentHash = :contentHash")
+    Optional<GalleryImage> lockByContentHash(@Param("contentHash") String contentHash);
+
+    /**
+     * 尚未计算内容哈希的图片 ID(历史数据回填)
+     */
+    @Query("SELECT g.id FROM GalleryImage g WHERE g.contentHash IS NULL")
+    List<Long> findIdsWithoutContentHash();
+
+    /**
+     * 按是否含 sign 参数查找图片(包括已删除的，恢复后仍需可访问)
      */
-    List<GalleryImage> findAllByOrderBySortOrderAsc();
+    List<GalleryImage> findByHasSignParam(Integer hasSignParam);
 
     /**
      * 按 ID 获取任何状态的图片（管理员使用）
@@ -0,0 +1,42 @@
+package blog.tilex.backend.Tilex_blog_backend.repository;
+
+import blog.tilex.backend.Tilex_blog_backend.entity.GalleryImage;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 画廊图片存储源的自定义查询(按条件拼接 JPQL)和批量写入
+ */
+public interface GalleryImageRepositoryCustom {
+
+    /**
+     * 按标签表达式游标分页查询未删除的图片，按 (sort_order, id) 升序，一条 SQL 完成过滤和分页
+     * 三个集合为空时对应条件不生效
+     *
+     * @param allTags        必须同时带有的标签(AND)
+     * @param anyTags        至少带有其中一个的标签(OR)
+     * @param notTags        不能带有的标签
+     * @param afterSortOrder 上一页最后一条的 sort_order，null 表示第一页
+     * @param afterId        上一页最后一条的 id
+     * @param limit          最多返回条数
+     */
+    List<GalleryImage> findByTagExpression(Collection<Long> allTags, Collection<Long> anyTags,
+                                           Collection<Long> notTags, Integer afterSortOrder,
+                                           Long afterId, int limit);
+
+    /**
+     * 统计满足标签表达式的未删除图片数
+     */
+    long countByTagExpression(Collection<Long> allTags, Collection<Long> anyTags, Collection<Long> notTags);
+
+    /**
+     * 用多行 INSERT 批量保存新图片，并把数据库生成的 ID 回填到实体
+     * gallery_images 使用自增主键，Hibernate 无法对它批量插入，所以直接写 SQL；
+     * 写入的实体不进入持久化上下文
+     *
+     * @param images 新图片(id 必须为空)
+     * @return 执行的 INSERT 语句数
+     */
+    int insertAll(List<GalleryImage> images);
+}
@@ -0,0 +1,190 @@
+package blog.tilex.backend.Tilex_blog_backend.repository;
+
+import blog.tilex.backend.Tilex_blog_backend.entity.GalleryImage;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 标签表达式查询
+ * 只拼接实际用到的条件，避免空的 IN 列表；标签条件都是按 image_id 关联的子查询，
+ * 走 gallery_image_tags 的 (image_id, tag_id) 唯一索引和 tag_id 索引
+ *
+ * - AND：image_id IN (SELECT image_id ... WHERE tag_id IN (...) GROUP BY image_id HAVING COUNT(*) = n)
+ * - OR：EXISTS (... tag_id IN (...))
+ * - NOT：NOT EXISTS (... tag_id IN (...))
+ *
+ * 批量保存使用多行 INSERT，每条语句最多 ROWS_PER_STATEMENT 行，通过 JdbcTemplate 执行，与 JPA 共用同一个事务和连接；
+ * 一条多行 INSERT 分配的自增 ID 是连续的，驱动按行顺序返回
+ */
+public class GalleryImageRepositoryCustomImpl implements GalleryImageRepositoryCustom {
+
+    /** 每条 INSERT 的最大行数 */
+    private static final int ROWS_PER_STATEMENT = 200;
+
+    private static final String INSERT_PREFIX = "INSERT INTO gallery_images (title, description, image_url, " +
+        "thumbnail_url, alist_path, content_hash, alist_domain, source_type, has_sign_param, sort_order, " +
+        "created_at, updated_at, is_deleted) VALUES ";
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int INSERT_COLUMNS = 13;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GalleryImageRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<GalleryImage> findByTagExpression(Collection<Long> allTags, Collection<Long> anyTags,
+                                                  Collection<Long> notTags, Integer afterSortOrder,
+                                                  Long afterId, int limit) {
+        Set<Long> all = distinct(allTags);
+        StringBuilder jpql = new StringBuilder("SELECT g FROM GalleryImage g");
+        appendTagConditions(jpql, all, anyTags, notTags);
+        if (afterSortOrder != null) {
+            jpql.append(" AND (g.sortOrder > :afterSortOrder OR (g.sortOrder = :afterSortOrder AND g.id > :afterId))");
+        }
+        jpql.append(" ORDER BY g.sortOrder ASC, g.id ASC");
+
+        TypedQuery<GalleryImage> query = entityManager.createQuery(jpql.toString(), GalleryImage.class);
+        bindTagParameters(query, all, anyTags, notTags);
+        if (afterSortOrder != null) {
+            query.setParameter("afterSortOrder", afterSortOrder);
+            query.setParameter("afterId", afterId);
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public long countByTagExpression(Collection<Long> allTags, Collection<Long> anyTags, Collection<Long> notTags) {
+        Set<Long> all = distinct(allTags);
+        StringBuilder jpql = new StringBuilder("SELECT COUNT(g) FROM GalleryImage g");
+        appendTagConditions(jpql, all, anyTags, notTags);
+
+        TypedQuery<Long> query = entityManager.createQuery(jpql.toString(), Long.class);
+        bindTagParameters(query, all, anyTags, notTags);
+        return query.getSingleResult();
+    }
+
+    @Override
+    public int insertAll(List<GalleryImage> images) {
+        if (images == null || images.isEmpty()) {
+            return 0;
+        }
+        // 与 @PrePersist 相同的默认值(这里不经过 JPA 生命周期)
+        LocalDateTime now = LocalDateTime.now();
+        for (GalleryImage image : images) {
+            if (image.getId() != null) {
+                throw new IllegalArgumentException("Image already has an id: " + image.getId());
+            }
+            image.setCreatedAt(now);
+            image.setUpdatedAt(now);
+            if (image.getSortOrder() == null) {
+                image.setSortOrder(0);
+            }
+            if (image.getHasSignParam() == null) {
+                image.setHasSignParam(0);
+            }
+            if (image.getIsDeleted() == null) {
+                image.setIsDeleted(0);
+            }
+        }
+
+        int statements = 0;
+        for (int start = 0; start < images.size(); start += ROWS_PER_STATEMENT) {
+            List<GalleryImage> chunk = images.subList(start, Math.min(images.size(), start + ROWS_PER_STATEMENT));
+            String sql = INSERT_PREFIX + String.join(", ", Collections.nCopies(chunk.size(), INSERT_ROW));
+
+            Object[] args = new Object[chunk.size() * INSERT_COLUMNS];
+            int i = 0;
+            for (GalleryImage image : chunk) {
+                args[i++] = image.getTitle();
+                args[i++] = image.getDescription();
+                args[i++] = image.getImageUrl();
+                args[i++] = image.getThumbnailUrl();
+                args[i++] = image.getAlistPath();
+                args[i++] = image.getContentHash();
+                args[i++] = image.getAlistDomain();
+                args[i++] = image.getSourceType();
+                args[i++] = image.getHasSignParam();
+                args[i++] = image.getSortOrder();
+                args[i++] = image.getCreatedAt();
+                args[i++] = image.getUpdatedAt();
+                args[i++] = image.getIsDeleted();
+            }
+
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql, new String[]{"id"});
+                new ArgumentPreparedStatementSetter(args).setValues(ps);
+                return ps;
+            }, keyHolder);
+            statements++;
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            if (keys.size() != chunk.size()) {
+                throw new IllegalStateException("Expected " + chunk.size() + " generated ids, got " + keys.size());
+            }
+            for (int row = 0; row < chunk.size(); row++) {
+                chunk.get(row).setId(((Number) keys.get(row).values().iterator().next()).longValue());
+            }
+        }
+        return statements;
+    }
+
+    private void appendTagConditions(StringBuilder jpql, Set<Long> allTags,
+                                     Collection<Long> anyTags, Collection<Long> notTags) {
+        jpql.append(" WHERE g.isDeleted = 0");
+        if (!allTags.isEmpty()) {
+            jpql.append(" AND g.id IN (SELECT ta.imageId FROM GalleryImageTag ta WHERE ta.tagId IN :allTags")
+                .append(" GROUP BY ta.imageId HAVING COUNT(ta.tagId) = :allCount)");
+        }
+        if (!isEmpty(anyTags)) {
+            jpql.append(" AND EXISTS (SELECT 1 FROM GalleryImageTag tb WHERE tb.imageId = g.id AND tb.tagId IN :anyTags)");
+        }
+        if (!isEmpty(notTags)) {
+            jpql.append(" AND NOT EXISTS (SELECT 1 FROM GalleryImageTag tn WHERE tn.imageId = g.id AND tn.tagId IN :notTags)");
+        }
+    }
+
+    private void bindTagParameters(TypedQuery<?> query, Set<Long> allTags,
+                                   Collection<Long> anyTags, Collection<Long> notTags) {
+        if (!allTags.isEmpty()) {
+            query.setParameter("allTags", allTags);
+            query.setParameter("allCount", (long) allTags.size());
+        }
+        if (!isEmpty(anyTags)) {
+            query.setParameter("anyTags", anyTags);
+        }
+        if (!isEmpty(notTags)) {
+            query.setParameter("notTags", notTags);
+        }
+    }
+
+    /**
+     * AND 条件按去重后的数量比较 COUNT，重复传入同一标签不会导致查不到
+     */
+    private static Set<Long> distinct(Collection<Long> tags) {
+        return tags == null ? Set.of() : new LinkedHashSet<>(tags);
+    }
+
+    private static boolean isEmpty(Collection<Long> tags) {
+        return tags == null || tags.isEmpty();
+    }
+}
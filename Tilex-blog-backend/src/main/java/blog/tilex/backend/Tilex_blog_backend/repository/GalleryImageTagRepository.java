@@ -2,10 +2,12 @@ package blog.tilex.backend.Tilex_blog_backend.repository;
 
 import blog.tilex.backend.Tilex_blog_backend.entity.GalleryImageTag;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,7 +15,7 @@ import java.util.Optional;
  * 画廊图片-标签关联存储源
  */
 @Repository
-public interface GalleryImageTagRepository extends JpaRepository<GalleryImageTag, Long> {
+public interface GalleryImageTagRepository extends JpaRepository<GalleryImageTag, Long>, GalleryImageTagRepositoryCustom {
 
     /**
      * 找到特定图片的所有标签
@@ -38,17 +40,37 @@ public interface GalleryImageTagRepository extends JpaRepository<GalleryImageTag
     /**
      * 删除图片和标签之间的关联
      */
-    void deleteByImageIdAndTagId(Long imageId, Long tagId);
+    @Modifying
+    @Query("DELETE FROM GalleryImageTag gait WHERE gait.imageId = :imageId AND gait.tagId = :tagId")
+    int deleteByImageIdAndTagId(@Param("imageId") Long imageId, @Param("tagId") Long tagId);
 
     /**
-     * 删除常力的所有关联
+     * 删除常力的所有关联(一条 DELETE 语句，不先加载实体)
      */
-    void deleteByImageId(Long imageId);
+    @Modifying
+    @Query("DELETE FROM GalleryImageTag gait WHERE gait.imageId = :imageId")
+    int deleteByImageId(@Param("imageId") Long imageId);
 
     /**
-     * 删除标签的所有关联
+     * 删除标签的所有关联(一条 DELETE 语句，不先加载实体)
      */
-    void deleteByTagId(Long tagId);
+    @Modifying
+    @Query("DELETE FROM GalleryImageTag gait WHERE gait.tagId = :tagId")
+    int deleteByTagId(@Param("tagId") Long tagId);
+
+    /**
+     * 已存在的关联，返回 [imageId, tagId]；IN × IN 可能多于需要的组合，由调用方再过滤
+     */
+    @Query("SELECT gait.imageId, gait.tagId FROM GalleryImageTag gait " +
+           "WHERE gait.imageId IN :imageIds AND gait.tagId IN :tagIds")
+    List<Object[]> findPairs(@Param("imageIds") Collection<Long> imageIds, @Param("tagIds") Collection<Long> tagIds);
+
+    /**
+     * 某个标签的关联版本，返回 [count, maxId]
+     * 关联表没有更新时间：新增关联会推进 maxId，删除会减少 count
+     */
+    @Query("SELECT COUNT(gait), MAX(gait.id) FROM GalleryImageTag gait WHERE gait.tagId = :tagId")
+    List<Object[]> findVersionByTagId(@Param("tagId") Long tagId);
 
     /**
      * 统计图片的关联数
@@ -66,6 +88,25 @@ public interface GalleryImageTagRepository extends JpaRepository<GalleryImageTag
     @Query("SELECT gait.imageId FROM GalleryImageTag gait WHERE gait.tagId = :tagId")
     List<Long> findImageIdsByTagId(@Param("tagId") Long tagId);
 
+    /**
+     * 全部关联，返回 [tagId, imageId](构建标签索引使用)
+     */
+    @Query("SELECT gait.tagId, gait.imageId FROM GalleryImageTag gait")
+    List<Object[]> findAllTagImagePairs();
+
+    /**
+     * 每个标签的关联数，返回 [tagId, count](标签索引不可用时使用)
+     */
+    @Query("SELECT gait.tagId, COUNT(gait) FROM GalleryImageTag gait GROUP BY gait.tagId")
+    List<Object[]> countGroupByTagId();
+
+    /**
+     * 批量获取多张图片的未删除标签，返回 [imageId, GalleryTag]，按标签排序号排列
+     */
+    @Query("SELECT gait.imageId, t FROM GalleryImageTag gait JOIN GalleryTag t ON t.id = gait.tagId " +
+           "WHERE gait.imageId IN :imageIds AND t.isDeleted = 0 ORDER BY t.sortOrder ASC, t.id ASC")
+    List<Object[]> findTagsByImageIds(@Param("imageIds") Collection<Long> imageIds);
+
     /**
      * 根据图片 ID 找根据标签 ID
      */
@@ -0,0 +1,27 @@
+package blog.tilex.backend.Tilex_blog_backend.repository;
+
+import blog.tilex.backend.Tilex_blog_backend.entity.GalleryImageTag;
+
+import java.util.Collection;
+
+/**
+ * 图片-标签关联的批量写入(多行 SQL，不经过实体逐条保存/删除)
+ */
+public interface GalleryImageTagRepositoryCustom {
+
+    /**
+     * 用多行 INSERT IGNORE 写入关联，已存在的 (image_id, tag_id) 被忽略
+     *
+     * @param associations 要写入的关联(只使用 imageId、tagId)
+     * @return 实际新增的行数
+     */
+    int insertIgnore(Collection<GalleryImageTag> associations);
+
+    /**
+     * 用 DELETE ... WHERE (image_id, tag_id) IN (...) 批量删除关联
+     *
+     * @param associations 要删除的关联(只使用 imageId、tagId)
+     * @return 实际删除的行数
+     */
+    int deletePairs(Collection<GalleryImageTag> associations);
+}
@@ -0,0 +1,58 @@
+package blog.tilex.backend.Tilex_blog_backend.repository;
+
+import blog.tilex.backend.Tilex_blog_backend.entity.GalleryImageTag;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 关联批量写入
+ * 每条语句最多 ROWS_PER_STATEMENT 行，1000 个关联只需要两条 INSERT 或两条 DELETE；
+ * 通过 JdbcTemplate 执行，与 JPA 共用同一个事务和连接
+ */
+public class GalleryImageTagRepositoryCustomImpl implements GalleryImageTagRepositoryCustom {
+
+    /** 每条语句的最大行数(每行两个参数) */
+    private static final int ROWS_PER_STATEMENT = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GalleryImageTagRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int insertIgnore(Collection<GalleryImageTag> associations) {
+        return executeInChunks(associations,
+            "INSERT IGNORE INTO gallery_image_tags (image_id, tag_id) VALUES ", "(?, ?)", "");
+    }
+
+    @Override
+    public int deletePairs(Collection<GalleryImageTag> associations) {
+        return executeInChunks(associations,
+            "DELETE FROM gallery_image_tags WHERE (image_id, tag_id) IN (", "(?, ?)", ")");
+    }
+
+    private int executeInChunks(Collection<GalleryImageTag> associations, String prefix, String row, String suffix) {
+        if (associations == null || associations.isEmpty()) {
+            return 0;
+        }
+        List<GalleryImageTag> all = new ArrayList<>(associations);
+        int affected = 0;
+        for (int start = 0; start < all.size(); start += ROWS_PER_STATEMENT) {
+            List<GalleryImageTag> chunk = all.subList(start, Math.min(all.size(), start + ROWS_PER_STATEMENT));
+            String sql = prefix + String.join(", ", Collections.nCopies(chunk.size(), row)) + suffix;
+
+            Object[] args = new Object[chunk.size() * 2];
+            for (int i = 0; i < chunk.size(); i++) {
+                args[i * 2] = chunk.get(i).getImageId();
+                args[i * 2 + 1] = chunk.get(i).getTagId();
+            }
+            affected += jdbcTemplate.update(sql, args);
+        }
+        return affected;
+    }
+}
@@ -0,0 +1,35 @@
+package blog.tilex.backend.Tilex_blog_backend.repository;
+
+import blog.tilex.backend.Tilex_blog_backend.entity.GalleryImageVariant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 画廊图片衍生尺寸存储源
+ */
+@Repository
+public interface GalleryImageVariantRepository extends JpaRepository<GalleryImageVariant, Long> {
+
+    /**
+     * 获取图片的所有衍生尺寸(按宽度升序)
+     */
+    List<GalleryImageVariant> findByImageIdOrderByWidthAsc(Long imageId);
+
+    /**
+     * 批量获取多张图片的衍生尺寸
+     */
+    List<GalleryImageVariant> findByImageIdIn(Collection<Long> imageIds);
+
+    /**
+     * 删除图片的所有衍生尺寸(直接执行 DELETE，保证在随后的插入之前生效)
+     */
+    @Modifying
+    @Query("DELETE FROM GalleryImageVariant v WHERE v.imageId = :imageId")
+    int deleteByImageId(@Param("imageId") Long imageId);
+}
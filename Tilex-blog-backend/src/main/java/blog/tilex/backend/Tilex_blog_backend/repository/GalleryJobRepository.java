@@ -0,0 +1,105 @@
+package blog.tilex.backend.Tilex_blog_backend.repository;
+
+import blog.tilex.backend.Tilex_blog_backend.entity.GalleryJob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 画廊后台任务存储源
+ */
+@Repository
+public interface GalleryJobRepository extends JpaRepository<GalleryJob, Long> {
+
+    /**
+     * 锁定一批到期的待执行任务
+     * SKIP LOCKED 跳过其他实例已锁定的行，多个实例可以同时认领而不互相等待
+     * 必须在事务中调用，锁在事务提交时释放
+     */
+    @Query(value = "SELECT * FROM gallery_jobs WHERE status = 'PENDING' AND run_at <= :now " +
+                   "ORDER BY run_at, id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<GalleryJob> lockDueJobs(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * 是否已有同类型、同图片的未完成任务(入队去重)
+     */
+    boolean existsByJobTypeAndImageIdAndStatusIn(String jobType, Long imageId, Collection<String> statuses);
+
+    /**
+     * 一组图片中已有同类型未完成任务的图片 ID(批量入队去重)
+     */
+    @Query("SELECT DISTINCT j.imageId FROM GalleryJob j WHERE j.jobType = :jobType " +
+           "AND j.imageId IN :imageIds AND j.status IN :statuses")
+    List<Long> findQueuedImageIds(@Param("jobType") String jobType,
+                                  @Param("imageIds") Collection<Long> imageIds,
+                                  @Param("statuses") Collection<String> statuses);
+
+    /**
+     * 锁定仍由指定实例持有的执行中任务
+     * 租期过后任务可能已被放回队列并由其他实例认领，此时返回空，旧实例不能再修改它的状态
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM GalleryJob j WHERE j.id = :id AND j.status = 'RUNNING' AND j.lockedBy = :lockedBy")
+    Optional<GalleryJob> lockOwnedJob(@Param("id") Long id, @Param("lockedBy") String lockedBy);
+
+    /**
+     * 把租期已过仍未完成的任务放回队列(认领它的实例可能已经宕机)
+     * 执行次数已用完的任务由 {@link #failExpired} 处理
+     */
+    @Modifying
+    @Query("UPDATE GalleryJob j SET j.status = 'PENDING', j.lockedBy = null, j.lockedAt = null, j.updatedAt = :now " +
+           "WHERE j.status = 'RUNNING' AND j.lockedAt < :expiredBefore AND j.attempts < j.maxAttempts")
+    int releaseExpired(@Param("expiredBefore") LocalDateTime expiredBefore, @Param("now") LocalDateTime now);
+
+    /**
+     * 把租期已过且执行次数已用完的任务标记为失败，避免反复崩溃的任务无限重试
+     */
+    @Modifying
+    @Query("UPDATE GalleryJob j SET j.status = 'FAILED', j.lockedBy = null, j.lockedAt = null, " +
+           "j.lastError = :error, j.updatedAt = :now " +
+           "WHERE j.status = 'RUNNING' AND j.lockedAt < :expiredBefore AND j.attempts >= j.maxAttempts")
+    int failExpired(@Param("expiredBefore") LocalDateTime expiredBefore,
+                    @Param("error") String error,
+                    @Param("now") LocalDateTime now);
+
+    /**
+     * 删除早于指定时间完成的任务
+     */
+    @Modifying
+    @Query("DELETE FROM GalleryJob j WHERE j.status = 'DONE' AND j.updatedAt < :before")
+    int purgeDone(@Param("before") LocalDateTime before);
+
+    /**
+     * 各状态的任务数
+     *
+     * @return [status, count]
+     */
+    @Query("SELECT j.status, COUNT(j) FROM GalleryJob j GROUP BY j.status")
+    List<Object[]> countByStatus();
+
+    /**
+     * 指定时间之后进入某状态的任务数(统计吞吐量)
+     */
+    long countByStatusAndUpdatedAtAfter(String status, LocalDateTime after);
+
+    /**
+     * 最早的待执行任务的可执行时间(衡量积压)
+     */
+    @Query("SELECT MIN(j.runAt) FROM GalleryJob j WHERE j.status = 'PENDING'")
+    LocalDateTime findOldestPendingRunAt();
+
+    /**
+     * 最近失败的任务
+     */
+    List<GalleryJob> findTop20ByStatusOrderByUpdatedAtDesc(String status);
+}
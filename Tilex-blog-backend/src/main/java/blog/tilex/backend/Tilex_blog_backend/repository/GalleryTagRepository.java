@@ -1,9 +1,12 @@
 package blog.tilex.backend.Tilex_blog_backend.repository;
 
+import blog.tilex.backend.Tilex_blog_backend.dto.common.ResourceVersion;
 import blog.tilex.backend.Tilex_blog_backend.entity.GalleryTag;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,13 +14,30 @@ import java.util.Optional;
  * 画廊标签存储源
  */
 @Repository
-public interface GalleryTagRepository extends JpaRepository<GalleryTag, Long> {
+public interface GalleryTagRepository extends JpaRepository<GalleryTag, Long>, GalleryTagRepositoryCustom {
 
     /**
      * 根据标签名称找到未删除的标签
      */
     Optional<GalleryTag> findByTagNameAndIsDeleted(String tagName, Integer isDeleted);
 
+    /**
+     * 根据一组名称找到标签(包括已删除的)
+     */
+    List<GalleryTag> findByTagNameIn(Collection<String> tagNames);
+
+    /**
+     * 根据名称找到标签(包括已删除的)，按 tag_name 列的排序规则比较，与唯一索引判断重复的方式一致
+     */
+    Optional<GalleryTag> findByTagName(String tagName);
+
+    /**
+     * 所有标签(包括已删除的)的独立副本，不进入持久化上下文，始终反映数据库中的最新值(标签目录使用)
+     */
+    @Query("SELECT new blog.tilex.backend.Tilex_blog_backend.entity.GalleryTag(t.id, t.tagName, t.tagDescription, " +
+           "t.colorCode, t.sortOrder, t.createdAt, t.updatedAt, t.isDeleted) FROM GalleryTag t")
+    List<GalleryTag> findAllDetached();
+
     /**
      * 根据 ID 找到未删除的标签
      */
@@ -42,4 +62,10 @@ public interface GalleryTagRepository extends JpaRepository<GalleryTag, Long> {
      * 根据标签名称模式找标签(模糊查询)
      */
     List<GalleryTag> findByTagNameContainingAndIsDeleted(String tagName, Integer isDeleted);
+
+    /**
+     * 标签表版本探针(条件 GET 使用)
+     */
+    @Query("SELECT new blog.tilex.backend.Tilex_blog_backend.dto.common.ResourceVersion(COUNT(t), MAX(t.updatedAt), MAX(t.id)) FROM GalleryTag t")
+    ResourceVersion findVersion();
 }
@@ -0,0 +1,22 @@
+package blog.tilex.backend.Tilex_blog_backend.repository;
+
+import blog.tilex.backend.Tilex_blog_backend.entity.GalleryTag;
+
+import java.util.Collection;
+
+/**
+ * 标签的批量写入(多行 SQL，不经过实体逐条保存)
+ */
+public interface GalleryTagRepositoryCustom {
+
+    /**
+     * 用多行 INSERT ... ON DUPLICATE KEY UPDATE 按名称写入标签，依靠 tag_name 唯一索引处理并发：
+     * - 名称不存在：新建
+     * - 已软删除：恢复，并使用本次传入的描述、颜色和排序
+     * - 未删除：保持不变
+     *
+     * @param tags 要写入的标签(只使用 tagName、tagDescription、colorCode、sortOrder)
+     * @return 执行的语句数
+     */
+    int upsertAll(Collection<GalleryTag> tags);
+}
@@ -0,0 +1,71 @@
+package blog.tilex.backend.Tilex_blog_backend.repository;
+
+import blog.tilex.backend.Tilex_blog_backend.entity.GalleryTag;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 标签批量写入
+ * 每条语句最多 ROWS_PER_STATEMENT 行；并发创建同名标签时由 tag_name 唯一索引裁决，不需要应用层加锁。
+ * 通过 JdbcTemplate 执行，与 JPA 共用同一个事务和连接
+ *
+ * ON DUPLICATE KEY UPDATE 中的赋值按顺序执行，is_deleted 必须最后更新，前面的条件才能看到原值
+ */
+public class GalleryTagRepositoryCustomImpl implements GalleryTagRepositoryCustom {
+
+    /** 每条语句的最大行数 */
+    private static final int ROWS_PER_STATEMENT = 500;
+
+    private static final String UPSERT_PREFIX = "INSERT INTO gallery_tags (tag_name, tag_description, color_code, " +
+        "sort_order, created_at, updated_at, is_deleted) VALUES ";
+    private static final String UPSERT_ROW = "(?, ?, ?, ?, ?, ?, 0)";
+    private static final String UPSERT_SUFFIX = " ON DUPLICATE KEY UPDATE " +
+        "tag_description = CASE WHEN is_deleted = 1 THEN VALUES(tag_description) ELSE tag_description END, " +
+        "color_code = CASE WHEN is_deleted = 1 THEN VALUES(color_code) ELSE color_code END, " +
+        "sort_order = CASE WHEN is_deleted = 1 THEN VALUES(sort_order) ELSE sort_order END, " +
+        "updated_at = CASE WHEN is_deleted = 1 THEN VALUES(updated_at) ELSE updated_at END, " +
+        "is_deleted = 0";
+    private static final int UPSERT_COLUMNS = 6;
+
+    private static final String DEFAULT_COLOR = "#999999";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GalleryTagRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int upsertAll(Collection<GalleryTag> tags) {
+        if (tags == null || tags.isEmpty()) {
+            return 0;
+        }
+        List<GalleryTag> all = new ArrayList<>(tags);
+        LocalDateTime now = LocalDateTime.now();
+        int statements = 0;
+        for (int start = 0; start < all.size(); start += ROWS_PER_STATEMENT) {
+            List<GalleryTag> chunk = all.subList(start, Math.min(all.size(), start + ROWS_PER_STATEMENT));
+            String sql = UPSERT_PREFIX + String.join(", ", Collections.nCopies(chunk.size(), UPSERT_ROW))
+                + UPSERT_SUFFIX;
+
+            Object[] args = new Object[chunk.size() * UPSERT_COLUMNS];
+            int i = 0;
+            for (GalleryTag tag : chunk) {
+                args[i++] = tag.getTagName();
+                args[i++] = tag.getTagDescription();
+                args[i++] = tag.getColorCode() != null ? tag.getColorCode() : DEFAULT_COLOR;
+                args[i++] = tag.getSortOrder() != null ? tag.getSortOrder() : 0;
+                args[i++] = now;
+                args[i++] = now;
+            }
+            jdbcTemplate.update(sql, args);
+            statements++;
+        }
+        return statements;
+    }
+}
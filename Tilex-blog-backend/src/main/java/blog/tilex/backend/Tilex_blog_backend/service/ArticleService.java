@@ -1,9 +1,15 @@
 package blog.tilex.backend.Tilex_blog_backend.service;
 
 import blog.tilex.backend.Tilex_blog_backend.dto.*;
+import blog.tilex.backend.Tilex_blog_backend.dto.common.ResourceVersion;
+import blog.tilex.backend.Tilex_blog_backend.utils.CursorPageResult;
 import blog.tilex.backend.Tilex_blog_backend.utils.PageResult;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 文章服务接口
@@ -11,20 +17,35 @@ import java.util.List;
 public interface ArticleService {
 
     /**
-     * 获取所有文章（不分页）
+     * 获取所有文章（不分页，只含摘要）
      */
-    List<ArticleVO> getAllArticles();
+    List<ArticleSummaryVO> getAllArticles();
 
     /**
-     * 获取文章列表（分页 + 条件查询）
+     * 获取文章列表（分页 + 条件查询，只含摘要）
      */
-    PageResult<ArticleVO> getArticleList(ArticleQueryDTO queryDTO);
+    PageResult<ArticleSummaryVO> getArticleList(ArticleQueryDTO queryDTO);
+
+    /**
+     * 获取文章列表（游标分页 + 条件查询，只含摘要）
+     */
+    CursorPageResult<ArticleSummaryVO> getArticleListByCursor(ArticleQueryDTO queryDTO);
 
     /**
      * 根据ID获取文章详情
      */
     ArticleVO getArticleById(int id);
 
+    /**
+     * 文章列表的版本(用于 ETag，不读取文章内容)
+     */
+    ResourceVersion getArticlesVersion();
+
+    /**
+     * 单篇文章的版本，文章不存在时返回 null
+     */
+    ResourceVersion getArticleVersion(int id);
+
     /**
      * 上传文章
      */
@@ -32,21 +53,46 @@ public interface ArticleService {
 
     /**
      * 批量上传文章
+     * 在一个事务内分块多行插入，单行失败不影响其他行
+     */
+    ArticleBatchResultVO createArticles(List<UploadArticleDTO> uploadArticleDTOList);
+
+    /**
+     * 以 NDJSON 格式流式导出全部文章(含草稿)，内存占用与文章数量无关
+     *
+     * @return 导出的文章数
+     */
+    long exportArticles(OutputStream out) throws IOException;
+
+    /**
+     * 流式导入 NDJSON 格式的文章，逐行解析、分块写入
+     * 每个分块单独提交，导入不是原子的；返回结果中不包含文章列表
      */
-    List<ArticleVO> createArticles(List<UploadArticleDTO> uploadArticleDTOList);
+    ArticleBatchResultVO importArticles(InputStream in) throws IOException;
 
     /**
      * 搜索文章
      * 核心流程:
-     * 1. 从数据库查询包含关键词的文章(完整content)
-     * 2. 在 Service 层提取包含关键词的片段
-     * 3. 对关键词进行高亮处理
+     * 1. 通过内存倒排索引定位命中文章及命中位置(索引不可用时退回数据库查询)
+     * 2. 按主键回表取出最终结果
+     * 3. 根据命中位置截取片段并高亮
      * 4. 封装成 VO 对象返回
      *
-     * @param keyword 搜索关键词
-     * @return 搜索结果列表(包含snippets数组和完整content)
+     * @param keyword        搜索关键词
+     * @param includeContent 是否在结果中附带完整content
+     * @return 搜索结果列表(包含snippets数组，按需包含完整content)
+     */
+    List<ArticleSearchVO> searchArticles(String keyword, boolean includeContent);
+
+    /**
+     * 搜索统计(索引状态、片段耗时、响应大小)
+     */
+    Map<String, Object> getSearchStats();
+
+    /**
+     * 缓存统计(命中、未命中、淘汰次数)
      */
-    List<ArticleSearchVO> searchArticles(String keyword);
+    Map<String, Object> getCacheStats();
 
     /**
      * 更新文章
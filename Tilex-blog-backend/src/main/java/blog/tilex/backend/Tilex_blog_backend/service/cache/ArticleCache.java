@@ -0,0 +1,128 @@
+package blog.tilex.backend.Tilex_blog_backend.service.cache;
+
+import blog.tilex.backend.Tilex_blog_backend.dto.ArticleSummaryVO;
+import blog.tilex.backend.Tilex_blog_backend.dto.ArticleVO;
+import blog.tilex.backend.Tilex_blog_backend.utils.CursorPageResult;
+import blog.tilex.backend.Tilex_blog_backend.utils.PageResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 文章缓存
+ * 包含两个区域：
+ * 1. 文章详情：按ID缓存 ArticleVO，权重为标题+内容长度
+ * 2. 列表页：按查询条件缓存分页结果，权重为各条记录标题+摘要长度之和
+ *
+ * 写入文章时通过 {@link CacheInvalidationChannel} 广播失效消息，保证多实例之间的一致性
+ */
+@Component
+@Slf4j
+public class ArticleCache {
+
+    /** 每个条目除文本外的固定开销(按字符折算) */
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final WeightedLruCache<Integer, ArticleVO> articles;
+    private final WeightedLruCache<String, Object> lists;
+    private final CacheInvalidationChannel channel;
+
+    public ArticleCache(CacheInvalidationChannel channel,
+                        @Value("${article.cache.detail-max-weight:8000000}") long detailMaxWeight,
+                        @Value("${article.cache.list-max-weight:2000000}") long listMaxWeight) {
+        this.channel = channel;
+        this.articles = new WeightedLruCache<>(detailMaxWeight, ArticleCache::weigh);
+        this.lists = new WeightedLruCache<>(listMaxWeight, ArticleCache::weighList);
+        channel.subscribe(this::apply);
+    }
+
+    /**
+     * 读取文章详情，未命中时调用 loader 查库
+     */
+    public ArticleVO getArticle(int id, Supplier<ArticleVO> loader) {
+        return articles.get(id, key -> loader.get());
+    }
+
+    /**
+     * 读取列表页，未命中时调用 loader 查库
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getList(String key, Supplier<T> loader) {
+        return (T) lists.get(key, k -> loader.get());
+    }
+
+    /**
+     * 新建文章后调用
+     */
+    public void articleCreated() {
+        channel.publish(ArticleInvalidation.created());
+    }
+
+    /**
+     * 更新文章后调用
+     */
+    public void articleUpdated(Integer id) {
+        channel.publish(ArticleInvalidation.updated(id));
+    }
+
+    /**
+     * 统计快照
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("articles", articles.snapshot());
+        result.put("lists", lists.snapshot());
+        return result;
+    }
+
+    /**
+     * 处理失效消息(本实例或其他实例发出)
+     */
+    private void apply(ArticleInvalidation invalidation) {
+        if (invalidation.getArticleId() != null) {
+            articles.invalidate(invalidation.getArticleId());
+        }
+        lists.invalidateAll();
+        log.debug("文章缓存已失效: {}", invalidation);
+    }
+
+    private static int weigh(ArticleVO vo) {
+        return ENTRY_OVERHEAD + length(vo.getTitle()) + length(vo.getContent());
+    }
+
+    /**
+     * 列表页权重：支持 List、PageResult、CursorPageResult 中的 ArticleSummaryVO 记录
+     */
+    private static int weighList(Object page) {
+        List<?> records;
+        if (page instanceof List<?> list) {
+            records = list;
+        } else if (page instanceof PageResult<?> pageResult) {
+            records = pageResult.getRecords();
+        } else if (page instanceof CursorPageResult<?> cursorResult) {
+            records = cursorResult.getRecords();
+        } else {
+            return ENTRY_OVERHEAD;
+        }
+
+        long weight = ENTRY_OVERHEAD;
+        if (records != null) {
+            for (Object record : records) {
+                weight += ENTRY_OVERHEAD;
+                if (record instanceof ArticleSummaryVO summary) {
+                    weight += length(summary.getTitle()) + length(summary.getExcerpt());
+                }
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, weight);
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
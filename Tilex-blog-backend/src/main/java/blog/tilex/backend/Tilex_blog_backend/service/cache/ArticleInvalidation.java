@@ -0,0 +1,28 @@
+package blog.tilex.backend.Tilex_blog_backend.service.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 文章缓存失效消息
+ * 任何文章写入都会影响列表页，所以每条消息都会清空列表缓存；articleId 不为空时再失效对应的详情缓存
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArticleInvalidation {
+
+    /** 发生变化的文章ID，新建文章时为 null */
+    private Integer articleId;
+
+    /** 新建文章：只影响列表 */
+    public static ArticleInvalidation created() {
+        return new ArticleInvalidation(null);
+    }
+
+    /** 更新文章：影响详情和列表 */
+    public static ArticleInvalidation updated(Integer articleId) {
+        return new ArticleInvalidation(articleId);
+    }
+}
@@ -0,0 +1,23 @@
+package blog.tilex.backend.Tilex_blog_backend.service.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * 缓存失效通道
+ * 写入文章的实例通过 publish 广播失效消息，所有实例(包括自己)的订阅者收到后清理本地缓存
+ *
+ * 默认实现 {@link LocalInvalidationChannel} 只在当前 JVM 内广播，适用于单实例部署和测试；
+ * 多实例部署时提供基于消息中间件(Redis Pub/Sub、MQ 等)的实现并标注 @Primary 即可替换
+ */
+public interface CacheInvalidationChannel {
+
+    /**
+     * 广播失效消息
+     */
+    void publish(ArticleInvalidation invalidation);
+
+    /**
+     * 订阅失效消息
+     */
+    void subscribe(Consumer<ArticleInvalidation> listener);
+}
@@ -0,0 +1,29 @@
+package blog.tilex.backend.Tilex_blog_backend.service.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * JVM 内的缓存失效通道
+ * 同步通知当前进程内的所有订阅者
+ */
+@Component
+public class LocalInvalidationChannel implements CacheInvalidationChannel {
+
+    private final List<Consumer<ArticleInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(ArticleInvalidation invalidation) {
+        for (Consumer<ArticleInvalidation> listener : listeners) {
+            listener.accept(invalidation);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<ArticleInvalidation> listener) {
+        listeners.add(listener);
+    }
+}
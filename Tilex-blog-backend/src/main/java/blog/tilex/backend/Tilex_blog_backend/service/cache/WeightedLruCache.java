@@ -0,0 +1,143 @@
+package blog.tilex.backend.Tilex_blog_backend.service.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * 按权重淘汰的 LRU 缓存
+ * 每个条目的权重由 weigher 计算(例如文章内容长度)，总权重超过上限时从最久未访问的条目开始淘汰
+ *
+ * 并发读写通过对象锁串行化，加载数据(查库)在锁外执行；
+ * 每次失效都会推进代数(generation)，加载期间发生过失效的结果不会写回缓存，避免把旧数据缓存下来
+ */
+public class WeightedLruCache<K, V> {
+
+    private final long maxWeight;
+    private final ToIntFunction<V> weigher;
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight = 0;
+    private long generation = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public WeightedLruCache(long maxWeight, ToIntFunction<V> weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * 读取缓存，未命中时调用 loader 加载并写入
+     * loader 抛出的异常原样抛出，且不缓存任何内容
+     */
+    public V get(K key, Function<K, V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                hits.increment();
+                return entry.value;
+            }
+            misses.increment();
+            loadGeneration = generation;
+        }
+
+        V value = loader.apply(key);
+        if (value != null) {
+            put(key, value, loadGeneration);
+        }
+        return value;
+    }
+
+    /**
+     * 失效单个条目
+     */
+    public synchronized void invalidate(K key) {
+        generation++;
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            totalWeight -= removed.weight;
+            invalidations.increment();
+        }
+    }
+
+    /**
+     * 失效所有条目
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidations.add(entries.size());
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return totalWeight;
+    }
+
+    /**
+     * 统计快照
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        result.put("size", size());
+        result.put("weight", weight());
+        result.put("maxWeight", maxWeight);
+        result.put("hits", hitCount);
+        result.put("misses", missCount);
+        result.put("hitRate", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        result.put("evictions", evictions.sum());
+        result.put("invalidations", invalidations.sum());
+        return result;
+    }
+
+    private synchronized void put(K key, V value, long loadGeneration) {
+        // 加载期间有过失效，结果可能已过期，不写回
+        if (loadGeneration != generation) {
+            return;
+        }
+
+        int weight = Math.max(1, weigher.applyAsInt(value));
+        if (weight > maxWeight) {
+            return;
+        }
+
+        Entry<V> previous = entries.put(key, new Entry<>(value, weight));
+        if (previous != null) {
+            totalWeight -= previous.weight;
+        }
+        totalWeight += weight;
+
+        // 从最久未访问的条目开始淘汰
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (totalWeight > maxWeight && iterator.hasNext()) {
+            Entry<V> eldest = iterator.next();
+            iterator.remove();
+            totalWeight -= eldest.weight;
+            evictions.increment();
+        }
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final int weight;
+
+        Entry(V value, int weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
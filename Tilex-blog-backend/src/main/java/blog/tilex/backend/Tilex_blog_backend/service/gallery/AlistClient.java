@@ -0,0 +1,274 @@
+package blog.tilex.backend.Tilex_blog_backend.service.gallery;
+
+import blog.tilex.backend.Tilex_blog_backend.config.GalleryConfig;
+import blog.tilex.backend.Tilex_blog_backend.dto.gallery.AlistResponse;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AList HTTP 客户端
+ * 使用独立的连接池与 AList 保持长连接(HTTP/1.1 keep-alive)，避免每次请求重新建立 TCP 连接；
+ * 响应体直接从输入流解码为 {@link AlistResponse}，不经过 String 和 JsonNode 中转
+ *
+ * 同时统计连接池占用和每个接口的耗时，用于判断 AList 是否成为瓶颈
+ */
+@Component
+@Slf4j
+public class AlistClient {
+
+    /** 接口名称，用于分别统计耗时 */
+    public static final String ENDPOINT_LOGIN = "auth/login";
+    public static final String ENDPOINT_FS_GET = "fs/get";
+    public static final String ENDPOINT_FS_PUT = "fs/put";
+    public static final String ENDPOINT_DOWNLOAD = "download";
+
+    private final GalleryConfig galleryConfig;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final JavaType loginType;
+    private final JavaType fsGetType;
+    private final JavaType fsPutType;
+
+    private final Map<String, EndpointStats> endpointStats = new ConcurrentHashMap<>();
+
+    public AlistClient(GalleryConfig galleryConfig,
+                       @Value("${alist.http.max-total:32}") int maxTotal,
+                       @Value("${alist.http.max-per-route:16}") int maxPerRoute,
+                       @Value("${alist.http.connect-timeout-ms:2000}") long connectTimeoutMs,
+                       @Value("${alist.http.read-timeout-ms:60000}") long readTimeoutMs,
+                       @Value("${alist.http.pool-timeout-ms:5000}") long poolTimeoutMs) {
+        this.galleryConfig = galleryConfig;
+
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxTotal)
+            .setMaxConnPerRoute(maxPerRoute)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                // 空闲超过 10 秒的连接在复用前先检查是否已被 AList 关闭
+                .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                .setTimeToLive(TimeValue.ofMinutes(5))
+                .build())
+            .build();
+
+        this.httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeoutMs))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .build())
+            .evictIdleConnections(TimeValue.ofSeconds(30))
+            .evictExpiredConnections()
+            .build();
+
+        this.restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+
+        this.loginType = objectMapper.getTypeFactory()
+            .constructParametricType(AlistResponse.class, AlistResponse.LoginData.class);
+        this.fsGetType = objectMapper.getTypeFactory()
+            .constructParametricType(AlistResponse.class, AlistResponse.FsObject.class);
+        this.fsPutType = objectMapper.getTypeFactory()
+            .constructParametricType(AlistResponse.class, JsonNode.class);
+
+        log.info("AList client pool created: maxTotal={}, maxPerRoute={}, connectTimeout={}ms, readTimeout={}ms",
+            maxTotal, maxPerRoute, connectTimeoutMs, readTimeoutMs);
+    }
+
+    /**
+     * 登录
+     */
+    public AlistResponse<AlistResponse.LoginData> login(String username, String password) {
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put("username", username);
+        body.put("password", password);
+        return execute(ENDPOINT_LOGIN, galleryConfig.getAlistBaseUrl() + "/api/auth/login",
+            HttpMethod.POST, jsonBody(null, body), loginType);
+    }
+
+    /**
+     * 获取文件信息(包含签名后的 raw_url)
+     */
+    public AlistResponse<AlistResponse.FsObject> fsGet(String token, String path) {
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put("path", path);
+        return execute(ENDPOINT_FS_GET, galleryConfig.getAlistBaseUrl() + "/api/fs/get",
+            HttpMethod.POST, jsonBody(token, body), fsGetType);
+    }
+
+    /**
+     * 流式上传文件
+     * 请求体通过 StreamingHttpOutputMessage.setBody 写出，按 Content-Length 定长发送，不在内存中缓冲
+     *
+     * @param token       认证 token
+     * @param encodedPath 已编码的 File-Path
+     * @param size        文件大小
+     * @param body        写出文件内容
+     */
+    public AlistResponse<JsonNode> put(String token, String encodedPath, long size,
+                                       StreamingHttpOutputMessage.Body body) {
+        RequestCallback callback = request -> {
+            HttpHeaders headers = request.getHeaders();
+            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+            headers.setContentLength(size);
+            headers.set("File-Path", encodedPath);
+            if (token != null && !token.isEmpty()) {
+                headers.set("Authorization", token);
+            }
+            if (request instanceof StreamingHttpOutputMessage streamingRequest) {
+                streamingRequest.setBody(body);
+            } else {
+                body.writeTo(request.getBody());
+            }
+        };
+        return execute(ENDPOINT_FS_PUT, galleryConfig.getAlistUploadUrl(), HttpMethod.PUT, callback, fsPutType);
+    }
+
+    /**
+     * 下载文件(如后台任务读取原图)，响应体以流的形式交给 extractor，不整体读入内存
+     *
+     * @param url       完整的(已签名、已编码的)文件 URL
+     * @param extractor 读取响应流
+     */
+    public <T> T download(String url, ResponseExtractor<T> extractor) {
+        // 使用 URI 重载，避免把签名 URL 中已编码的字符再编码一次
+        return execute(ENDPOINT_DOWNLOAD, URI.create(url), HttpMethod.GET, request -> {
+        }, extractor);
+    }
+
+    /**
+     * 连接池和各接口耗时统计
+     */
+    public Map<String, Object> snapshot() {
+        PoolStats total = connectionManager.getTotalStats();
+        Map<String, Object> pool = new LinkedHashMap<>();
+        pool.put("leased", total.getLeased());
+        pool.put("available", total.getAvailable());
+        pool.put("pending", total.getPending());
+        pool.put("max", total.getMax());
+
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        endpointStats.forEach((name, stats) -> endpoints.put(name, stats.snapshot()));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("pool", pool);
+        result.put("endpoints", endpoints);
+        return result;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    private RequestCallback jsonBody(String token, Object body) {
+        return request -> {
+            request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            if (token != null && !token.isEmpty()) {
+                request.getHeaders().set("Authorization", token);
+            }
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            if (request instanceof StreamingHttpOutputMessage streamingRequest) {
+                streamingRequest.setBody(out -> out.write(json));
+            } else {
+                request.getBody().write(json);
+            }
+        };
+    }
+
+    private <T> T execute(String endpoint, String url, HttpMethod method,
+                          RequestCallback callback, JavaType responseType) {
+        ResponseExtractor<T> extractor = response -> decode(response.getBody(), responseType);
+        return execute(endpoint, URI.create(url), method, callback, extractor);
+    }
+
+    private <T> T execute(String endpoint, URI url, HttpMethod method,
+                          RequestCallback callback, ResponseExtractor<T> extractor) {
+        EndpointStats stats = endpointStats.computeIfAbsent(endpoint, key -> new EndpointStats());
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = restTemplate.execute(url, method, callback, extractor);
+            failed = false;
+            return result;
+        } finally {
+            stats.record(System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * 直接从响应流解码，空响应返回 null
+     */
+    private <T> T decode(InputStream body, JavaType type) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() == null) {
+                return null;
+            }
+            return objectMapper.readValue(parser, type);
+        }
+    }
+
+    private static class EndpointStats {
+        final LongAdder requests = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos, boolean failed) {
+            requests.increment();
+            if (failed) {
+                errors.increment();
+            }
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        Map<String, Object> snapshot() {
+            long count = requests.sum();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("requests", count);
+            result.put("errors", errors.sum());
+            result.put("avgMillis", count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalNanos.sum() / count));
+            result.put("maxMillis", TimeUnit.NANOSECONDS.toMillis(maxNanos.get()));
+            return result;
+        }
+    }
+}
@@ -1,24 +1,24 @@
 package blog.tilex.backend.Tilex_blog_backend.service.gallery;
 
 import blog.tilex.backend.Tilex_blog_backend.config.GalleryConfig;
+import blog.tilex.backend.Tilex_blog_backend.dto.gallery.AlistResponse;
 import blog.tilex.backend.Tilex_blog_backend.dto.gallery.URLComponents;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLDecoder;
 import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.*;
 
@@ -33,11 +33,9 @@ import java.util.*;
 public class AlistService {
 
     private final GalleryConfig galleryConfig;
-    private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    
-    private String alistToken;
-    private long tokenExpireTime = 0;
+    private final AlistClient alistClient;
+    private final AlistTokenHolder tokenHolder;
+    private final AlistUrlSigner urlSigner;
     
     /**
      * 递归深度控制 - 防止无限递归
@@ -47,9 +45,14 @@ public class AlistService {
     private final ThreadLocal<Integer> signedUrlRetryCount = ThreadLocal.withInitial(() -> 0);
     private static final int MAX_RETRY_COUNT = 1; // 最多只重试登录一次
 
-    public AlistService(GalleryConfig galleryConfig, RestTemplate restTemplate) {
+    public AlistService(GalleryConfig galleryConfig,
+                        AlistClient alistClient,
+                        AlistTokenHolder tokenHolder,
+                        AlistUrlSigner urlSigner) {
         this.galleryConfig = galleryConfig;
-        this.restTemplate = restTemplate;
+        this.alistClient = alistClient;
+        this.tokenHolder = tokenHolder;
+        this.urlSigner = urlSigner;
     }
 
     /**
@@ -60,107 +63,114 @@ public class AlistService {
      * @throws IOException 如果文件无法读取
      */
     public String uploadFile(MultipartFile file) throws IOException {
+        String fullPath = putFile(file);
+
+        // 获取签名 URL
+        String accessUrl = getSignedUrl(fullPath);
+        log.info("Upload successful, URL: {}", accessUrl);
+        return accessUrl;
+    }
+
+    /**
+     * 只上传文件内容，不获取签名 URL
+     * 批量上传流水线分别统计上传和签名两个阶段的耗时
+     *
+     * @param file 要上传的文件
+     * @return 文件在 AList 中的完整存储路径
+     * @throws IOException 如果文件无法读取
+     */
+    public String putFile(MultipartFile file) throws IOException {
         log.info("Starting upload file: {}", file.getOriginalFilename());
         
         try {
             // 重置重试计数器
             uploadRetryCount.set(0);
-            
-            return uploadFileInternal(file, 0);
+
+            // 1. 生成新文件名称(有时间戳和随机后缀)
+            String newFilename = generateFilename(file.getOriginalFilename());
+
+            // 2. 构建存储路径(按日期自动分类)
+            String fullPath = buildStoragePath(newFilename);
+            log.info("Full path for upload: {}", fullPath);
+
+            // 使用流式方式上传：把文件输入流直接拷贝到请求体，避免一次性加载整个文件到内存
+            // 重试时重新打开输入流(Multipart 的内容在请求期间一直保存在内存或临时文件中)
+            StreamingHttpOutputMessage.Body fileBody = out -> {
+                try (InputStream in = file.getInputStream()) {
+                    long copied = in.transferTo(out);
+                    log.debug("Streamed {} bytes to AList", copied);
+                }
+            };
+            return putInternal(fullPath, file.getSize(), fileBody, 0);
         } finally {
             // 清理ThreadLocal资源
             uploadRetryCount.remove();
         }
     }
+
+    /**
+     * 上传原图的一个衍生尺寸，存放在原图旁边(如 xxx.png -> xxx-w320.jpg)
+     *
+     * @param originalPath {@link #putFile} 返回的原图存储路径
+     * @param width        衍生尺寸宽度
+     * @param extension    衍生尺寸的文件扩展名
+     * @param data         编码后的内容
+     * @return 衍生尺寸的存储路径
+     */
+    public String putVariant(String originalPath, int width, String extension, byte[] data) throws IOException {
+        int dot = originalPath.lastIndexOf('.');
+        int slash = originalPath.lastIndexOf('/');
+        String base = dot > slash ? originalPath.substring(0, dot) : originalPath;
+        String variantPath = base + "-w" + width + "." + extension;
+        return putInternal(variantPath, data.length, out -> out.write(data), 0);
+    }
     
     /**
      * 内部上传方法，支持有限次数的重试
-     * @param file 要上传的文件
+     * 请求体由 body 直接写出，不在内存中缓冲
+     *
+     * @param fullPath 存储路径
+     * @param size 内容长度
+     * @param body 写出内容(重试时会再次调用)
      * @param retryCount 当前重试次数
+     * @return 文件在 AList 中的完整存储路径
      */
-    private String uploadFileInternal(MultipartFile file, int retryCount) throws IOException {
-        // 确保有有效的token
-        ensureToken();
-
-        // 1. 生成新文件名称(有时间戳和随机后缀)
-        String newFilename = generateFilename(file.getOriginalFilename());
+    private String putInternal(String fullPath, long size, StreamingHttpOutputMessage.Body body,
+                               int retryCount) throws IOException {
+        // 获取有效的token(无锁，临近过期时在后台刷新)
+        String token = tokenHolder.getToken();
 
-        // 2. 构建存储路径(按日期自动分类)
-        String fullPath = buildStoragePath(newFilename);
-        log.info("Full path for upload: {}", fullPath);
-
-        // 3. 准备上传请求 - 使用流式上传with headers
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-        
-        // 使用token认证
-        if (alistToken != null && !alistToken.isEmpty()) {
-            headers.set("Authorization", alistToken);
-            log.debug("Using Authorization token for upload");
-        }
-        
         // File-Path必须放在header中
+        String encodedPath;
         try {
-            String encodedPath = encodeUrlPath(fullPath);
-            headers.set("File-Path", encodedPath);
+            encodedPath = encodeUrlPath(fullPath);
             log.info("Set File-Path header: {}", encodedPath);
         } catch (UnsupportedEncodingException e) {
             log.error("Error encoding File-Path: {}", e.getMessage());
             throw new IOException("Failed to encode file path", e);
         }
-        
-        // 使用流式方式上传，避免一次性加载整个文件到内存
-        ByteArrayResource fileResource = new ByteArrayResource(file.getBytes()) {
-            @Override
-            public String getFilename() {
-                return file.getOriginalFilename();
-            }
-        };
-        
-        HttpEntity<ByteArrayResource> requestEntity = new HttpEntity<>(fileResource, headers);
-
-        // 4. 调用 AList 上传 API
-        String uploadUrl = buildUploadUrl();
-        log.info("Upload URL: {}", uploadUrl);
-        log.debug("Upload headers: {}", headers);
 
+        // 调用 AList 上传 API
         try {
-            ResponseEntity<String> response = restTemplate.exchange(
-                uploadUrl,
-                HttpMethod.PUT,
-                requestEntity,
-                String.class
-            );
-
-            String responseBody = response.getBody();
-            log.info("AList response status: {}, body: {}", response.getStatusCode(), responseBody);
-
-            // 检查HTTP状态码
-            if (response.getStatusCode() != HttpStatus.OK && response.getStatusCode() != HttpStatus.CREATED) {
-                String errorMsg = "AList upload failed with status: " + response.getStatusCode();
-                log.error(errorMsg + ", response: {}", responseBody);
-                throw new RuntimeException(errorMsg);
-            }
+            AlistResponse<JsonNode> response = alistClient.put(token, encodedPath, size, body);
+            log.info("AList upload response: {}", response);
 
             // 验证AList响应
-            if (!isAlistResponseSuccess(responseBody)) {
+            if (response == null || !response.isSuccess()) {
                 // 如果返回认证错误且还有重试次数，尝试重新登录
-                if (isAuthenticationError(responseBody) && retryCount < MAX_RETRY_COUNT) {
+                if (response != null && response.isAuthenticationError() && retryCount < MAX_RETRY_COUNT) {
                     log.warn("Authentication error detected, attempting to re-login (retry count: {})", retryCount + 1);
-                    if (login()) {
-                        // 使用有限的重试，不是无限递归
-                        return uploadFileInternal(file, retryCount + 1);
-                    }
+                    tokenHolder.renewToken(token);
+                    // 使用有限的重试，不是无限递归
+                    return putInternal(fullPath, size, body, retryCount + 1);
                 }
-                String errorMsg = "AList upload failed: " + responseBody;
+                String errorMsg = "AList upload failed: " + response;
                 log.error(errorMsg);
                 throw new RuntimeException(errorMsg);
             }
 
-            // 获取签名 URL
-            String accessUrl = getSignedUrlInternal(fullPath, newFilename, 0);
-            log.info("Upload successful, URL: {}", accessUrl);
-            return accessUrl;
+            log.info("Upload to AList completed: {}", fullPath);
+            return fullPath;
 
         } catch (HttpClientErrorException e) {
             log.error("AList upload HTTP error: {} - {}", e.getStatusCode(), e.getMessage());
@@ -171,159 +181,20 @@ public class AlistService {
                  e.getStatusCode() == HttpStatus.FORBIDDEN) && retryCount < MAX_RETRY_COUNT) {
                 log.warn("Authentication error ({}), attempting to re-login (retry count: {})", 
                     e.getStatusCode(), retryCount + 1);
-                if (login()) {
-                    return uploadFileInternal(file, retryCount + 1);
-                }
+                tokenHolder.renewToken(token);
+                return putInternal(fullPath, size, body, retryCount + 1);
             }
             throw new RuntimeException("AList upload failed: " + e.getMessage());
         }
     }
 
     /**
-     * 确保有有效的token，如果需要则自动登录
-     */
-    private synchronized void ensureToken() {
-        if (shouldRefreshToken()) {
-            if (!login()) {
-                log.error("Failed to obtain valid token from AList");
-                throw new RuntimeException("Failed to authenticate with AList");
-            }
-        }
-    }
-
-    /**
-     * 检查token是否需要刷新
-     */
-    private boolean shouldRefreshToken() {
-        return alistToken == null || alistToken.isEmpty() || 
-               System.currentTimeMillis() >= tokenExpireTime;
-    }
-
-    /**
-     * 登录到AList并获取token
+     * 重新登录到AList并获取token
      * 
      * @return 登录是否成功
      */
     public boolean login() {
-        try {
-            log.info("Attempting to login to AList");
-            
-            String loginUrl = galleryConfig.getAlistBaseUrl() + "/api/auth/login";
-            
-            Map<String, String> loginRequest = new LinkedHashMap<>();
-            loginRequest.put("username", galleryConfig.getAlistUsername());
-            loginRequest.put("password", galleryConfig.getAlistPassword());
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            
-            HttpEntity<Map<String, String>> entity = new HttpEntity<>(loginRequest, headers);
-            
-            ResponseEntity<String> response = restTemplate.exchange(
-                loginUrl,
-                HttpMethod.POST,
-                entity,
-                String.class
-            );
-            
-            String responseBody = response.getBody();
-            log.debug("AList login response: {}", responseBody);
-            
-            // 解析响应并提取token
-            if (response.getStatusCode() == HttpStatus.OK && responseBody != null) {
-                try {
-                    JsonNode jsonNode = objectMapper.readTree(responseBody);
-                    
-                    // 检查响应状态
-                    if (jsonNode.has("code") && jsonNode.get("code").asInt() == 200) {
-                        if (jsonNode.has("data") && jsonNode.get("data").has("token")) {
-                            String token = jsonNode.get("data").get("token").asText();
-                            if (token != null && !token.isEmpty()) {
-                                this.alistToken = token;
-                                // 设置token过期时间(默认7天，可以根据AList实际配置调整)
-                                this.tokenExpireTime = System.currentTimeMillis() + (7L * 24 * 60 * 60 * 1000);
-                                log.info("Successfully obtained AList token");
-                                return true;
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    log.error("Error parsing login response: {}", e.getMessage());
-                }
-            }
-            
-            log.error("Failed to login to AList: invalid response");
-            return false;
-            
-        } catch (Exception e) {
-            log.error("AList login failed: {}", e.getMessage());
-            return false;
-        }
-    }
-
-    /**
-     * 检查AList API响应是否成功
-     * AList通常返回 {"code": 200, "message": "...", "data": ...}
-     */
-    private boolean isAlistResponseSuccess(String responseBody) {
-        try {
-            if (responseBody == null || responseBody.isEmpty()) {
-                log.warn("Empty response from AList");
-                return false;
-            }
-            
-            JsonNode jsonNode = objectMapper.readTree(responseBody);
-            
-            // 检查code字段
-            if (jsonNode.has("code")) {
-                int code = jsonNode.get("code").asInt();
-                if (code == 200) {
-                    return true;
-                }
-                log.warn("AList returned error code: {}", code);
-                return false;
-            }
-            
-            // 如果没有code字段，假设成功（向后兼容）
-            log.debug("No 'code' field in AList response, assuming success");
-            return true;
-            
-        } catch (Exception e) {
-            log.error("Error parsing AList response: {}", e.getMessage());
-            // 如果无法解析为JSON，可能是上传成功了（AList有时返回非JSON)
-            return false;
-        }
-    }
-
-    /**
-     * 检查响应是否表示认证错误
-     */
-    private boolean isAuthenticationError(String responseBody) {
-        try {
-            if (responseBody == null || responseBody.isEmpty()) {
-                return false;
-            }
-            
-            JsonNode jsonNode = objectMapper.readTree(responseBody);
-            
-            if (jsonNode.has("code")) {
-                int code = jsonNode.get("code").asInt();
-                // 常见的认证错误代码
-                return code == 401 || code == 403 || code == 400;
-            }
-            
-            if (jsonNode.has("message")) {
-                String message = jsonNode.get("message").asText().toLowerCase();
-                return message.contains("unauthorized") || 
-                       message.contains("authentication") ||
-                       message.contains("token") ||
-                       message.contains("forbidden");
-            }
-            
-            return false;
-        } catch (Exception e) {
-            return false;
-        }
+        return tokenHolder.refreshNow();
     }
 
     /**
@@ -342,7 +213,8 @@ public class AlistService {
             
             // 2. 测试登录
             report.append("\n--- Testing Login ---\n");
-            if (login()) {
+            String alistToken = login() ? tokenHolder.getToken() : null;
+            if (alistToken != null) {
                 report.append("✓ Login successful\n");
                 report.append("Token: ").append(alistToken.substring(0, Math.min(20, alistToken.length()))).append("...\n");
             } else {
@@ -363,29 +235,11 @@ public class AlistService {
             
             for (String testPath : testPaths) {
                 try {
-                    String getUrl = galleryConfig.getAlistBaseUrl() + "/api/fs/get";
-                    
-                    Map<String, String> requestBody = new LinkedHashMap<>();
-                    requestBody.put("path", testPath);
-                    
-                    HttpHeaders headers = new HttpHeaders();
-                    headers.setContentType(MediaType.APPLICATION_JSON);
-                    headers.set("Authorization", alistToken);
-                    
-                    HttpEntity<Map<String, String>> entity = new HttpEntity<>(requestBody, headers);
-                    
-                    ResponseEntity<String> response = restTemplate.exchange(
-                        getUrl,
-                        HttpMethod.POST,
-                        entity,
-                        String.class
-                    );
-                    
-                    String responseBody = response.getBody();
-                    if (isAlistResponseSuccess(responseBody)) {
+                    AlistResponse<AlistResponse.FsObject> response = alistClient.fsGet(alistToken, testPath);
+                    if (response != null && response.isSuccess()) {
                         report.append("✓ Path '").append(testPath).append("' exists\n");
                     } else {
-                        report.append("✗ Path '").append(testPath).append("' error: ").append(responseBody).append("\n");
+                        report.append("✗ Path '").append(testPath).append("' error: ").append(response).append("\n");
                     }
                 } catch (Exception e) {
                     report.append("✗ Path '").append(testPath).append("' error: ").append(e.getMessage()).append("\n");
@@ -472,23 +326,13 @@ public class AlistService {
         return fullPath;
     }
 
-    /**
-     * 构建 AList 上传 API URL
-     * 注意：根据Alist官方文档，文件路径应放在请求头(File-Path)中，而不是URL参数
-     */
-    private String buildUploadUrl() {
-        // 只返回基础URL，路径参数将通过File-Path header传递
-        String uploadUrl = galleryConfig.getAlistUploadUrl();
-        log.debug("AList upload URL: {}", uploadUrl);
-        return uploadUrl;
-    }
-
     /**
      * 对URL路径进行编码，保留斜杠
      * 例如：/blog-images/2026/03/23/file【中文】.png 
      * 编码为：/blog-images/2026/03/23/file%E3%80%90...%E3%80%91.png
+     * (包可见，供基准测试调用)
      */
-    private String encodeUrlPath(String path) throws UnsupportedEncodingException {
+    String encodeUrlPath(String path) throws UnsupportedEncodingException {
         if (path == null || path.isEmpty()) {
             return path;
         }
@@ -511,23 +355,77 @@ public class AlistService {
     }
 
     /**
-     * 构建图片的完整访问 URL
+     * 构建图片的完整访问 URL(不含签名)
      */
-    private String buildAccessUrl(String fullPath, String filename) {
+    private String buildAccessUrl(String fullPath) {
         String baseUrl = galleryConfig.getCompleteDomain();
-        String accessUrl = baseUrl + galleryConfig.getAlistAccessPrefix() + fullPath;
+        String accessUrl;
+        try {
+            accessUrl = baseUrl + galleryConfig.getAlistAccessPrefix() + encodeUrlPath(fullPath);
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException("Failed to encode path: " + fullPath, e);
+        }
         log.debug("Access URL: {}", accessUrl);
         return accessUrl;
     }
 
     /**
-     * 从 AList 获取签名 URL (公开方法)
+     * 把数据库中保存的 URL 路径(如 /d/blog-images/2026/03/20/x.png)还原为 AList 存储路径
+     *
+     * @param alistPath 图片的 alistPath 字段
+     * @return 未编码的存储路径
+     */
+    public String toStoragePath(String alistPath) {
+        String path = alistPath;
+        String prefix = galleryConfig.getAlistAccessPrefix();
+        if (prefix != null && !prefix.isEmpty() && path.startsWith(prefix + "/")) {
+            path = path.substring(prefix.length());
+        }
+        return URLDecoder.decode(path, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 获取签名 URL
+     * 配置了签名密钥时在本地计算，不访问 AList；否则调用 /api/fs/get 并按路径缓存结果
+     *
+     * @param fullPath {@link #putFile} 返回的存储路径
+     */
+    public String getSignedUrl(String fullPath) {
+        if (urlSigner.isLocalSigningEnabled()) {
+            String accessUrl = buildAccessUrl(fullPath) + "?sign=" + urlSigner.sign(fullPath);
+            log.info("Signed URL locally: {}", accessUrl);
+            return accessUrl;
+        }
+        return urlSigner.cached(fullPath, this::fetchSignedUrl);
+    }
+
+    /**
+     * 批量获取签名 URL
+     * 本地签名时完全不访问 AList；远程签名时只有缓存未命中的路径才会调用 /api/fs/get
+     *
+     * @param fullPaths 存储路径
+     * @return 存储路径 -> 签名 URL，获取失败的路径不在结果中
+     */
+    public Map<String, String> getSignedUrls(Collection<String> fullPaths) {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String fullPath : fullPaths) {
+            try {
+                result.put(fullPath, getSignedUrl(fullPath));
+            } catch (Exception e) {
+                log.error("Failed to sign {}: {}", fullPath, e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 从 AList 获取签名 URL
      * 使用Token认证调用 /api/fs/get 接口，获取已签名的可访问URL
      */
-    private String getSignedUrl(String fullPath, String filename) {
+    private String fetchSignedUrl(String fullPath) {
         try {
             signedUrlRetryCount.set(0);
-            return getSignedUrlInternal(fullPath, filename, 0);
+            return getSignedUrlInternal(fullPath, null, 0);
         } finally {
             signedUrlRetryCount.remove();
         }
@@ -540,74 +438,31 @@ public class AlistService {
      */
     private String getSignedUrlInternal(String fullPath, String filename, int retryCount) {
         try {
-            // 确保有有效的token
-            ensureToken();
+            // 获取有效的token
+            String token = tokenHolder.getToken();
             
             // 调用 AList /api/fs/get 接口获取签名 URL
-            String getUrl = galleryConfig.getAlistBaseUrl() + "/api/fs/get";
-            
-            // 准备请求
-            Map<String, String> requestBody = new LinkedHashMap<>();
-            requestBody.put("path", fullPath);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            
-            // 使用Token认证
-            if (alistToken != null && !alistToken.isEmpty()) {
-                headers.set("Authorization", alistToken);
-                log.debug("Using Bearer token for /api/fs/get request");
-            }
-            
-            HttpEntity<Map<String, String>> requestEntity = new HttpEntity<>(requestBody, headers);
-            
             try {
-                ResponseEntity<String> response = restTemplate.exchange(
-                    getUrl,
-                    HttpMethod.POST,
-                    requestEntity,
-                    String.class
-                );
+                AlistResponse<AlistResponse.FsObject> response = alistClient.fsGet(token, fullPath);
                 
-                if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                    String responseBody = response.getBody();
-                    log.debug("AList /api/fs/get response: {}", responseBody);
-                    
-                    // 使用ObjectMapper解析JSON
-                    try {
-                        JsonNode jsonNode = objectMapper.readTree(responseBody);
+                // AList响应格式检查
+                if (response != null && response.code() != null && response.code() == 200) {
+                    AlistResponse.FsObject data = response.data();
+                    if (data != null) {
+                        // 优先获取raw_url (原始URL，适合直接访问)
+                        if (data.rawUrl() != null && !data.rawUrl().isEmpty()) {
+                            log.info("Got signed raw_url from AList: {}", data.rawUrl());
+                            return data.rawUrl();
+                        }
                         
-                        // AList响应格式检查
-                        if (jsonNode.has("code") && jsonNode.get("code").asInt() == 200) {
-                            if (jsonNode.has("data")) {
-                                JsonNode data = jsonNode.get("data");
-                                
-                                // 优先获取raw_url (原始URL，适合直接访问)
-                                if (data.has("raw_url") && data.get("raw_url") != null) {
-                                    String rawUrl = data.get("raw_url").asText();
-                                    if (rawUrl != null && !rawUrl.isEmpty()) {
-                                        log.info("Got signed raw_url from AList: {}", rawUrl);
-                                        return rawUrl;
-                                    }
-                                }
-                                
-                                // 其次尝试url字段
-                                if (data.has("url") && data.get("url") != null) {
-                                    String url = data.get("url").asText();
-                                    if (url != null && !url.isEmpty()) {
-                                        log.info("Got signed url from AList: {}", url);
-                                        return url;
-                                    }
-                                }
-                            }
-                        } else {
-                            log.warn("AList returned error: code={}, message={}", 
-                                jsonNode.has("code") ? jsonNode.get("code").asInt() : "unknown",
-                                jsonNode.has("message") ? jsonNode.get("message").asText() : "no message");
+                        // 其次尝试url字段
+                        if (data.url() != null && !data.url().isEmpty()) {
+                            log.info("Got signed url from AList: {}", data.url());
+                            return data.url();
                         }
-                    } catch (Exception parseError) {
-                        log.warn("Failed to parse AList response: {}", parseError.getMessage());
                     }
+                } else if (response != null) {
+                    log.warn("AList returned error: code={}, message={}", response.code(), response.message());
                 }
             } catch (HttpClientErrorException e) {
                 log.error("HTTP error getting signed URL: {} - {}", e.getStatusCode(), e.getMessage());
@@ -616,10 +471,9 @@ public class AlistService {
                      e.getStatusCode() == HttpStatus.FORBIDDEN) && retryCount < MAX_RETRY_COUNT) {
                     log.warn("Authentication error ({}), attempting to re-login (retry count: {})", 
                         e.getStatusCode(), retryCount + 1);
-                    if (login()) {
-                        // 使用有限的重试，不是无限递归
-                        return getSignedUrlInternal(fullPath, filename, retryCount + 1);
-                    }
+                    tokenHolder.renewToken(token);
+                    // 使用有限的重试，不是无限递归
+                    return getSignedUrlInternal(fullPath, filename, retryCount + 1);
                 }
                 throw e;
             } catch (Exception e) {
@@ -635,6 +489,16 @@ public class AlistService {
         }
     }
 
+    /**
+     * 下载 AList 中的文件
+     *
+     * @param fullPath  存储路径
+     * @param extractor 读取响应流
+     */
+    public <T> T download(String fullPath, ResponseExtractor<T> extractor) {
+        return alistClient.download(getSignedUrl(fullPath), extractor);
+    }
+
     /**
      * 提取文件扩展名
      */
@@ -646,6 +510,15 @@ public class AlistService {
         return lastDot > 0 ? filename.substring(lastDot + 1) : "bin";
     }
 
+    /**
+     * AList 客户端的连接池占用、各接口耗时以及签名统计
+     */
+    public Map<String, Object> getClientStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(alistClient.snapshot());
+        stats.put("signer", urlSigner.snapshot());
+        return stats;
+    }
+
     /**
      * 获取最大上传大小 MB
      */
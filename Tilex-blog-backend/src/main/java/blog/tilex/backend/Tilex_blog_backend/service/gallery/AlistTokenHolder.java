@@ -0,0 +1,187 @@
+package blog.tilex.backend.Tilex_blog_backend.service.gallery;
+
+import blog.tilex.backend.Tilex_blog_backend.config.GalleryConfig;
+import blog.tilex.backend.Tilex_blog_backend.dto.gallery.AlistResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * AList token 持有者
+ * token 与过期时间组成不可变快照，放在 AtomicReference 中，读取时无锁；
+ * 刷新采用 single-flight：同一时刻只有一个线程真正去登录，其他线程等待同一个 future
+ *
+ * token 在过期前 refresh-ahead 时间内会在后台提前刷新，调用方继续使用旧 token，热路径不会阻塞在登录上；
+ * 只有首次使用或 token 已经过期/被判定失效时才会同步等待登录完成
+ */
+@Component
+@Slf4j
+public class AlistTokenHolder {
+
+    private final GalleryConfig galleryConfig;
+    private final AlistClient alistClient;
+    private final long ttlMillis;
+    private final long refreshAheadMillis;
+
+    private final AtomicReference<Token> current = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<Token>> inflight = new AtomicReference<>();
+
+    /** 后台提前刷新使用的线程 */
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "alist-token-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public AlistTokenHolder(GalleryConfig galleryConfig,
+                            AlistClient alistClient,
+                            @Value("${alist.token.ttl-minutes:2880}") long ttlMinutes,
+                            @Value("${alist.token.refresh-ahead-minutes:60}") long refreshAheadMinutes) {
+        this.galleryConfig = galleryConfig;
+        this.alistClient = alistClient;
+        this.ttlMillis = TimeUnit.MINUTES.toMillis(ttlMinutes);
+        this.refreshAheadMillis = Math.min(TimeUnit.MINUTES.toMillis(refreshAheadMinutes), ttlMillis / 2);
+    }
+
+    /**
+     * 获取可用的 token
+     *
+     * @return token
+     * @throws RuntimeException 如果无法登录 AList
+     */
+    public String getToken() {
+        Token token = current.get();
+        long now = System.currentTimeMillis();
+        if (token != null && now < token.expiresAt()) {
+            if (now >= token.refreshAt()) {
+                // 快到期了：后台刷新，本次仍使用旧 token
+                refresh(true);
+            }
+            return token.value();
+        }
+        return await(refresh(false)).value();
+    }
+
+    /**
+     * 判定某个 token 已失效(AList 返回认证错误)并获取新的 token
+     * 只有当前 token 仍是 stale 时才会清除，多个线程同时报告同一个失效 token 只会触发一次登录
+     *
+     * @param stale 本次请求使用的 token
+     * @return 新的 token
+     */
+    public String renewToken(String stale) {
+        Token token = current.get();
+        if (token != null && token.value().equals(stale)) {
+            current.compareAndSet(token, null);
+        }
+        return getToken();
+    }
+
+    /**
+     * 立即重新登录(诊断接口使用)
+     *
+     * @return 登录是否成功
+     */
+    public boolean refreshNow() {
+        try {
+            current.set(null);
+            getToken();
+            return true;
+        } catch (Exception e) {
+            log.error("AList login failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 发起或加入一次刷新
+     *
+     * @param async true 表示在后台线程登录，调用方不等待
+     */
+    private CompletableFuture<Token> refresh(boolean async) {
+        CompletableFuture<Token> existing = inflight.get();
+        if (existing != null) {
+            return existing;
+        }
+
+        CompletableFuture<Token> future = new CompletableFuture<>();
+        if (!inflight.compareAndSet(null, future)) {
+            // 其他线程抢先发起了刷新
+            CompletableFuture<Token> winner = inflight.get();
+            return winner != null ? winner : refresh(async);
+        }
+
+        Runnable task = () -> {
+            try {
+                Token token = login();
+                current.set(token);
+                future.complete(token);
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                inflight.compareAndSet(future, null);
+            }
+        };
+        if (async) {
+            refresher.execute(task);
+        } else {
+            task.run();
+        }
+        return future;
+    }
+
+    private Token await(CompletableFuture<Token> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Failed to authenticate with AList", cause);
+        }
+    }
+
+    /**
+     * 登录到AList并生成新的 token 快照
+     */
+    private Token login() {
+        log.info("Attempting to login to AList");
+        AlistResponse<AlistResponse.LoginData> response = alistClient.login(
+            galleryConfig.getAlistUsername(), galleryConfig.getAlistPassword());
+
+        if (response == null || response.code() == null || response.code() != 200
+                || response.data() == null || response.data().token() == null
+                || response.data().token().isEmpty()) {
+            log.error("Failed to login to AList: invalid response {}", response);
+            throw new RuntimeException("Failed to authenticate with AList");
+        }
+
+        long now = System.currentTimeMillis();
+        log.info("Successfully obtained AList token");
+        return new Token(response.data().token(), now + ttlMillis, now + ttlMillis - refreshAheadMillis);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * token 快照
+     *
+     * @param value     token
+     * @param expiresAt 过期时间
+     * @param refreshAt 开始后台刷新的时间
+     */
+    private record Token(String value, long expiresAt, long refreshAt) {
+    }
+}
@@ -0,0 +1,177 @@
+package blog.tilex.backend.Tilex_blog_backend.service.gallery;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * AList 签名 URL 子系统
+ *
+ * 配置了签名密钥(AList 后台 设置 -> 其他 -> 令牌)时，按 AList 的算法在本地计算 sign 参数：
+ * sign = base64url(HMAC-SHA256(secret, path + ":" + expire)) + ":" + expire，expire 为秒级时间戳，0 表示永不过期。
+ * 此时上传只需要一次 PUT，批量重新签名也不需要访问 AList
+ *
+ * 未配置密钥时退回到 /api/fs/get，并按存储路径缓存返回的 raw_url；
+ * 缓存有效期不超过 sign 参数自身的过期时间
+ */
+@Component
+@Slf4j
+public class AlistUrlSigner {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    /** 远程签名缓存的最大条目数，超过后先清理过期条目，仍然超出则整体清空 */
+    private static final int MAX_CACHE_ENTRIES = 10_000;
+
+    /** 缓存的签名 URL 在 sign 过期前这么久就视为失效 */
+    private static final long EXPIRY_MARGIN_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final byte[] secret;
+    private final long expireSeconds;
+    private final long cacheTtlMillis;
+
+    private final Map<String, CachedUrl> cache = new ConcurrentHashMap<>();
+    private final LongAdder localSigns = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder remoteSigns = new LongAdder();
+
+    public AlistUrlSigner(@Value("${alist.sign.secret:}") String secret,
+                          @Value("${alist.sign.expire-minutes:0}") long expireMinutes,
+                          @Value("${alist.sign.cache-ttl-minutes:30}") long cacheTtlMinutes) {
+        this.secret = secret == null || secret.isEmpty() ? null : secret.getBytes(StandardCharsets.UTF_8);
+        this.expireSeconds = TimeUnit.MINUTES.toSeconds(expireMinutes);
+        this.cacheTtlMillis = TimeUnit.MINUTES.toMillis(cacheTtlMinutes);
+        log.info("AList URL signer: local signing {}", this.secret != null ? "enabled" : "disabled, using /api/fs/get");
+    }
+
+    /**
+     * 是否可以在本地计算签名
+     */
+    public boolean isLocalSigningEnabled() {
+        return secret != null;
+    }
+
+    /**
+     * 在本地计算存储路径的 sign 参数
+     *
+     * @param fullPath 文件在 AList 中的存储路径(未编码)
+     * @return sign 参数值
+     */
+    public String sign(String fullPath) {
+        if (secret == null) {
+            throw new IllegalStateException("AList signing secret is not configured");
+        }
+        long expire = expireSeconds > 0 ? System.currentTimeMillis() / 1000 + expireSeconds : 0;
+        String expireText = Long.toString(expire);
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret, HMAC_ALGORITHM));
+            byte[] digest = mac.doFinal((fullPath + ":" + expireText).getBytes(StandardCharsets.UTF_8));
+            localSigns.increment();
+            return Base64.getUrlEncoder().encodeToString(digest) + ":" + expireText;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to sign AList path: " + fullPath, e);
+        }
+    }
+
+    /**
+     * 从缓存获取签名 URL，没有或已过期时调用 remote 向 AList 获取并缓存
+     *
+     * @param fullPath 文件在 AList 中的存储路径
+     * @param remote   通过 /api/fs/get 获取签名 URL
+     */
+    public String cached(String fullPath, Function<String, String> remote) {
+        long now = System.currentTimeMillis();
+        CachedUrl entry = cache.get(fullPath);
+        if (entry != null && now < entry.expiresAt()) {
+            cacheHits.increment();
+            return entry.url();
+        }
+
+        String url = remote.apply(fullPath);
+        remoteSigns.increment();
+
+        long expiresAt = now + cacheTtlMillis;
+        long signExpire = signExpireMillis(url);
+        if (signExpire > 0) {
+            expiresAt = Math.min(expiresAt, signExpire - EXPIRY_MARGIN_MILLIS);
+        }
+        if (expiresAt > now) {
+            if (cache.size() >= MAX_CACHE_ENTRIES) {
+                evict(now);
+            }
+            cache.put(fullPath, new CachedUrl(url, expiresAt));
+        }
+        return url;
+    }
+
+    /**
+     * 清除某个路径的缓存(文件被删除或移动后)
+     */
+    public void evict(String fullPath) {
+        cache.remove(fullPath);
+    }
+
+    /**
+     * 签名统计
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("localSigning", isLocalSigningEnabled());
+        result.put("localSigns", localSigns.sum());
+        result.put("cacheHits", cacheHits.sum());
+        result.put("remoteSigns", remoteSigns.sum());
+        result.put("cachedEntries", cache.size());
+        return result;
+    }
+
+    private void evict(long now) {
+        cache.values().removeIf(entry -> entry.expiresAt() <= now);
+        if (cache.size() >= MAX_CACHE_ENTRIES) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * 解析 URL 中 sign 参数携带的过期时间(毫秒)，没有 sign 或永不过期时返回 0
+     */
+    static long signExpireMillis(String url) {
+        if (url == null) {
+            return 0;
+        }
+        int signStart = url.indexOf("sign=");
+        if (signStart < 0) {
+            return 0;
+        }
+        int valueEnd = url.indexOf('&', signStart);
+        String value = url.substring(signStart + "sign=".length(), valueEnd < 0 ? url.length() : valueEnd);
+        int colon = value.lastIndexOf(':');
+        if (colon < 0) {
+            colon = value.lastIndexOf("%3A");
+            if (colon < 0) {
+                return 0;
+            }
+            colon += 2;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(value.substring(colon + 1)));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private record CachedUrl(String url, long expiresAt) {
+    }
+}
@@ -2,16 +2,31 @@ package blog.tilex.backend.Tilex_blog_backend.service.gallery;
 
 import blog.tilex.backend.Tilex_blog_backend.repository.GalleryImageRepository;
 import blog.tilex.backend.Tilex_blog_backend.repository.GalleryImageTagRepository;
+import blog.tilex.backend.Tilex_blog_backend.repository.GalleryImageVariantRepository;
 import blog.tilex.backend.Tilex_blog_backend.repository.GalleryTagRepository;
+import blog.tilex.backend.Tilex_blog_backend.dto.common.ResourceVersion;
 import blog.tilex.backend.Tilex_blog_backend.dto.gallery.BatchUpdateRequest;
+import blog.tilex.backend.Tilex_blog_backend.dto.gallery.GalleryImageQuery;
+import blog.tilex.backend.Tilex_blog_backend.dto.gallery.GalleryImageWithTagsVO;
 import blog.tilex.backend.Tilex_blog_backend.dto.gallery.ImageUpdateItem;
 import blog.tilex.backend.Tilex_blog_backend.entity.GalleryImage;
+import blog.tilex.backend.Tilex_blog_backend.entity.GalleryImageVariant;
 import blog.tilex.backend.Tilex_blog_backend.entity.GalleryTag;
+import blog.tilex.backend.Tilex_blog_backend.service.cache.WeightedLruCache;
+import blog.tilex.backend.Tilex_blog_backend.service.gallery.job.GalleryJobService;
+import blog.tilex.backend.Tilex_blog_backend.service.gallery.job.ImageVariantsJobHandler;
+import blog.tilex.backend.Tilex_blog_backend.utils.CursorPageResult;
+import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 /**
  * 画庶图片服务
@@ -21,19 +36,41 @@ import java.util.*;
 @Slf4j
 public class GalleryImageService {
 
+    /** 列表每页最大数量 */
+    private static final int MAX_PAGE_SIZE = 100;
+
+    /** 计数缓存有效期(标签关联变化不主动清除，最多延迟这么久) */
+    private static final long COUNT_CACHE_TTL_MS = 60_000;
+
     private final GalleryImageRepository galleryImageRepository;
     private final GalleryTagRepository galleryTagRepository;
     private final GalleryImageTagRepository galleryImageTagRepository;
+    private final GalleryImageVariantRepository galleryImageVariantRepository;
     private final AlistService alistService;
+    private final GalleryTagIndex galleryTagIndex;
+    private final GalleryJobService galleryJobService;
+
+    /** 条件计数缓存最多保存的条件数(筛选条件来自客户端，必须有上限) */
+    private static final int COUNT_CACHE_MAX_ENTRIES = 1000;
+
+    /** 条件计数缓存：key = isDeleted|tagId|from|to，超过上限时淘汰最久未访问的条件 */
+    private final WeightedLruCache<String, CachedCount> countCache =
+        new WeightedLruCache<>(COUNT_CACHE_MAX_ENTRIES, count -> 1);
 
     public GalleryImageService(GalleryImageRepository galleryImageRepository,
                               GalleryTagRepository galleryTagRepository,
                               GalleryImageTagRepository galleryImageTagRepository,
-                              AlistService alistService) {
+                              GalleryImageVariantRepository galleryImageVariantRepository,
+                              AlistService alistService,
+                              GalleryTagIndex galleryTagIndex,
+                              GalleryJobService galleryJobService) {
         this.galleryImageRepository = galleryImageRepository;
         this.galleryTagRepository = galleryTagRepository;
         this.galleryImageTagRepository = galleryImageTagRepository;
+        this.galleryImageVariantRepository = galleryImageVariantRepository;
         this.alistService = alistService;
+        this.galleryTagIndex = galleryTagIndex;
+        this.galleryJobService = galleryJobService;
     }
 
     /**
@@ -45,7 +82,169 @@ public class GalleryImageService {
     @Transactional
     public GalleryImage saveImage(GalleryImage image) {
         log.info("Saving image: {}", image.getTitle());
-        return galleryImageRepository.save(image);
+        GalleryImage saved = galleryImageRepository.save(image);
+        countCache.invalidateAll();
+        if (saved.getIsDeleted() == 0) {
+            galleryTagIndex.addImage(saved.getId());
+        }
+        return saved;
+    }
+
+    /**
+     * 保存一批已上传到 AList 的图片，整批在一个事务中提交或回滚：
+     * 1. 新内容用多行 INSERT 保存；与并发上传的相同内容冲突时 MySQL 只回滚这条语句(事务继续)，
+     *    改为逐行插入，冲突的行复用先保存的图片(本次上传的文件成为孤立文件)
+     * 2. 内容已存在的文件复用已有图片(已软删除的会被恢复)
+     * 3. 批次内的重复文件使用被引用文件的图片
+     * 4. 为实际新建的图片提交衍生尺寸任务
+     *
+     * @param newImages   文件下标 -> 待保存的新图片
+     * @param existingIds 文件下标 -> 内容已存在的图片 ID
+     * @param duplicateOf 文件下标 -> 批次内内容相同的文件下标
+     * @return 每个文件对应的图片
+     * @throws IllegalStateException 如果某个文件无法对应到图片(整批回滚)
+     */
+    @Transactional
+    public UploadSaveResult saveUploadedImages(Map<Integer, GalleryImage> newImages,
+                                               Map<Integer, Long> existingIds,
+                                               Map<Integer, Integer> duplicateOf) {
+        UploadSaveResult result = new UploadSaveResult();
+        Map<Integer, Long> concurrentIds = new HashMap<>();
+        if (!newImages.isEmpty()) {
+            try {
+                result.setInsertStatements(galleryImageRepository.insertAll(new ArrayList<>(newImages.values())));
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Batch insert conflicted with a concurrent upload, saving images one by one");
+                result.setInsertStatements(0);
+                for (Map.Entry<Integer, GalleryImage> entry : newImages.entrySet()) {
+                    Long concurrentId = insertOrFindConcurrent(entry.getValue());
+                    if (concurrentId == null) {
+                        result.setInsertStatements(result.getInsertStatements() + 1);
+                    } else {
+                        concurrentIds.put(entry.getKey(), concurrentId);
+                    }
+                }
+            }
+            countCache.invalidateAll();
+        }
+
+        Map<Integer, Long> imageIdByIndex = result.getImageIdByIndex();
+        for (Map.Entry<Integer, GalleryImage> entry : newImages.entrySet()) {
+            Long concurrentId = concurrentIds.get(entry.getKey());
+            if (concurrentId != null) {
+                imageIdByIndex.put(entry.getKey(), concurrentId);
+            } else {
+                GalleryImage image = entry.getValue();
+                imageIdByIndex.put(entry.getKey(), image.getId());
+                result.getNewIndexes().add(entry.getKey());
+                if (image.getIsDeleted() == 0) {
+                    galleryTagIndex.addImage(image.getId());
+                }
+            }
+        }
+        for (Map.Entry<Integer, Long> entry : existingIds.entrySet()) {
+            reuseImage(entry.getValue());
+            imageIdByIndex.put(entry.getKey(), entry.getValue());
+        }
+        // 重复关系按哈希计算完成的先后确定，被引用的文件可能排在更后面，所以在其他文件都确定后再处理
+        for (Map.Entry<Integer, Integer> entry : duplicateOf.entrySet()) {
+            Long imageId = imageIdByIndex.get(entry.getValue());
+            if (imageId == null) {
+                throw new IllegalStateException("No image resolved for file " + entry.getKey());
+            }
+            imageIdByIndex.put(entry.getKey(), imageId);
+        }
+
+        // 衍生尺寸由后台任务生成，任务与图片在同一事务中提交
+        List<Long> newImageIds = new ArrayList<>();
+        for (Integer index : result.getNewIndexes()) {
+            newImageIds.add(imageIdByIndex.get(index));
+        }
+        galleryJobService.enqueueAll(ImageVariantsJobHandler.JOB_TYPE, newImageIds);
+
+        log.info("Saved upload batch: {} new images with {} INSERT statements, {} reused",
+            newImageIds.size(), result.getInsertStatements(), imageIdByIndex.size() - newImageIds.size());
+        return result;
+    }
+
+    /**
+     * 插入一张图片；内容已被其他请求保存时(只有这条语句失败)返回已有图片的 ID
+     *
+     * @return null 表示插入成功(ID 已回填)，否则为已有图片的 ID
+     */
+    private Long insertOrFindConcurrent(GalleryImage image) {
+        image.setId(null);
+        try {
+            galleryImageRepository.insertAll(List.of(image));
+            return null;
+        } catch (DataIntegrityViolationException duplicate) {
+            image.setId(null);
+            GalleryImage existing = galleryImageRepository.lockByContentHash(image.getContentHash())
+                .orElseThrow(() -> duplicate);
+            log.warn("Image content already saved concurrently, reusing image {}", existing.getId());
+            return existing.getId();
+        }
+    }
+
+    /**
+     * 用新生成的衍生尺寸替换图片已有的衍生尺寸，并把最小的一个设为缩略图
+     * 先删后插，重复执行结果相同(后台任务可能重试)
+     * 
+     * @param imageId  原图 ID
+     * @param variants 按宽度升序排列的衍生尺寸
+     */
+    @Transactional
+    public void replaceVariants(Long imageId, List<GalleryImageVariant> variants) {
+        GalleryImage image = galleryImageRepository.findById(imageId)
+            .orElseThrow(() -> new IllegalArgumentException("Image not found: " + imageId));
+
+        galleryImageVariantRepository.deleteByImageId(imageId);
+        for (GalleryImageVariant variant : variants) {
+            variant.setImageId(imageId);
+        }
+        galleryImageVariantRepository.saveAll(variants);
+
+        image.setThumbnailUrl(variants.isEmpty() ? null : variants.get(0).getImageUrl());
+        galleryImageRepository.save(image);
+    }
+
+    /**
+     * 获取图片的衍生尺寸(按宽度升序)
+     */
+    public List<GalleryImageVariant> findVariants(Long imageId) {
+        return galleryImageVariantRepository.findByImageIdOrderByWidthAsc(imageId);
+    }
+
+    /**
+     * 根据内容哈希查找图片(包括已删除的)
+     */
+    public Optional<GalleryImage> findImageByContentHash(String contentHash) {
+        return galleryImageRepository.findByContentHash(contentHash);
+    }
+
+    /**
+     * 尚未计算内容哈希的图片 ID
+     */
+    public List<Long> findImageIdsWithoutContentHash() {
+        return galleryImageRepository.findIdsWithoutContentHash();
+    }
+
+    /**
+     * 重复上传时复用已有图片：已软删除的图片会被恢复
+     *
+     * @param imageId 已有图片 ID
+     */
+    @Transactional
+    public void reuseImage(Long imageId) {
+        galleryImageRepository.findById(imageId).ifPresent(image -> {
+            if (image.getIsDeleted() != 0) {
+                image.setIsDeleted(0);
+                galleryImageRepository.save(image);
+                countCache.invalidateAll();
+                galleryTagIndex.addImage(imageId);
+                log.info("Image restored by re-upload: {}", imageId);
+            }
+        });
     }
 
     /**
@@ -62,6 +261,157 @@ public class GalleryImageService {
         return galleryImageRepository.findByIsDeletedOrderBySortOrderAsc(0);
     }
 
+    /**
+     * 游标分页查询未删除的图片
+     * 
+     * @param query 查询参数(isDeleted 被忽略)
+     * @return 一页图片，withTotal 时附带总数
+     */
+    public CursorPageResult<GalleryImage> findImagesPage(GalleryImageQuery query) {
+        return findPage(0, query);
+    }
+
+    /**
+     * 后台接口：游标分页查询图片，可按删除状态筛选
+     */
+    public CursorPageResult<GalleryImage> findImagesPageForAdmin(GalleryImageQuery query) {
+        return findPage(query.getIsDeleted(), query);
+    }
+
+    /**
+     * 多取一条判断是否有下一页，最后一条的 (sortOrder, id) 作为下一页游标
+     */
+    private CursorPageResult<GalleryImage> findPage(Integer isDeleted, GalleryImageQuery query) {
+        int pageSize = pageSize(query);
+        PageCursor cursor = PageCursor.parse(query.getAfter());
+        LocalDateTime from = query.getFrom() == null ? null : query.getFrom().atStartOfDay();
+        LocalDateTime to = query.getTo() == null ? null : query.getTo().plusDays(1).atStartOfDay();
+
+        List<GalleryImage> images = isDeleted != null && isDeleted == 0
+            ? galleryImageRepository.findPagedNotDeleted(cursor.sortOrder(), cursor.id(), query.getTagId(),
+                from, to, pageSize + 1)
+            : galleryImageRepository.findPage(isDeleted, cursor.sortOrder(), cursor.id(), query.getTagId(),
+                from, to, Limit.of(pageSize + 1));
+
+        CursorPageResult<GalleryImage> result = toPage(images, pageSize);
+        if (Boolean.TRUE.equals(query.getWithTotal())) {
+            String key = isDeleted + "|" + query.getTagId() + "|" + from + "|" + to;
+            result.setTotal(cachedCount(key, () -> galleryImageRepository.countFiltered(
+                isDeleted, query.getTagId(), from, to)));
+        }
+        return result;
+    }
+
+    /**
+     * 按标签表达式分页查询未删除的图片，并带上每张图片的标签
+     * 过滤和分页在一条 SQL 中完成，当前页的标签再用一条批量查询补齐，不需要客户端逐张请求
+     * 
+     * @param query tags(AND)、anyTags(OR)、notTags 组成标签表达式，其他筛选条件不生效
+     * @return 一页带标签的图片，withTotal 时附带总数
+     */
+    public CursorPageResult<GalleryImageWithTagsVO> findImagesByTags(GalleryImageQuery query) {
+        int pageSize = pageSize(query);
+        PageCursor cursor = PageCursor.parse(query.getAfter());
+
+        // 标签索引可用时先算出匹配数：没有匹配直接返回空页，总数也不需要 COUNT 查询
+        Long indexedTotal = galleryTagIndex.isReady()
+            ? galleryTagIndex.count(query.getTags(), query.getAnyTags(), query.getNotTags())
+            : null;
+        if (indexedTotal != null && indexedTotal == 0) {
+            CursorPageResult<GalleryImageWithTagsVO> empty = new CursorPageResult<>(List.of(), pageSize, false, null);
+            if (Boolean.TRUE.equals(query.getWithTotal())) {
+                empty.setTotal(0L);
+            }
+            return empty;
+        }
+
+        List<GalleryImage> images = galleryImageRepository.findByTagExpression(
+            query.getTags(), query.getAnyTags(), query.getNotTags(), cursor.sortOrder(), cursor.id(), pageSize + 1);
+        CursorPageResult<GalleryImage> page = toPage(images, pageSize);
+
+        CursorPageResult<GalleryImageWithTagsVO> result = new CursorPageResult<>(
+            withTags(page.getRecords()), pageSize, page.getHasMore(), page.getNextCursor());
+        if (Boolean.TRUE.equals(query.getWithTotal()) && indexedTotal != null) {
+            result.setTotal(indexedTotal);
+        } else if (Boolean.TRUE.equals(query.getWithTotal())) {
+            String key = "tags|" + query.getTags() + "|" + query.getAnyTags() + "|" + query.getNotTags();
+            result.setTotal(cachedCount(key, () -> galleryImageRepository.countByTagExpression(
+                query.getTags(), query.getAnyTags(), query.getNotTags())));
+        }
+        return result;
+    }
+
+    /**
+     * 一次查询补齐多张图片的标签
+     */
+    private List<GalleryImageWithTagsVO> withTags(List<GalleryImage> images) {
+        if (images.isEmpty()) {
+            return List.of();
+        }
+        List<Long> imageIds = images.stream().map(GalleryImage::getId).toList();
+        Map<Long, List<GalleryTag>> tagsByImage = new HashMap<>();
+        for (Object[] row : galleryImageTagRepository.findTagsByImageIds(imageIds)) {
+            tagsByImage.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((GalleryTag) row[1]);
+        }
+
+        List<GalleryImageWithTagsVO> result = new ArrayList<>(images.size());
+        for (GalleryImage image : images) {
+            result.add(new GalleryImageWithTagsVO(image, tagsByImage.getOrDefault(image.getId(), List.of())));
+        }
+        return result;
+    }
+
+    private static int pageSize(GalleryImageQuery query) {
+        return query.getPageSize() == null ? 30 : Math.max(1, Math.min(MAX_PAGE_SIZE, query.getPageSize()));
+    }
+
+    /**
+     * 查询时多取了一条：据此判断是否有下一页，最后一条的 (sortOrder, id) 作为下一页游标
+     */
+    private static CursorPageResult<GalleryImage> toPage(List<GalleryImage> images, int pageSize) {
+        boolean hasMore = images.size() > pageSize;
+        if (hasMore) {
+            images = images.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            GalleryImage last = images.get(images.size() - 1);
+            nextCursor = last.getSortOrder() + "," + last.getId();
+        }
+        return new CursorPageResult<>(images, pageSize, hasMore, nextCursor);
+    }
+
+    /**
+     * 统计满足条件的图片数，结果缓存 COUNT_CACHE_TTL_MS；图片新增、删除、恢复时清空
+     */
+    private long cachedCount(String key, LongSupplier counter) {
+        long now = System.currentTimeMillis();
+        Function<String, CachedCount> loader = k -> new CachedCount(counter.getAsLong(), now + COUNT_CACHE_TTL_MS);
+
+        CachedCount cached = countCache.get(key, loader);
+        if (cached.expireAt() <= now) {
+            countCache.invalidate(key);
+            cached = countCache.get(key, loader);
+        }
+        return cached.count();
+    }
+
+    /**
+     * 图片列表的版本(用于 ETag)
+     */
+    public ResourceVersion getImagesVersion() {
+        return galleryImageRepository.findVersion();
+    }
+
+    /**
+     * 某个标签的图片关联版本(按标签筛选图片列表时参与 ETag)
+     */
+    public ResourceVersion getImageTagsVersion(Long tagId) {
+        Object[] row = galleryImageTagRepository.findVersionByTagId(tagId).get(0);
+        return new ResourceVersion((Long) row[0], null, (Long) row[1]);
+    }
+
     /**
      * 根据标题搜索图片
      */
@@ -84,32 +434,42 @@ public class GalleryImageService {
                 "Cannot update more than " + alistService.getBatchMaxLimit() + " images at once");
         }
 
+        // 一次 findAllById 加载全部目标，修改后由提交时的 flush 合并为批量 UPDATE(hibernate.jdbc.batch_size)
+        Set<Long> ids = new LinkedHashSet<>();
+        for (ImageUpdateItem item : request.getUpdates()) {
+            if (item.getId() != null) {
+                ids.add(item.getId());
+            }
+        }
+        Map<Long, GalleryImage> images = new HashMap<>();
+        for (GalleryImage image : galleryImageRepository.findAllById(ids)) {
+            if (image.getIsDeleted() == 0) {
+                images.put(image.getId(), image);
+            }
+        }
+
         int successCount = 0;
         List<String> errors = new ArrayList<>();
 
         for (ImageUpdateItem item : request.getUpdates()) {
-            try {
-                GalleryImage image = galleryImageRepository.findByIdAndIsDeleted(item.getId(), 0)
-                    .orElseThrow(() -> new IllegalArgumentException("Image not found: " + item.getId()));
-
-                // 仅藁准修改这些字段
-                if (item.getTitle() != null) {
-                    image.setTitle(item.getTitle());
-                }
-                if (item.getDescription() != null) {
-                    image.setDescription(item.getDescription());
-                }
-                if (item.getSortOrder() != null) {
-                    image.setSortOrder(item.getSortOrder());
-                }
-
-                galleryImageRepository.save(image);
-                successCount++;
+            GalleryImage image = images.get(item.getId());
+            if (image == null) {
+                errors.add("ID " + item.getId() + ": Image not found: " + item.getId());
+                log.error("Error updating image {}: not found", item.getId());
+                continue;
+            }
 
-            } catch (Exception e) {
-                errors.add("ID " + item.getId() + ": " + e.getMessage());
-                log.error("Error updating image {}: {}", item.getId(), e.getMessage());
+            // 仅藁准修改这些字段
+            if (item.getTitle() != null) {
+                image.setTitle(item.getTitle());
+            }
+            if (item.getDescription() != null) {
+                image.setDescription(item.getDescription());
             }
+            if (item.getSortOrder() != null) {
+                image.setSortOrder(item.getSortOrder());
+            }
+            successCount++;
         }
 
         Map<String, Object> result = new LinkedHashMap<>();
@@ -131,9 +491,11 @@ public class GalleryImageService {
 
         image.setIsDeleted(1);
         galleryImageRepository.save(image);
+        countCache.invalidateAll();
 
         // 也删除所有个签关联
         galleryImageTagRepository.deleteByImageId(imageId);
+        galleryTagIndex.removeImage(imageId);
 
         log.info("Image deleted (soft): {}", imageId);
     }
@@ -152,24 +514,84 @@ public class GalleryImageService {
 
         image.setIsDeleted(0);
         galleryImageRepository.save(image);
+        countCache.invalidateAll();
+        galleryTagIndex.addImage(imageId);
 
         log.info("Image restored: {}", imageId);
     }
 
     /**
-     * 获取图片数量（仅统计未删除的）
+     * 重新签名所有带 sign 参数的图片 URL(包括衍生尺寸和缩略图)
+     * 配置了签名密钥时全部在本地计算，不访问 AList；否则逐个走(带缓存的) /api/fs/get
+     *
+     * @return 更新数量和失败信息
      */
-    public long getImageCount() {
-        return galleryImageRepository.countByIsDeleted(0);
+    @Transactional
+    public Map<String, Object> resignImages() {
+        List<GalleryImage> images = galleryImageRepository.findByHasSignParam(1);
+        List<Long> imageIds = images.stream().map(GalleryImage::getId).toList();
+        List<GalleryImageVariant> variants = imageIds.isEmpty()
+            ? List.of() : galleryImageVariantRepository.findByImageIdIn(imageIds);
+
+        // 原图和衍生尺寸的存储路径一起签名
+        Set<String> storagePaths = new LinkedHashSet<>();
+        for (GalleryImage image : images) {
+            storagePaths.add(alistService.toStoragePath(image.getAlistPath()));
+        }
+        for (GalleryImageVariant variant : variants) {
+            storagePaths.add(alistService.toStoragePath(variant.getAlistPath()));
+        }
+        Map<String, String> signedUrls = alistService.getSignedUrls(storagePaths);
+
+        List<String> errors = new ArrayList<>();
+        List<GalleryImageVariant> updatedVariants = new ArrayList<>();
+        Map<Long, GalleryImageVariant> smallestVariants = new HashMap<>();
+        for (GalleryImageVariant variant : variants) {
+            String signedUrl = signedUrls.get(alistService.toStoragePath(variant.getAlistPath()));
+            if (signedUrl == null) {
+                errors.add("Variant " + variant.getId() + ": failed to sign " + variant.getAlistPath());
+            } else if (!signedUrl.equals(variant.getImageUrl())) {
+                variant.setImageUrl(signedUrl);
+                updatedVariants.add(variant);
+            }
+            smallestVariants.merge(variant.getImageId(), variant,
+                (current, candidate) -> candidate.getWidth() < current.getWidth() ? candidate : current);
+        }
+
+        List<GalleryImage> updated = new ArrayList<>();
+        for (GalleryImage image : images) {
+            String signedUrl = signedUrls.get(alistService.toStoragePath(image.getAlistPath()));
+            if (signedUrl == null) {
+                errors.add("ID " + image.getId() + ": failed to sign " + image.getAlistPath());
+                continue;
+            }
+            GalleryImageVariant smallest = smallestVariants.get(image.getId());
+            String thumbnailUrl = smallest != null ? smallest.getImageUrl() : image.getThumbnailUrl();
+            if (!signedUrl.equals(image.getImageUrl()) || !Objects.equals(thumbnailUrl, image.getThumbnailUrl())) {
+                image.setImageUrl(signedUrl);
+                image.setThumbnailUrl(thumbnailUrl);
+                updated.add(image);
+            }
+        }
+        galleryImageRepository.saveAll(updated);
+        galleryImageVariantRepository.saveAll(updatedVariants);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("totalCount", images.size());
+        result.put("updatedCount", updated.size());
+        result.put("updatedVariantCount", updatedVariants.size());
+        result.put("errors", errors);
+
+        log.info("Re-signed {} of {} image URLs ({} variants), {} errors",
+            updated.size(), images.size(), updatedVariants.size(), errors.size());
+        return result;
     }
 
     /**
-     * 后台接口：获取所有图片（包括已删除的）
-     * 用于管理员查看所有图片状态（已发布/已删除）
+     * 获取图片数量（仅统计未删除的）
      */
-    public List<GalleryImage> findAllImagesForAdmin() {
-        log.info("Fetching all images for admin");
-        return galleryImageRepository.findAllByOrderBySortOrderAsc();
+    public long getImageCount() {
+        return cachedCount("0|null|null|null", () -> galleryImageRepository.countByIsDeleted(0));
     }
 
     /**
@@ -195,9 +617,11 @@ public class GalleryImageService {
 
         image.setIsDeleted(1);
         galleryImageRepository.save(image);
+        countCache.invalidateAll();
 
         // 也删除所有标签关联
         galleryImageTagRepository.deleteByImageId(imageId);
+        galleryTagIndex.removeImage(imageId);
 
         log.info("Image disabled: {}", imageId);
     }
@@ -217,6 +641,8 @@ public class GalleryImageService {
 
         image.setIsDeleted(0);
         galleryImageRepository.save(image);
+        countCache.invalidateAll();
+        galleryTagIndex.addImage(imageId);
 
         log.info("Image enabled: {}", imageId);
     }
@@ -238,4 +664,38 @@ public class GalleryImageService {
             totalCount, activeCount, disabledCount);
         return stats;
     }
+
+    private record CachedCount(long count, long expireAt) {
+    }
+
+    /**
+     * 游标：上一页最后一条的 (sortOrder, id)，第一页两者都为 null
+     */
+    private record PageCursor(Integer sortOrder, Long id) {
+
+        static PageCursor parse(String after) {
+            if (after == null || after.isBlank()) {
+                return new PageCursor(null, null);
+            }
+            String[] parts = after.split(",");
+            try {
+                return new PageCursor(Integer.valueOf(parts[0].trim()), Long.valueOf(parts[1].trim()));
+            } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + after);
+            }
+        }
+    }
+
+    /**
+     * 一批上传的保存结果
+     */
+    @Data
+    public static class UploadSaveResult {
+        /** 文件下标 -> 图片 ID(按下标排序) */
+        private Map<Integer, Long> imageIdByIndex = new TreeMap<>();
+        /** 新建了图片的文件下标 */
+        private Set<Integer> newIndexes = new LinkedHashSet<>();
+        /** 执行的 INSERT 语句数 */
+        private int insertStatements;
+    }
 }
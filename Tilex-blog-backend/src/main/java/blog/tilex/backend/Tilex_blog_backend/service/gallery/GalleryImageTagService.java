@@ -3,7 +3,6 @@ package blog.tilex.backend.Tilex_blog_backend.service.gallery;
 import blog.tilex.backend.Tilex_blog_backend.config.GalleryConfig;
 import blog.tilex.backend.Tilex_blog_backend.repository.GalleryImageRepository;
 import blog.tilex.backend.Tilex_blog_backend.repository.GalleryImageTagRepository;
-import blog.tilex.backend.Tilex_blog_backend.repository.GalleryTagRepository;
 import blog.tilex.backend.Tilex_blog_backend.dto.gallery.BatchAssociateRequest;
 import blog.tilex.backend.Tilex_blog_backend.dto.gallery.ImageTagAssociation;
 import blog.tilex.backend.Tilex_blog_backend.entity.GalleryImageTag;
@@ -11,10 +10,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 /**
  * 画庶图片-标签关联服务
@@ -25,22 +21,26 @@ import java.util.Map;
 public class GalleryImageTagService {
 
     private final GalleryImageRepository galleryImageRepository;
-    private final GalleryTagRepository galleryTagRepository;
+    private final GalleryTagCatalog galleryTagCatalog;
     private final GalleryImageTagRepository galleryImageTagRepository;
     private final GalleryConfig galleryConfig;
+    private final GalleryTagIndex galleryTagIndex;
 
     public GalleryImageTagService(GalleryImageRepository galleryImageRepository,
-                                 GalleryTagRepository galleryTagRepository,
+                                 GalleryTagCatalog galleryTagCatalog,
                                  GalleryImageTagRepository galleryImageTagRepository,
-                                 GalleryConfig galleryConfig) {
+                                 GalleryConfig galleryConfig,
+                                 GalleryTagIndex galleryTagIndex) {
         this.galleryImageRepository = galleryImageRepository;
-        this.galleryTagRepository = galleryTagRepository;
+        this.galleryTagCatalog = galleryTagCatalog;
         this.galleryImageTagRepository = galleryImageTagRepository;
         this.galleryConfig = galleryConfig;
+        this.galleryTagIndex = galleryTagIndex;
     }
 
     /**
      * 把图片与特定标签关联
+     * 图片用一条 IN 查询校验，标签由内存标签目录校验，新关联用一条多行 INSERT IGNORE 写入
      */
     @Transactional
     public void associateImageWithTags(Long imageId, List<Long> tagIds) {
@@ -53,19 +53,20 @@ public class GalleryImageTagService {
             throw new IllegalArgumentException("Image not found: " + imageId);
         }
 
+        // Verify tags exist and are not deleted
+        Set<Long> activeTagIds = galleryTagCatalog.activeIds(tagIds);
         for (Long tagId : tagIds) {
-            // Verify tag exists and is not deleted
-            if (!galleryTagRepository.existsByIdAndIsDeleted(tagId, 0)) {
+            if (!activeTagIds.contains(tagId)) {
                 throw new IllegalArgumentException("Tag not found: " + tagId);
             }
+        }
 
-            // Check if association already exists
-            if (!galleryImageTagRepository.existsByImageIdAndTagId(imageId, tagId)) {
-                GalleryImageTag association = new GalleryImageTag(imageId, tagId);
-                galleryImageTagRepository.save(association);
-                log.debug("Image-tag association created: imageId={}, tagId={}", imageId, tagId);
-            }
+        Set<GalleryImageTag> requested = new LinkedHashSet<>();
+        for (Long tagId : tagIds) {
+            requested.add(new GalleryImageTag(imageId, tagId));
         }
+        int created = insertMissing(requested);
+        log.debug("Image-tag associations created: imageId={}, count={}", imageId, created);
     }
 
     /**
@@ -73,80 +74,58 @@ public class GalleryImageTagService {
      * 支持两种模式：
      * 1. associations 模式：每个关联指定嚾片及其标签
      * 2. imageIds + tagIds 模式：笛卡尔乘积
+     *
+     * 按集合处理：图片一条 IN 查询校验、标签由标签目录校验，一条查询取出已存在的关联，在内存中求差集，
+     * 新关联用多行 INSERT IGNORE 写入，语句数与关联数量无关
      */
     @Transactional
     public Map<String, Object> batchAssociateImageTags(BatchAssociateRequest request) {
-        List<ImageTagAssociation> associations = new ArrayList<>();
-
-        // 将请求转换为关联列表
-        if (request.getAssociations() != null && !request.getAssociations().isEmpty()) {
-            // 模式 1：关联
-            associations = request.getAssociations();
-        } else if (request.getImageIds() != null && !request.getImageIds().isEmpty() &&
-                   request.getTagIds() != null && !request.getTagIds().isEmpty()) {
-            // 模式 2： imageIds + tagIds 笛卡尔乘积
-            for (Long imageId : request.getImageIds()) {
-                ImageTagAssociation assoc = new ImageTagAssociation();
-                assoc.setImageId(imageId);
-                assoc.setTagIds(request.getTagIds());
-                associations.add(assoc);
-            }
-        } else {
-            throw new IllegalArgumentException(
-                "Must provide either associations or both imageIds and tagIds");
-        }
+        List<ImageTagAssociation> associations = toAssociations(request);
 
         // 检查计数限制
-        long totalAssociations = associations.stream()
-            .mapToLong(a -> (long) (a.getTagIds() != null ? a.getTagIds().size() : 0))
-            .sum();
-
+        long totalAssociations = countPairs(associations);
         if (totalAssociations > galleryConfig.getBatchMaxLimit()) {
             throw new IllegalArgumentException(
                 "Total associations exceed limit of " + galleryConfig.getBatchMaxLimit());
         }
 
-        int successCount = 0;
-        List<String> errors = new ArrayList<>();
-
+        Set<Long> imageIds = new LinkedHashSet<>();
+        Set<Long> tagIds = new LinkedHashSet<>();
         for (ImageTagAssociation assoc : associations) {
-            try {
-                // Verify image exists and is not deleted
-                if (!galleryImageRepository.existsByIdAndIsDeleted(assoc.getImageId(), 0)) {
-                    throw new IllegalArgumentException("Image not found: " + assoc.getImageId());
-                }
+            imageIds.add(assoc.getImageId());
+            if (assoc.getTagIds() != null) {
+                tagIds.addAll(assoc.getTagIds());
+            }
+        }
+        Set<Long> activeImageIds = imageIds.isEmpty()
+            ? Set.of() : new HashSet<>(galleryImageRepository.findActiveIdsIn(imageIds));
+        Set<Long> activeTagIds = tagIds.isEmpty()
+            ? Set.of() : galleryTagCatalog.activeIds(tagIds);
 
-                for (Long tagId : assoc.getTagIds()) {
-                    try {
-                        // Verify tag exists and is not deleted
-                        if (!galleryTagRepository.existsByIdAndIsDeleted(tagId, 0)) {
-                            throw new IllegalArgumentException("Tag not found: " + tagId);
-                        }
-
-                        // Check if association already exists
-                        if (!galleryImageTagRepository.existsByImageIdAndTagId(
-                            assoc.getImageId(), tagId)) {
-                            GalleryImageTag imageTag = new GalleryImageTag(assoc.getImageId(), tagId);
-                            galleryImageTagRepository.save(imageTag);
-                            successCount++;
-                        }
-                    } catch (Exception e) {
-                        errors.add("Image:" + assoc.getImageId() + " Tag:" + tagId +
-                            " - " + e.getMessage());
-                    }
+        List<String> errors = new ArrayList<>();
+        Set<GalleryImageTag> requested = new LinkedHashSet<>();
+        for (ImageTagAssociation assoc : associations) {
+            if (!activeImageIds.contains(assoc.getImageId())) {
+                errors.add("Association error - Image not found: " + assoc.getImageId());
+                continue;
+            }
+            if (assoc.getTagIds() == null) {
+                continue;
+            }
+            for (Long tagId : assoc.getTagIds()) {
+                if (activeTagIds.contains(tagId)) {
+                    requested.add(new GalleryImageTag(assoc.getImageId(), tagId));
+                } else {
+                    errors.add("Image:" + assoc.getImageId() + " Tag:" + tagId + " - Tag not found: " + tagId);
                 }
-
-            } catch (Exception e) {
-                errors.add("Association error - " + e.getMessage());
-                log.error("Error processing association: {}", e.getMessage());
             }
         }
 
+        int successCount = insertMissing(requested);
+
         Map<String, Object> result = new LinkedHashMap<>();
         result.put("successCount", successCount);
-        result.put("totalCount", associations.stream()
-            .mapToLong(a -> (long) (a.getTagIds() != null ? a.getTagIds().size() : 0))
-            .sum());
+        result.put("totalCount", totalAssociations);
         result.put("errors", errors);
 
         log.info("Batch association completed: {} success, {} errors", successCount, errors.size());
@@ -162,10 +141,109 @@ public class GalleryImageTagService {
             return;
         }
 
+        List<GalleryImageTag> pairs = new ArrayList<>(tagIds.size());
         for (Long tagId : tagIds) {
-            galleryImageTagRepository.deleteByImageIdAndTagId(imageId, tagId);
-            log.debug("Image-tag association deleted: imageId={}, tagId={}", imageId, tagId);
+            pairs.add(new GalleryImageTag(imageId, tagId));
         }
+        int deleted = galleryImageTagRepository.deletePairs(pairs);
+        galleryTagIndex.removeAssociations(imageId, tagIds);
+        log.debug("Image-tag associations deleted: imageId={}, count={}", imageId, deleted);
+    }
+
+    /**
+     * 批量取消关联(支持与批量关联相同的两种模式)
+     * 所有组合用 DELETE ... WHERE (image_id, tag_id) IN (...) 一次删除
+     *
+     * @return 实际删除的关联数
+     */
+    @Transactional
+    public int batchDisassociateImageTags(BatchAssociateRequest request) {
+        List<ImageTagAssociation> associations = toAssociations(request);
+        if (countPairs(associations) > galleryConfig.getBatchMaxLimit()) {
+            throw new IllegalArgumentException(
+                "Total associations exceed limit of " + galleryConfig.getBatchMaxLimit());
+        }
+
+        Set<GalleryImageTag> pairs = new LinkedHashSet<>();
+        for (ImageTagAssociation assoc : associations) {
+            if (assoc.getTagIds() != null) {
+                for (Long tagId : assoc.getTagIds()) {
+                    pairs.add(new GalleryImageTag(assoc.getImageId(), tagId));
+                }
+            }
+        }
+
+        int deleted = galleryImageTagRepository.deletePairs(pairs);
+        for (ImageTagAssociation assoc : associations) {
+            if (assoc.getTagIds() != null) {
+                galleryTagIndex.removeAssociations(assoc.getImageId(), assoc.getTagIds());
+            }
+        }
+        log.info("Batch disassociation completed: {} of {} associations deleted", deleted, pairs.size());
+        return deleted;
+    }
+
+    /**
+     * 将请求转换为关联列表
+     */
+    private List<ImageTagAssociation> toAssociations(BatchAssociateRequest request) {
+        if (request.getAssociations() != null && !request.getAssociations().isEmpty()) {
+            // 模式 1：关联
+            return request.getAssociations();
+        }
+        if (request.getImageIds() != null && !request.getImageIds().isEmpty() &&
+            request.getTagIds() != null && !request.getTagIds().isEmpty()) {
+            // 模式 2： imageIds + tagIds 笛卡尔乘积
+            List<ImageTagAssociation> associations = new ArrayList<>();
+            for (Long imageId : request.getImageIds()) {
+                ImageTagAssociation assoc = new ImageTagAssociation();
+                assoc.setImageId(imageId);
+                assoc.setTagIds(request.getTagIds());
+                associations.add(assoc);
+            }
+            return associations;
+        }
+        throw new IllegalArgumentException(
+            "Must provide either associations or both imageIds and tagIds");
+    }
+
+    private static long countPairs(List<ImageTagAssociation> associations) {
+        return associations.stream()
+            .mapToLong(a -> (long) (a.getTagIds() != null ? a.getTagIds().size() : 0))
+            .sum();
+    }
+
+    /**
+     * 与已存在的关联求差集，只写入缺少的关联，并同步标签索引
+     * INSERT IGNORE 兜底并发请求同时写入同一关联的情况
+     *
+     * @return 实际新增的关联数
+     */
+    private int insertMissing(Set<GalleryImageTag> requested) {
+        if (requested.isEmpty()) {
+            return 0;
+        }
+        Set<Long> imageIds = new HashSet<>();
+        Set<Long> tagIds = new HashSet<>();
+        for (GalleryImageTag pair : requested) {
+            imageIds.add(pair.getImageId());
+            tagIds.add(pair.getTagId());
+        }
+        for (Object[] row : galleryImageTagRepository.findPairs(imageIds, tagIds)) {
+            requested.remove(new GalleryImageTag((Long) row[0], (Long) row[1]));
+        }
+        if (requested.isEmpty()) {
+            return 0;
+        }
+
+        int inserted = galleryImageTagRepository.insertIgnore(requested);
+
+        Map<Long, List<Long>> tagIdsByImage = new HashMap<>();
+        for (GalleryImageTag pair : requested) {
+            tagIdsByImage.computeIfAbsent(pair.getImageId(), id -> new ArrayList<>()).add(pair.getTagId());
+        }
+        tagIdsByImage.forEach(galleryTagIndex::addAssociations);
+        return inserted;
     }
 
     /**
@@ -179,6 +257,9 @@ public class GalleryImageTagService {
      * 获取标签的所有图片
      */
     public List<Long> getImagesForTag(Long tagId) {
+        if (galleryTagIndex.isReady()) {
+            return galleryTagIndex.imageIds(tagId);
+        }
         return galleryImageTagRepository.findImageIdsByTagId(tagId);
     }
 
@@ -186,6 +267,9 @@ public class GalleryImageTagService {
      * 检查图片-标签关联是否存在
      */
     public boolean associationExists(Long imageId, Long tagId) {
+        if (galleryTagIndex.isReady()) {
+            return galleryTagIndex.contains(imageId, tagId);
+        }
         return galleryImageTagRepository.existsByImageIdAndTagId(imageId, tagId);
     }
 }
@@ -0,0 +1,290 @@
+package blog.tilex.backend.Tilex_blog_backend.service.gallery;
+
+import blog.tilex.backend.Tilex_blog_backend.dto.common.ResourceVersion;
+import blog.tilex.backend.Tilex_blog_backend.dto.gallery.TagSuggestionVO;
+import blog.tilex.backend.Tilex_blog_backend.entity.GalleryTag;
+import blog.tilex.backend.Tilex_blog_backend.repository.GalleryImageTagRepository;
+import blog.tilex.backend.Tilex_blog_backend.repository.GalleryTagRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 画廊标签目录(写时复制)
+ * 标签表很小且读取频繁：全部未删除标签的按 ID、按名称索引、排序后的列表、名称的 n-gram 索引、
+ * 每个标签的图片数和表版本组成一个不可变快照，放在 AtomicReference 中。读取只是一次引用读取，不访问数据库，也不加锁
+ *
+ * 任何标签写入在事务提交后重新加载整个快照并原子替换；图片数在标签索引变化后由后台线程重新计算
+ * (多次变化合并为一次)。另按 refresh-seconds 定期重新加载，修正其他实例的写入
+ *
+ * 快照中的实体是独立副本，调用方只能读取，不能修改
+ */
+@Component
+@Slf4j
+public class GalleryTagCatalog {
+
+    private final GalleryTagRepository galleryTagRepository;
+    private final GalleryImageTagRepository galleryImageTagRepository;
+    private final GalleryTagIndex galleryTagIndex;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    /** 图片数已过期、刷新任务已提交但尚未执行 */
+    private final AtomicBoolean countsDirty = new AtomicBoolean(false);
+
+    private final long refreshSeconds;
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "gallery-tag-catalog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public GalleryTagCatalog(GalleryTagRepository galleryTagRepository,
+                             GalleryImageTagRepository galleryImageTagRepository,
+                             GalleryTagIndex galleryTagIndex,
+                             @Value("${gallery.tag-catalog.refresh-seconds:60}") long refreshSeconds) {
+        this.galleryTagRepository = galleryTagRepository;
+        this.galleryImageTagRepository = galleryImageTagRepository;
+        this.galleryTagIndex = galleryTagIndex;
+        this.refreshSeconds = refreshSeconds;
+        galleryTagIndex.addChangeListener(this::countsChanged);
+    }
+
+    /**
+     * 应用启动完成后加载目录，并开始定期重新加载
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reload();
+        if (refreshSeconds > 0) {
+            refresher.scheduleWithFixedDelay(this::reload, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * 从数据库重新加载全部标签并替换快照
+     * 写入方之间串行执行，读取方不受影响
+     */
+    public synchronized void reload() {
+        try {
+            List<GalleryTag> all = galleryTagRepository.findAllDetached();
+            current.set(Snapshot.of(all, imageCounts()));
+            log.debug("Gallery tag catalog loaded: {} tags", all.size());
+        } catch (Exception e) {
+            log.error("Failed to load gallery tag catalog: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 标签写入后调用：有事务时在提交后重新加载，回滚的修改不会进入目录；没有事务时立即重新加载
+     */
+    public void reloadAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    // ==================== 查询(无锁、不访问数据库) ====================
+
+    /**
+     * 根据 ID 查找未删除的标签
+     */
+    public Optional<GalleryTag> findById(Long tagId) {
+        return Optional.ofNullable(snapshot().byId().get(tagId));
+    }
+
+    /**
+     * 根据名称查找未删除的标签(不区分大小写，与 tag_name 列的默认排序规则一致)
+     */
+    public Optional<GalleryTag> findByName(String tagName) {
+        return tagName == null ? Optional.empty() : Optional.ofNullable(snapshot().byName().get(tagName));
+    }
+
+    /**
+     * 所有未删除的标签，按 sort_order、id 升序
+     */
+    public List<GalleryTag> findAll() {
+        return snapshot().sorted();
+    }
+
+    /**
+     * 名称包含 pattern 的未删除标签(不区分大小写)，按 sort_order、id 升序
+     */
+    public List<GalleryTag> search(String pattern) {
+        return snapshot().nameIndex().search(pattern);
+    }
+
+    /**
+     * 输入联想：名称包含 query 的未删除标签，按图片数降序取前 limit 个；
+     * 图片数相同时以 query 开头的在前，其余按 sort_order、id
+     */
+    public List<TagSuggestionVO> suggest(String query, int limit) {
+        Snapshot snapshot = snapshot();
+        String prefix = TagNameIndex.normalize(query);
+        Map<Long, Integer> counts = snapshot.imageCounts();
+
+        List<GalleryTag> matches = new ArrayList<>(snapshot.nameIndex().search(query));
+        matches.sort(Comparator.<GalleryTag>comparingInt(tag -> counts.getOrDefault(tag.getId(), 0)).reversed()
+            .thenComparing(tag -> !tag.getTagName().toLowerCase(Locale.ROOT).startsWith(prefix)));
+
+        List<TagSuggestionVO> result = new ArrayList<>(Math.min(limit, matches.size()));
+        for (GalleryTag tag : matches.subList(0, Math.min(limit, matches.size()))) {
+            result.add(new TagSuggestionVO(tag.getId(), tag.getTagName(), tag.getColorCode(),
+                counts.getOrDefault(tag.getId(), 0)));
+        }
+        return result;
+    }
+
+    /**
+     * 给定 ID 中未删除标签的 ID
+     */
+    public Set<Long> activeIds(Collection<Long> tagIds) {
+        Map<Long, GalleryTag> byId = snapshot().byId();
+        Set<Long> result = new HashSet<>();
+        for (Long tagId : tagIds) {
+            if (byId.containsKey(tagId)) {
+                result.add(tagId);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 未删除的标签数
+     */
+    public int count() {
+        return snapshot().byId().size();
+    }
+
+    /**
+     * 每个标签的图片数，没有图片的标签不出现
+     */
+    public Map<Long, Integer> imageCountsByTag() {
+        return snapshot().imageCounts();
+    }
+
+    /**
+     * 标签表的版本(包括已删除的标签，与条件 GET 的 ETag 对应)
+     */
+    public ResourceVersion version() {
+        ResourceVersion version = snapshot().version();
+        return new ResourceVersion(version.getCount(), version.getLastModified(), version.getMaxId());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * 启动事件之前就有请求时同步加载一次
+     */
+    private Snapshot snapshot() {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            reload();
+            snapshot = current.get();
+            if (snapshot == null) {
+                throw new IllegalStateException("Gallery tag catalog is not available");
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * 标签索引变化：合并为一次后台刷新
+     */
+    private void countsChanged() {
+        if (current.get() != null && countsDirty.compareAndSet(false, true)) {
+            refresher.execute(() -> {
+                countsDirty.set(false);
+                if (galleryTagIndex.isReady()) {
+                    Map<Long, Integer> counts = Map.copyOf(galleryTagIndex.tagCounts());
+                    current.updateAndGet(snapshot -> snapshot == null ? null : snapshot.withImageCounts(counts));
+                }
+            });
+        }
+    }
+
+    private Map<Long, Integer> imageCounts() {
+        if (galleryTagIndex.isReady()) {
+            return Map.copyOf(galleryTagIndex.tagCounts());
+        }
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Object[] row : galleryImageTagRepository.countGroupByTagId()) {
+            counts.put((Long) row[0], ((Long) row[1]).intValue());
+        }
+        return Map.copyOf(counts);
+    }
+
+    /**
+     * 不可变快照
+     *
+     * @param byId        未删除标签按 ID
+     * @param byName      未删除标签按名称(不区分大小写)
+     * @param sorted      未删除标签按 sort_order、id 升序
+     * @param nameIndex   名称的 n-gram 索引(下标对应 sorted)
+     * @param imageCounts 每个标签的图片数
+     * @param version     标签表版本
+     */
+    private record Snapshot(Map<Long, GalleryTag> byId,
+                            Map<String, GalleryTag> byName,
+                            List<GalleryTag> sorted,
+                            TagNameIndex nameIndex,
+                            Map<Long, Integer> imageCounts,
+                            ResourceVersion version) {
+
+        static Snapshot of(List<GalleryTag> all, Map<Long, Integer> imageCounts) {
+            Map<Long, GalleryTag> byId = new HashMap<>();
+            Map<String, GalleryTag> byName = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            List<GalleryTag> sorted = new ArrayList<>();
+            LocalDateTime lastModified = null;
+            Long maxId = null;
+            for (GalleryTag tag : all) {
+                if (lastModified == null || (tag.getUpdatedAt() != null && tag.getUpdatedAt().isAfter(lastModified))) {
+                    lastModified = tag.getUpdatedAt();
+                }
+                if (maxId == null || tag.getId() > maxId) {
+                    maxId = tag.getId();
+                }
+                if (tag.getIsDeleted() != null && tag.getIsDeleted() != 0) {
+                    continue;
+                }
+                byId.put(tag.getId(), tag);
+                byName.put(tag.getTagName(), tag);
+                sorted.add(tag);
+            }
+            sorted.sort(Comparator.comparing(GalleryTag::getSortOrder, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(GalleryTag::getId));
+
+            List<GalleryTag> sortedCopy = List.copyOf(sorted);
+            return new Snapshot(Map.copyOf(byId), Collections.unmodifiableMap(byName), sortedCopy,
+                new TagNameIndex(sortedCopy), imageCounts,
+                new ResourceVersion((long) all.size(), lastModified, maxId));
+        }
+
+        Snapshot withImageCounts(Map<Long, Integer> counts) {
+            return new Snapshot(byId, byName, sorted, nameIndex, counts, version);
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package blog.tilex.backend.Tilex_blog_backend.service.gallery;
+
+import blog.tilex.backend.Tilex_blog_backend.repository.GalleryImageRepository;
+import blog.tilex.backend.Tilex_blog_backend.repository.GalleryImageTagRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * 画廊标签内存索引
+ * 每个标签对应一个 RoaringBitmap(压缩位图)，存放带有该标签的图片 ID；另有一个位图存放所有未删除的图片，
+ * 作为 NOT 条件的全集。交集、并集和基数计算都在位图上完成，不访问数据库
+ *
+ * 启动时从 gallery_image_tags 全量构建；关联/取消关联/删除标签/删除图片时在事务提交后增量维护，
+ * 并按 rebuild-minutes 定期全量重建，修正其他实例写入造成的偏差。
+ * 未构建完成(或图片 ID 超出 int 范围)时 isReady() 为 false，调用方应回退到数据库查询
+ */
+@Component
+@Slf4j
+public class GalleryTagIndex {
+
+    private final GalleryImageTagRepository galleryImageTagRepository;
+    private final GalleryImageRepository galleryImageRepository;
+
+    private final Map<Long, RoaringBitmap> imagesByTag = new HashMap<>();
+    private final RoaringBitmap activeImages = new RoaringBitmap();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 重建期间提交的增量修改(写锁保护)，不在重建时为 null
+     * 重建读取数据库与替换位图之间提交的修改可能没有被读到，替换前在新位图上重放一遍；
+     * 修改都是集合的增删，重放已经读到的修改不影响结果
+     */
+    private List<IndexUpdate> pendingUpdates;
+
+    /** 索引内容变化后通知的监听器(如标签目录刷新每个标签的图片数) */
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean ready = false;
+    private volatile long lastRebuildMillis = 0;
+    private volatile long lastRebuildDurationMillis = 0;
+
+    private final long rebuildMinutes;
+    private final ScheduledExecutorService rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "gallery-tag-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public GalleryTagIndex(GalleryImageTagRepository galleryImageTagRepository,
+                           GalleryImageRepository galleryImageRepository,
+                           @Value("${gallery.tag-index.rebuild-minutes:10}") long rebuildMinutes) {
+        this.galleryImageTagRepository = galleryImageTagRepository;
+        this.galleryImageRepository = galleryImageRepository;
+        this.rebuildMinutes = rebuildMinutes;
+    }
+
+    /**
+     * 应用启动完成后全量构建索引，并开始定期重建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuild();
+        if (rebuildMinutes > 0) {
+            rebuilder.scheduleWithFixedDelay(this::rebuild, rebuildMinutes, rebuildMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * 从数据库全量构建索引
+     * 在锁外读取数据并构建新位图，最后一次性替换，重建期间查询不受影响；
+     * 重建期间的增量修改先记录下来，替换前在新位图上重放
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingUpdates = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            RoaringBitmap active = new RoaringBitmap();
+            for (Long imageId : galleryImageRepository.findActiveIds()) {
+                active.add(toInt(imageId));
+            }
+            Map<Long, RoaringBitmap> byTag = new HashMap<>();
+            for (Object[] row : galleryImageTagRepository.findAllTagImagePairs()) {
+                byTag.computeIfAbsent((Long) row[0], id -> new RoaringBitmap()).add(toInt((Long) row[1]));
+            }
+            active.runOptimize();
+            byTag.values().forEach(RoaringBitmap::runOptimize);
+
+            lock.writeLock().lock();
+            try {
+                for (IndexUpdate update : pendingUpdates) {
+                    update.apply(byTag, active);
+                }
+                pendingUpdates = null;
+                activeImages.clear();
+                activeImages.or(active);
+                imagesByTag.clear();
+                imagesByTag.putAll(byTag);
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            lastRebuildMillis = System.currentTimeMillis();
+            lastRebuildDurationMillis = lastRebuildMillis - start;
+            log.info("Gallery tag index built: {} tags, {} active images in {} ms",
+                byTag.size(), active.getCardinality(), lastRebuildDurationMillis);
+            notifyChanged();
+        } catch (ArithmeticException e) {
+            ready = false;
+            log.error("Gallery tag index disabled: image id exceeds int range");
+        } catch (Exception e) {
+            log.error("Failed to build gallery tag index: {}", e.getMessage());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingUpdates = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * 索引是否可用
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 注册索引变化监听器，在写入线程上释放写锁后调用，监听器应只做轻量工作
+     */
+    public void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    // ==================== 增量维护(事务提交后生效) ====================
+
+    /**
+     * 新增图片-标签关联
+     */
+    public void addAssociations(Long imageId, Collection<Long> tagIds) {
+        afterCommit(() -> write((byTag, active) -> {
+            int id = toInt(imageId);
+            for (Long tagId : tagIds) {
+                byTag.computeIfAbsent(tagId, key -> new RoaringBitmap()).add(id);
+            }
+        }));
+    }
+
+    /**
+     * 删除图片-标签关联
+     */
+    public void removeAssociations(Long imageId, Collection<Long> tagIds) {
+        afterCommit(() -> write((byTag, active) -> {
+            int id = toInt(imageId);
+            for (Long tagId : tagIds) {
+                RoaringBitmap images = byTag.get(tagId);
+                if (images != null) {
+                    images.remove(id);
+                }
+            }
+        }));
+    }
+
+    /**
+     * 删除标签(同时删除它的所有关联)
+     */
+    public void removeTag(Long tagId) {
+        afterCommit(() -> write((byTag, active) -> byTag.remove(tagId)));
+    }
+
+    /**
+     * 图片新增或恢复为未删除
+     */
+    public void addImage(Long imageId) {
+        afterCommit(() -> write((byTag, active) -> active.add(toInt(imageId))));
+    }
+
+    /**
+     * 图片被删除或禁用(同时删除它的所有关联)
+     */
+    public void removeImage(Long imageId) {
+        afterCommit(() -> write((byTag, active) -> {
+            int id = toInt(imageId);
+            active.remove(id);
+            for (RoaringBitmap images : byTag.values()) {
+                images.remove(id);
+            }
+        }));
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 图片是否带有标签
+     */
+    public boolean contains(Long imageId, Long tagId) {
+        return read(() -> {
+            RoaringBitmap images = imagesByTag.get(tagId);
+            return images != null && images.contains(toInt(imageId));
+        });
+    }
+
+    /**
+     * 带有标签的图片 ID(升序)
+     */
+    public List<Long> imageIds(Long tagId) {
+        return read(() -> {
+            RoaringBitmap images = imagesByTag.get(tagId);
+            if (images == null) {
+                return List.of();
+            }
+            List<Long> result = new ArrayList<>(images.getCardinality());
+            images.forEach((int id) -> result.add((long) id));
+            return result;
+        });
+    }
+
+    /**
+     * 每个标签的图片数(标签云使用)，没有图片的标签不出现
+     */
+    public Map<Long, Integer> tagCounts() {
+        return read(() -> {
+            Map<Long, Integer> result = new HashMap<>();
+            imagesByTag.forEach((tagId, images) -> {
+                int count = RoaringBitmap.andCardinality(images, activeImages);
+                if (count > 0) {
+                    result.put(tagId, count);
+                }
+            });
+            return result;
+        });
+    }
+
+    /**
+     * 满足标签表达式的未删除图片数
+     *
+     * @param allTags 必须同时带有的标签(AND)
+     * @param anyTags 至少带有其中一个的标签(OR)
+     * @param notTags 不能带有的标签
+     */
+    public long count(Collection<Long> allTags, Collection<Long> anyTags, Collection<Long> notTags) {
+        return read(() -> evaluate(allTags, anyTags, notTags).getLongCardinality());
+    }
+
+    /**
+     * 满足标签表达式的未删除图片 ID 位图(副本)
+     */
+    public RoaringBitmap match(Collection<Long> allTags, Collection<Long> anyTags, Collection<Long> notTags) {
+        return read(() -> evaluate(allTags, anyTags, notTags));
+    }
+
+    /**
+     * 索引统计
+     */
+    public Map<String, Object> snapshot() {
+        return read(() -> {
+            long associations = 0;
+            long sizeInBytes = activeImages.getLongSizeInBytes();
+            for (RoaringBitmap images : imagesByTag.values()) {
+                associations += images.getLongCardinality();
+                sizeInBytes += images.getLongSizeInBytes();
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("ready", ready);
+            result.put("tags", imagesByTag.size());
+            result.put("activeImages", activeImages.getLongCardinality());
+            result.put("associations", associations);
+            result.put("sizeInBytes", sizeInBytes);
+            result.put("lastRebuildMillis", lastRebuildMillis);
+            result.put("lastRebuildDurationMillis", lastRebuildDurationMillis);
+            return result;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    /**
+     * 在读锁内计算表达式，返回新位图，不修改索引中的位图
+     */
+    private RoaringBitmap evaluate(Collection<Long> allTags, Collection<Long> anyTags, Collection<Long> notTags) {
+        List<RoaringBitmap> operands = new ArrayList<>();
+        operands.add(activeImages);
+        if (allTags != null) {
+            for (Long tagId : new LinkedHashSet<>(allTags)) {
+                RoaringBitmap images = imagesByTag.get(tagId);
+                if (images == null) {
+                    return new RoaringBitmap();
+                }
+                operands.add(images);
+            }
+        }
+        if (anyTags != null && !anyTags.isEmpty()) {
+            operands.add(union(anyTags));
+        }
+
+        RoaringBitmap result = operands.size() == 1
+            ? activeImages.clone()
+            : FastAggregation.and(operands.iterator());
+        if (notTags != null && !notTags.isEmpty()) {
+            result.andNot(union(notTags));
+        }
+        return result;
+    }
+
+    private RoaringBitmap union(Collection<Long> tagIds) {
+        List<RoaringBitmap> bitmaps = new ArrayList<>(tagIds.size());
+        for (Long tagId : tagIds) {
+            RoaringBitmap images = imagesByTag.get(tagId);
+            if (images != null) {
+                bitmaps.add(images);
+            }
+        }
+        return FastAggregation.or(bitmaps.iterator());
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 在写锁内修改当前索引；正在重建时同时记录下来，供替换前重放
+     */
+    private void write(IndexUpdate update) {
+        lock.writeLock().lock();
+        try {
+            if (pendingUpdates != null) {
+                pendingUpdates.add(update);
+            }
+            update.apply(imagesByTag, activeImages);
+        } catch (ArithmeticException e) {
+            ready = false;
+            log.error("Gallery tag index disabled: image id exceeds int range");
+        } finally {
+            lock.writeLock().unlock();
+        }
+        notifyChanged();
+    }
+
+    private void notifyChanged() {
+        for (Runnable listener : changeListeners) {
+            try {
+                listener.run();
+            } catch (Exception e) {
+                log.warn("Gallery tag index listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 有事务时在提交后执行，回滚的修改不会进入索引；没有事务时立即执行
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 对索引的一次增量修改，作用于给定的位图，既可以修改当前索引，也可以在重建出的新位图上重放
+     */
+    @FunctionalInterface
+    private interface IndexUpdate {
+        void apply(Map<Long, RoaringBitmap> imagesByTag, RoaringBitmap activeImages);
+    }
+
+    /**
+     * RoaringBitmap 存放 32 位整数，图片 ID 超出范围时索引停用
+     */
+    private static int toInt(Long id) {
+        return Math.toIntExact(id);
+    }
+}
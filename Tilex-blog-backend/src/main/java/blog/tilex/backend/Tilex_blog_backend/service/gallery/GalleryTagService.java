@@ -3,12 +3,15 @@ package blog.tilex.backend.Tilex_blog_backend.service.gallery;
 import blog.tilex.backend.Tilex_blog_backend.config.GalleryConfig;
 import blog.tilex.backend.Tilex_blog_backend.repository.GalleryImageTagRepository;
 import blog.tilex.backend.Tilex_blog_backend.repository.GalleryTagRepository;
+import blog.tilex.backend.Tilex_blog_backend.dto.common.ResourceVersion;
 import blog.tilex.backend.Tilex_blog_backend.dto.gallery.TagCreateItem;
+import blog.tilex.backend.Tilex_blog_backend.dto.gallery.TagSuggestionVO;
 import blog.tilex.backend.Tilex_blog_backend.entity.GalleryTag;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.text.Normalizer;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -23,66 +26,91 @@ public class GalleryTagService {
     private final GalleryTagRepository galleryTagRepository;
     private final GalleryImageTagRepository galleryImageTagRepository;
     private final GalleryConfig galleryConfig;
+    private final GalleryTagIndex galleryTagIndex;
+    private final GalleryTagCatalog galleryTagCatalog;
 
     public GalleryTagService(GalleryTagRepository galleryTagRepository,
                             GalleryImageTagRepository galleryImageTagRepository,
-                            GalleryConfig galleryConfig) {
+                            GalleryConfig galleryConfig,
+                            GalleryTagIndex galleryTagIndex,
+                            GalleryTagCatalog galleryTagCatalog) {
         this.galleryTagRepository = galleryTagRepository;
         this.galleryImageTagRepository = galleryImageTagRepository;
         this.galleryConfig = galleryConfig;
+        this.galleryTagIndex = galleryTagIndex;
+        this.galleryTagCatalog = galleryTagCatalog;
     }
 
     /**
      * 根据 ID 查找标签(仅活动的标签)
+     * 以下读取都由内存标签目录提供，不访问数据库
      */
     public Optional<GalleryTag> findTagById(Long tagId) {
-        return galleryTagRepository.findByIdAndIsDeleted(tagId, 0);
+        return galleryTagCatalog.findById(tagId);
     }
 
     /**
      * 根据名称查找标签(仅活务的标签)
      */
     public Optional<GalleryTag> findTagByName(String tagName) {
-        return galleryTagRepository.findByTagNameAndIsDeleted(tagName, 0);
+        return galleryTagCatalog.findByName(tagName);
     }
 
     /**
      * 找到所有活动的标签
      */
     public List<GalleryTag> findAllTags() {
-        return galleryTagRepository.findByIsDeletedOrderBySortOrderAsc(0);
+        return galleryTagCatalog.findAll();
+    }
+
+    /**
+     * 标签列表的版本(用于 ETag)
+     */
+    public ResourceVersion getTagsVersion() {
+        return galleryTagCatalog.version();
     }
 
     /**
      * 根据名称模式云查标签
      */
     public List<GalleryTag> searchTags(String pattern) {
-        return galleryTagRepository.findByTagNameContainingAndIsDeleted(pattern, 0);
+        return galleryTagCatalog.search(pattern);
+    }
+
+    /**
+     * 标签输入联想：名称包含 query 的标签按图片数取前 limit 个(内存 n-gram 索引，不访问数据库)
+     */
+    public List<TagSuggestionVO> suggestTags(String query, int limit) {
+        return galleryTagCatalog.suggest(query, limit);
     }
 
     /**
      * 上司日期创建标签(如果没有的话)
+     * 同名标签已被软删除时恢复它
      */
     @Transactional
     public GalleryTag createOrGetTag(String tagName) {
-        Optional<GalleryTag> existingTag = findTagByName(tagName);
-        if (existingTag.isPresent()) {
-            log.debug("Tag already exists: {}", tagName);
-            return existingTag.get();
+        tagName = normalizeTagName(tagName);
+        // 标签目录中的实体是共享的只读快照，返回副本
+        Optional<GalleryTag> existing = galleryTagCatalog.findByName(tagName);
+        if (existing.isPresent()) {
+            GalleryTag tag = existing.get();
+            return new GalleryTag(tag.getId(), tag.getTagName(), tag.getTagDescription(), tag.getColorCode(),
+                tag.getSortOrder(), tag.getCreatedAt(), tag.getUpdatedAt(), tag.getIsDeleted());
         }
 
-        GalleryTag tag = new GalleryTag();
-        tag.setTagName(tagName);
-        tag.setColorCode("#999999");
-        tag.setIsDeleted(0);
-
-        GalleryTag savedTag = galleryTagRepository.save(tag);
-        log.info("Tag created: {}", tagName);
-        return savedTag;
+        GalleryTag tag = upsertTags(List.of(newTag(tagName))).get(tagName);
+        if (tag == null) {
+            throw new IllegalStateException("Tag could not be resolved: " + tagName);
+        }
+        log.debug("Tag resolved: {} -> {}", tagName, tag.getId());
+        return tag;
     }
 
     /**
-     * 根据名称获取或创建一个标签
+     * 根据名称获取或创建一组标签
+     * 全部已在标签目录中时不访问数据库；否则一条 INSERT ... ON DUPLICATE KEY UPDATE 加一条
+     * SELECT ... WHERE tag_name IN (...)，返回的 ID 与传入的名称一一对应
      */
     @Transactional
     public List<Long> getOrCreateTagIds(List<String> tagNames) {
@@ -90,14 +118,33 @@ public class GalleryTagService {
             return new ArrayList<>();
         }
 
-        return tagNames.stream()
-            .map(this::createOrGetTag)
-            .map(GalleryTag::getId)
-            .collect(Collectors.toList());
+        Map<String, GalleryTag> tags = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        Map<String, GalleryTag> requested = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        List<String> names = tagNames.stream().map(GalleryTagService::normalizeTagName).collect(Collectors.toList());
+        for (String tagName : names) {
+            Optional<GalleryTag> existing = galleryTagCatalog.findByName(tagName);
+            if (existing.isPresent()) {
+                tags.put(tagName, existing.get());
+            } else {
+                requested.putIfAbsent(tagName, newTag(tagName));
+            }
+        }
+        tags.putAll(upsertTags(requested.values()));
+
+        List<Long> tagIds = new ArrayList<>(names.size());
+        for (String tagName : names) {
+            GalleryTag tag = tags.get(tagName);
+            if (tag == null) {
+                throw new IllegalStateException("Tag could not be resolved: " + tagName);
+            }
+            tagIds.add(tag.getId());
+        }
+        return tagIds;
     }
 
     /**
      * 批量创建标签
+     * 已存在的(未删除)标签跳过，已软删除的同名标签按本次的描述、颜色和排序恢复
      */
     @Transactional
     public Map<String, Object> batchCreateTags(List<TagCreateItem> tagItems) {
@@ -110,36 +157,42 @@ public class GalleryTagService {
                 "Cannot create more than " + galleryConfig.getBatchMaxLimit() + " tags at once");
         }
 
-        List<GalleryTag> createdTags = new ArrayList<>();
         List<String> errors = new ArrayList<>();
-        int skipCount = 0;
-
+        Map<String, TagCreateItem> itemsByName = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
         for (TagCreateItem item : tagItems) {
-            try {
-                // Check if tag already exists
-                if (galleryTagRepository.existsByTagNameAndIsDeleted(item.getTagName(), 0)) {
-                    skipCount++;
-                    log.debug("Tag already exists, skipping: {}", item.getTagName());
-                    continue;
-                }
-
-                GalleryTag tag = new GalleryTag();
-                tag.setTagName(item.getTagName());
-                tag.setTagDescription(item.getTagDescription());
-                tag.setColorCode(item.getColorCode() != null ? item.getColorCode() : "#999999");
-                tag.setSortOrder(item.getSortOrder() != null ? item.getSortOrder() : 0);
-                tag.setIsDeleted(0);
-
-                GalleryTag savedTag = galleryTagRepository.save(tag);
-                createdTags.add(savedTag);
-                log.debug("Tag created: {}", item.getTagName());
-
-            } catch (Exception e) {
-                errors.add(item.getTagName() + ": " + e.getMessage());
-                log.error("Error creating tag {}: {}", item.getTagName(), e.getMessage());
+            String tagName = normalizeTagName(item.getTagName());
+            if (tagName == null || tagName.isEmpty()) {
+                errors.add(item.getTagName() + ": Tag name cannot be empty");
+                continue;
             }
+            itemsByName.putIfAbsent(tagName, item);
         }
 
+        // 标签目录只用于区分新建和跳过；并发创建的同名标签仍由唯一索引保证只有一行
+        List<GalleryTag> toCreate = new ArrayList<>();
+        for (Map.Entry<String, TagCreateItem> entry : itemsByName.entrySet()) {
+            TagCreateItem item = entry.getValue();
+            if (galleryTagCatalog.findByName(entry.getKey()).isPresent()) {
+                log.debug("Tag already exists, skipping: {}", entry.getKey());
+                continue;
+            }
+            GalleryTag tag = newTag(entry.getKey());
+            tag.setTagDescription(item.getTagDescription());
+            tag.setColorCode(item.getColorCode() != null ? item.getColorCode() : "#999999");
+            tag.setSortOrder(item.getSortOrder() != null ? item.getSortOrder() : 0);
+            toCreate.add(tag);
+        }
+
+        Map<String, GalleryTag> tags = upsertTags(toCreate);
+        List<GalleryTag> createdTags = new ArrayList<>();
+        for (GalleryTag tag : toCreate) {
+            GalleryTag created = tags.get(tag.getTagName());
+            if (created != null) {
+                createdTags.add(created);
+            }
+        }
+        int skipCount = tagItems.size() - errors.size() - createdTags.size();
+
         Map<String, Object> result = new LinkedHashMap<>();
         result.put("createdCount", createdTags.size());
         result.put("skippedCount", skipCount);
@@ -152,6 +205,47 @@ public class GalleryTagService {
         return result;
     }
 
+    /**
+     * 按名称写入标签并读回，返回的 Map 按名称查找时不区分大小写
+     * tag_name 列的排序规则还会把重音不同、末尾空格不同的名称视为相同，这类名称会命中已有的行，
+     * 读回的名称与传入的不一致，此时按名称逐个查询，由数据库按同样的规则比较
+     */
+    private Map<String, GalleryTag> upsertTags(Collection<GalleryTag> tags) {
+        Map<String, GalleryTag> byName = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (tags.isEmpty()) {
+            return byName;
+        }
+        galleryTagRepository.upsertAll(tags);
+        galleryTagCatalog.reloadAfterCommit();
+
+        List<String> names = tags.stream().map(GalleryTag::getTagName).collect(Collectors.toList());
+        for (GalleryTag tag : galleryTagRepository.findByTagNameIn(names)) {
+            byName.put(tag.getTagName(), tag);
+        }
+        for (String name : names) {
+            if (!byName.containsKey(name)) {
+                galleryTagRepository.findByTagName(name).ifPresent(tag -> byName.put(name, tag));
+            }
+        }
+        return byName;
+    }
+
+    /**
+     * 去掉首尾空白并统一为 NFC 形式，避免同一名称因输入方式不同而写出多个标签
+     */
+    private static String normalizeTagName(String tagName) {
+        return tagName == null ? null : Normalizer.normalize(tagName.trim(), Normalizer.Form.NFC);
+    }
+
+    private GalleryTag newTag(String tagName) {
+        if (tagName == null || tagName.isEmpty()) {
+            throw new IllegalArgumentException("Tag name cannot be empty");
+        }
+        GalleryTag tag = new GalleryTag();
+        tag.setTagName(tagName);
+        return tag;
+    }
+
     /**
      * 刪除标签(软删除)
      */
@@ -165,6 +259,8 @@ public class GalleryTagService {
 
         // Also delete all associations
         galleryImageTagRepository.deleteByTagId(tagId);
+        galleryTagIndex.removeTag(tagId);
+        galleryTagCatalog.reloadAfterCommit();
 
         log.info("Tag deleted (soft): {}", tagId);
     }
@@ -173,17 +269,27 @@ public class GalleryTagService {
      * 获取活动标签数
      */
     public long getTagCount() {
-        List<GalleryTag> tags = galleryTagRepository.findByIsDeletedOrderBySortOrderAsc(0);
-        return tags.size();
+        return galleryTagCatalog.count();
     }
 
     /**
      * 获取与标签关联的图片
      */
     public List<Long> getImagesByTag(Long tagId) {
+        if (galleryTagIndex.isReady()) {
+            return galleryTagIndex.imageIds(tagId);
+        }
         return galleryImageTagRepository.findImageIdsByTagId(tagId);
     }
 
+    /**
+     * 每个标签的图片数(标签云使用)，没有图片的标签不出现
+     * 从标签目录读取，不执行 COUNT 查询
+     */
+    public Map<Long, Integer> getTagImageCounts() {
+        return galleryTagCatalog.imageCountsByTag();
+    }
+
     /**
      * 获取图片的标签
      */
@@ -0,0 +1,255 @@
+package blog.tilex.backend.Tilex_blog_backend.service.gallery;
+
+import blog.tilex.backend.Tilex_blog_backend.dto.gallery.URLComponents;
+import blog.tilex.backend.Tilex_blog_backend.entity.GalleryImage;
+import blog.tilex.backend.Tilex_blog_backend.utils.gallery.ContentHash;
+import blog.tilex.backend.Tilex_blog_backend.utils.gallery.FileValidator;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量上传流水线
+ * 每个文件依次经过 校验 -> 计算内容哈希 -> 上传 -> 获取签名URL 四个阶段，不同文件之间并行执行，
+ * 因此一个文件在等待签名时，其他文件可以同时校验或上传
+ *
+ * 内容已存在的文件(图库中已有，或本批次中已出现过)在哈希阶段之后直接结束，不再上传
+ *
+ * 所有批次共用一个有界线程池，并发数由 gallery.upload.concurrency 控制，避免压垮 AList
+ */
+@Service
+@Slf4j
+public class GalleryUploadPipeline {
+
+    /** 阶段名称 */
+    public static final String STAGE_VALIDATE = "validate";
+    public static final String STAGE_HASH = "hash";
+    public static final String STAGE_UPLOAD = "upload";
+    public static final String STAGE_SIGN = "sign";
+
+    private final AlistService alistService;
+    private final FileValidator fileValidator;
+    private final GalleryImageService galleryImageService;
+    private final ThreadPoolExecutor executor;
+
+    public GalleryUploadPipeline(AlistService alistService,
+                                 FileValidator fileValidator,
+                                 GalleryImageService galleryImageService,
+                                 @Value("${gallery.upload.concurrency:4}") int concurrency) {
+        this.alistService = alistService;
+        this.fileValidator = fileValidator;
+        this.galleryImageService = galleryImageService;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            concurrency, concurrency,
+            60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "gallery-upload-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.executor.allowCoreThreadTimeOut(true);
+        log.info("Gallery upload pipeline started with concurrency {}", concurrency);
+    }
+
+    /**
+     * 并行上传一批文件，等待全部完成后返回
+     * 单个文件失败不会中断其他文件，失败原因记录在对应的 FileUpload 中
+     *
+     * @param files 要上传的文件
+     * @return 与 files 顺序一致的上传结果
+     */
+    public BatchUpload uploadAll(MultipartFile[] files) {
+        long start = System.nanoTime();
+
+        // 本批次中每个内容哈希最先完成哈希计算的文件位置(不一定是最小的位置)
+        Map<String, Integer> firstIndexByHash = new ConcurrentHashMap<>();
+
+        List<CompletableFuture<FileUpload>> futures = new ArrayList<>(files.length);
+        for (int i = 0; i < files.length; i++) {
+            final int index = i;
+            futures.add(CompletableFuture.supplyAsync(
+                () -> uploadOne(index, files[index], firstIndexByHash), executor));
+        }
+
+        List<FileUpload> uploads = new ArrayList<>(files.length);
+        for (CompletableFuture<FileUpload> future : futures) {
+            uploads.add(future.join());
+        }
+
+        BatchUpload batch = new BatchUpload();
+        batch.setUploads(uploads);
+        batch.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        batch.setStageLatency(summarize(uploads));
+
+        log.info("Batch upload pipeline finished: {} files in {} ms, stages: {}",
+            files.length, batch.getElapsedMillis(), batch.getStageLatency());
+        return batch;
+    }
+
+    /**
+     * 单个文件的完整流程，异常不会抛出，而是记录到结果中
+     */
+    private FileUpload uploadOne(int index, MultipartFile file, Map<String, Integer> firstIndexByHash) {
+        FileUpload upload = new FileUpload();
+        upload.setIndex(index);
+        upload.setOriginalFilename(file != null ? file.getOriginalFilename() : "unknown");
+
+        String stage = STAGE_VALIDATE;
+        try {
+            long begin = System.nanoTime();
+            fileValidator.validate(file);
+            upload.setValidateNanos(System.nanoTime() - begin);
+
+            // 读取 Multipart 已保存在本地的内容计算哈希，不经过网络
+            stage = STAGE_HASH;
+            begin = System.nanoTime();
+            String contentHash;
+            try (InputStream in = file.getInputStream()) {
+                contentHash = ContentHash.sha256(in);
+            }
+            upload.setContentHash(contentHash);
+            Integer firstIndex = firstIndexByHash.putIfAbsent(contentHash, index);
+            if (firstIndex != null) {
+                upload.setDuplicateOfIndex(firstIndex);
+            } else {
+                galleryImageService.findImageByContentHash(contentHash)
+                    .map(GalleryImage::getId)
+                    .ifPresent(upload::setExistingImageId);
+            }
+            upload.setHashNanos(System.nanoTime() - begin);
+            if (upload.isDuplicate()) {
+                log.info("File {} ({}) already exists, skipping upload", index, file.getOriginalFilename());
+                return upload;
+            }
+
+            stage = STAGE_UPLOAD;
+            begin = System.nanoTime();
+            log.debug("Uploading file {} to AList: {}", index, file.getOriginalFilename());
+            String fullPath = alistService.putFile(file);
+            upload.setUploadNanos(System.nanoTime() - begin);
+
+            stage = STAGE_SIGN;
+            begin = System.nanoTime();
+            String imageUrl = alistService.getSignedUrl(fullPath);
+            upload.setSignNanos(System.nanoTime() - begin);
+
+            upload.setImageUrl(imageUrl);
+            upload.setComponents(alistService.parseUrl(imageUrl));
+            log.debug("File {} uploaded to AList successfully", index);
+        } catch (Exception e) {
+            // 没有消息的异常(如 NullPointerException)也必须记为失败，否则会被当作成功保存
+            upload.setError(e.getMessage() != null ? e.getMessage() : e.toString());
+            upload.setFailedStage(stage);
+            log.error("Error uploading file {} at stage {}: {}", index, stage, upload.getError(), e);
+        }
+        return upload;
+    }
+
+    /**
+     * 统计每个阶段的次数、平均耗时和最大耗时(毫秒)
+     */
+    private Map<String, Object> summarize(List<FileUpload> uploads) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put(STAGE_VALIDATE, stageStats(uploads.stream().mapToLong(FileUpload::getValidateNanos).toArray()));
+        result.put(STAGE_HASH, stageStats(uploads.stream().mapToLong(FileUpload::getHashNanos).toArray()));
+        result.put(STAGE_UPLOAD, stageStats(uploads.stream().mapToLong(FileUpload::getUploadNanos).toArray()));
+        result.put(STAGE_SIGN, stageStats(uploads.stream().mapToLong(FileUpload::getSignNanos).toArray()));
+        return result;
+    }
+
+    private Map<String, Object> stageStats(long[] nanos) {
+        long count = 0;
+        long total = 0;
+        long max = 0;
+        for (long value : nanos) {
+            // 0 表示该阶段没有执行(前面的阶段已失败)
+            if (value > 0) {
+                count++;
+                total += value;
+                max = Math.max(max, value);
+            }
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("count", count);
+        stats.put("avgMillis", count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(total / count));
+        stats.put("maxMillis", TimeUnit.NANOSECONDS.toMillis(max));
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 一批文件的上传结果
+     */
+    @Data
+    public static class BatchUpload {
+        private List<FileUpload> uploads;
+        private long elapsedMillis;
+        private Map<String, Object> stageLatency;
+
+        /**
+         * 是否全部成功
+         */
+        public boolean isAllSucceeded() {
+            return uploads.stream().allMatch(FileUpload::isSucceeded);
+        }
+    }
+
+    /**
+     * 单个文件的上传结果
+     */
+    @Data
+    public static class FileUpload {
+        private int index;
+        private String originalFilename;
+        private String imageUrl;
+        private URLComponents components;
+        /** 原图内容的 SHA-256 */
+        private String contentHash;
+        /** 内容与图库中已有图片相同时，该图片的 ID(此时不上传) */
+        private Long existingImageId;
+        /**
+         * 内容与本批次中另一个文件相同时，该文件的位置(此时不上传)
+         * 由并行的哈希阶段谁先完成决定，引用的位置可能大于自身
+         */
+        private Integer duplicateOfIndex;
+        private String error;
+        private String failedStage;
+        private long validateNanos;
+        private long hashNanos;
+        private long uploadNanos;
+        private long signNanos;
+
+        public boolean isSucceeded() {
+            return error == null && failedStage == null;
+        }
+
+        /**
+         * 是否因内容已存在而跳过了上传
+         */
+        public boolean isDuplicate() {
+            return existingImageId != null || duplicateOfIndex != null;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package blog.tilex.backend.Tilex_blog_backend.service.gallery;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 图片衍生尺寸生成
+ * 把原图解码一次，按配置的宽度缩放出多个版本(列表缩略图、响应式 srcset)；由后台任务调用，不占用上传请求
+ *
+ * 只使用 JDK 自带的 ImageIO：不透明图片编码为 JPEG，带透明通道的编码为 PNG
+ * (ImageIO 没有 WebP 编码器)。ImageIO 无法解码的格式(SVG、WebP 等)不生成衍生尺寸
+ */
+@Service
+@Slf4j
+public class ImageDerivativeService {
+
+    public static final String FORMAT_JPEG = "jpeg";
+    public static final String FORMAT_PNG = "png";
+
+    private final int[] widths;
+    private final float jpegQuality;
+    private final long maxDecodedPixels;
+
+    public ImageDerivativeService(@Value("${gallery.variants.widths:320,800,1600}") int[] widths,
+                                  @Value("${gallery.variants.jpeg-quality:0.82}") float jpegQuality,
+                                  @Value("${gallery.variants.max-decoded-pixels:40000000}") long maxDecodedPixels) {
+        this.widths = Arrays.stream(widths).filter(width -> width > 0).sorted().distinct().toArray();
+        this.jpegQuality = jpegQuality;
+        this.maxDecodedPixels = maxDecodedPixels;
+    }
+
+    /**
+     * 生成衍生尺寸
+     * 只生成比原图窄的版本；无法解码时返回空列表，不影响原图上传
+     *
+     * @param in   原图内容(不负责关闭)
+     * @param name 原图名称，仅用于日志
+     * @return 按宽度升序排列的衍生尺寸
+     * @throws IOException 如果读取或编码失败
+     */
+    public List<Derivative> generate(InputStream in, String name) throws IOException {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            if (iis == null) {
+                return List.of();
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                log.debug("No ImageIO reader for {}, skipping variants", name);
+                return List.of();
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+
+                int[] targets = Arrays.stream(widths).filter(width -> width < sourceWidth).toArray();
+                if (targets.length == 0) {
+                    return List.of();
+                }
+
+                // 解码时按行列跳采样，使解码结果不超过最大目标宽度的两倍，大图不必完整解码到内存
+                int step = Math.max(1, sourceWidth / (targets[targets.length - 1] * 2));
+                long decodedPixels = (long) (sourceWidth / step) * (sourceHeight / step);
+                if (decodedPixels > maxDecodedPixels) {
+                    log.warn("Image {} too large to derive variants: {}x{}",
+                        name, sourceWidth, sourceHeight);
+                    return List.of();
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                BufferedImage decoded = reader.read(0, param);
+                return derive(decoded, targets);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 从大到小依次缩放，每个尺寸以上一个尺寸为源，避免每次都从原图缩放
+     */
+    private List<Derivative> derive(BufferedImage decoded, int[] targets) throws IOException {
+        boolean alpha = decoded.getColorModel().hasAlpha();
+        String format = alpha ? FORMAT_PNG : FORMAT_JPEG;
+
+        List<Derivative> derivatives = new ArrayList<>(targets.length);
+        BufferedImage source = decoded;
+        for (int i = targets.length - 1; i >= 0; i--) {
+            int width = targets[i];
+            int height = Math.max(1, (int) Math.round((double) decoded.getHeight() * width / decoded.getWidth()));
+            source = scale(source, width, height, alpha);
+            derivatives.add(0, new Derivative(width, height, format, encode(source, format)));
+        }
+        return derivatives;
+    }
+
+    /**
+     * 逐级减半后再缩放到目标尺寸，双线性插值在大比例缩小时也能保持清晰
+     */
+    private BufferedImage scale(BufferedImage source, int width, int height, boolean alpha) {
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            if (currentWidth == width) {
+                currentHeight = height;
+            }
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (currentWidth > width);
+        return current;
+    }
+
+    private byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (FORMAT_PNG.equals(format)) {
+            ImageIO.write(image, FORMAT_PNG, out);
+            return out.toByteArray();
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(FORMAT_JPEG).next();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 一个衍生尺寸
+     *
+     * @param width  宽度
+     * @param height 高度
+     * @param format jpeg 或 png
+     * @param data   编码后的文件内容
+     */
+    public record Derivative(int width, int height, String format, byte[] data) {
+
+        /**
+         * 文件扩展名
+         */
+        public String extension() {
+            return FORMAT_JPEG.equals(format) ? "jpg" : format;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package blog.tilex.backend.Tilex_blog_backend.service.gallery;
+
+import blog.tilex.backend.Tilex_blog_backend.entity.GalleryTag;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 标签名称的 n-gram 倒排索引(不可变，随标签目录快照一起构建)
+ * 每个名称转为小写后按码点切分出所有单字和相邻两字(bigram)，每个 gram 对应包含它的标签下标(升序)。
+ * 子串查询取查询词所有 bigram 的倒排表求交集得到候选，再用 contains 校验；
+ * 按码点切分，中日韩文字同样适用
+ */
+final class TagNameIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final List<GalleryTag> tags;
+    private final String[] names;
+    private final Map<String, int[]> postings;
+
+    /**
+     * @param tags 已排序的标签，查询结果按这个顺序给出下标
+     */
+    TagNameIndex(List<GalleryTag> tags) {
+        this.tags = tags;
+        this.names = new String[tags.size()];
+
+        Map<String, List<Integer>> building = new HashMap<>();
+        for (int i = 0; i < tags.size(); i++) {
+            names[i] = normalize(tags.get(i).getTagName());
+            for (String gram : grams(names[i])) {
+                List<Integer> list = building.computeIfAbsent(gram, key -> new ArrayList<>());
+                // 同一名称中重复的 gram 只记录一次
+                if (list.isEmpty() || list.get(list.size() - 1) != i) {
+                    list.add(i);
+                }
+            }
+        }
+
+        Map<String, int[]> result = new HashMap<>(building.size() * 2);
+        building.forEach((gram, list) -> result.put(gram, list.stream().mapToInt(Integer::intValue).toArray()));
+        this.postings = result;
+    }
+
+    /**
+     * 名称包含 query(不区分大小写)的标签，按构建时的顺序
+     */
+    List<GalleryTag> search(String query) {
+        String needle = normalize(query);
+        if (needle.isEmpty()) {
+            return tags;
+        }
+        List<GalleryTag> result = new ArrayList<>();
+        for (int i : candidates(needle)) {
+            if (names[i].contains(needle)) {
+                result.add(tags.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 候选下标：单字查询直接取倒排表，多字查询对所有 bigram 的倒排表求交集(从最短的开始)
+     */
+    private int[] candidates(String needle) {
+        List<String> grams = needle.codePointCount(0, needle.length()) == 1
+            ? List.of(needle) : bigrams(needle);
+
+        int[][] lists = new int[grams.size()][];
+        for (int i = 0; i < grams.size(); i++) {
+            int[] list = postings.get(grams.get(i));
+            if (list == null) {
+                return EMPTY;
+            }
+            lists[i] = list;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+
+        int[] result = lists[0];
+        for (int i = 1; i < lists.length && result.length > 0; i++) {
+            result = intersect(result, lists[i]);
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static List<String> grams(String name) {
+        int[] codePoints = name.codePoints().toArray();
+        List<String> result = new ArrayList<>(codePoints.length * 2);
+        for (int i = 0; i < codePoints.length; i++) {
+            result.add(new String(codePoints, i, 1));
+            if (i + 1 < codePoints.length) {
+                result.add(new String(codePoints, i, 2));
+            }
+        }
+        return result;
+    }
+
+    private static List<String> bigrams(String needle) {
+        int[] codePoints = needle.codePoints().toArray();
+        List<String> result = new ArrayList<>(codePoints.length - 1);
+        for (int i = 0; i + 1 < codePoints.length; i++) {
+            result.add(new String(codePoints, i, 2));
+        }
+        return result;
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
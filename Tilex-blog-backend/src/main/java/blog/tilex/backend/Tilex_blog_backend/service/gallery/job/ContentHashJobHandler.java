@@ -0,0 +1,58 @@
+package blog.tilex.backend.Tilex_blog_backend.service.gallery.job;
+
+import blog.tilex.backend.Tilex_blog_backend.entity.GalleryImage;
+import blog.tilex.backend.Tilex_blog_backend.entity.GalleryJob;
+import blog.tilex.backend.Tilex_blog_backend.repository.GalleryImageRepository;
+import blog.tilex.backend.Tilex_blog_backend.service.gallery.AlistService;
+import blog.tilex.backend.Tilex_blog_backend.utils.gallery.ContentHash;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * 为历史图片回填内容哈希的后台任务
+ * 从 AList 流式读取原图计算 SHA-256；已有其他图片使用同一哈希时只记录日志，不合并已存在的重复图片
+ */
+@Component
+@Slf4j
+public class ContentHashJobHandler implements GalleryJobHandler {
+
+    public static final String JOB_TYPE = "content-hash";
+
+    private final GalleryImageRepository galleryImageRepository;
+    private final AlistService alistService;
+
+    public ContentHashJobHandler(GalleryImageRepository galleryImageRepository,
+                                 AlistService alistService) {
+        this.galleryImageRepository = galleryImageRepository;
+        this.alistService = alistService;
+    }
+
+    @Override
+    public String jobType() {
+        return JOB_TYPE;
+    }
+
+    @Override
+    public void handle(GalleryJob job) throws Exception {
+        GalleryImage image = galleryImageRepository.findById(job.getImageId()).orElse(null);
+        if (image == null || image.getContentHash() != null) {
+            return;
+        }
+
+        String fullPath = alistService.toStoragePath(image.getAlistPath());
+        String hash = alistService.download(fullPath, response -> ContentHash.sha256(response.getBody()));
+
+        Optional<GalleryImage> existing = galleryImageRepository.findByContentHash(hash);
+        if (existing.isPresent()) {
+            log.warn("Image {} has the same content as image {}, leaving its hash empty",
+                image.getId(), existing.get().getId());
+            return;
+        }
+
+        image.setContentHash(hash);
+        galleryImageRepository.save(image);
+        log.debug("Content hash computed for image {}", image.getId());
+    }
+}
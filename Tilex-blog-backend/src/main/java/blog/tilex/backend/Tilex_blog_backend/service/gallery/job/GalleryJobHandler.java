@@ -0,0 +1,25 @@
+package blog.tilex.backend.Tilex_blog_backend.service.gallery.job;
+
+import blog.tilex.backend.Tilex_blog_backend.entity.GalleryJob;
+
+/**
+ * 画廊后台任务处理器
+ *
+ * 任务可能因为超时、实例重启或重试被执行多次，实现必须是幂等的：
+ * 重复执行的结果应与执行一次相同(例如覆盖写同一路径、先删后插)
+ */
+public interface GalleryJobHandler {
+
+    /**
+     * 处理的任务类型
+     */
+    String jobType();
+
+    /**
+     * 执行任务，抛出异常表示失败并按退避时间重试
+     *
+     * @param job 任务
+     * @throws Exception 处理失败
+     */
+    void handle(GalleryJob job) throws Exception;
+}
@@ -0,0 +1,261 @@
+package blog.tilex.backend.Tilex_blog_backend.service.gallery.job;
+
+import blog.tilex.backend.Tilex_blog_backend.entity.GalleryJob;
+import blog.tilex.backend.Tilex_blog_backend.repository.GalleryJobRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 画廊后台任务队列
+ * 任务持久化在 gallery_jobs 表中，应用重启不会丢失；认领使用 SELECT ... FOR UPDATE SKIP LOCKED，
+ * 所以可以有任意多个实例同时消费，处理能力随实例数增加
+ */
+@Service
+@Slf4j
+public class GalleryJobService {
+
+    private static final List<String> UNFINISHED = List.of(GalleryJob.STATUS_PENDING, GalleryJob.STATUS_RUNNING);
+
+    /** 失败原因最多保存的长度 */
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final GalleryJobRepository galleryJobRepository;
+    private final int maxAttempts;
+    private final Duration backoffBase;
+    private final Duration backoffMax;
+    private final Duration lease;
+    private final Duration retention;
+
+    public GalleryJobService(GalleryJobRepository galleryJobRepository,
+                             @Value("${gallery.jobs.max-attempts:5}") int maxAttempts,
+                             @Value("${gallery.jobs.backoff-base-seconds:10}") long backoffBaseSeconds,
+                             @Value("${gallery.jobs.backoff-max-seconds:3600}") long backoffMaxSeconds,
+                             @Value("${gallery.jobs.lease-seconds:600}") long leaseSeconds,
+                             @Value("${gallery.jobs.retention-days:7}") long retentionDays) {
+        this.galleryJobRepository = galleryJobRepository;
+        this.maxAttempts = maxAttempts;
+        this.backoffBase = Duration.ofSeconds(backoffBaseSeconds);
+        this.backoffMax = Duration.ofSeconds(backoffMaxSeconds);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.retention = Duration.ofDays(retentionDays);
+    }
+
+    /**
+     * 提交任务
+     * 同一图片已有同类型的未完成任务时不重复提交
+     *
+     * @param jobType 任务类型
+     * @param imageId 图片 ID
+     * @return 是否新建了任务
+     */
+    @Transactional
+    public boolean enqueue(String jobType, Long imageId) {
+        if (galleryJobRepository.existsByJobTypeAndImageIdAndStatusIn(jobType, imageId, UNFINISHED)) {
+            log.debug("Job {} for image {} already queued", jobType, imageId);
+            return false;
+        }
+        GalleryJob job = new GalleryJob();
+        job.setJobType(jobType);
+        job.setImageId(imageId);
+        job.setMaxAttempts(maxAttempts);
+        galleryJobRepository.save(job);
+        log.debug("Job {} queued for image {}: {}", jobType, imageId, job.getId());
+        return true;
+    }
+
+    /**
+     * 为一批图片提交同类型任务，在一个事务中完成，去重只需要一次查询
+     *
+     * @param jobType  任务类型
+     * @param imageIds 图片 ID
+     * @return 新建的任务数
+     */
+    @Transactional
+    public int enqueueAll(String jobType, Collection<Long> imageIds) {
+        if (imageIds.isEmpty()) {
+            return 0;
+        }
+        Set<Long> queued = new HashSet<>(galleryJobRepository.findQueuedImageIds(jobType, imageIds, UNFINISHED));
+        List<GalleryJob> jobs = new ArrayList<>();
+        for (Long imageId : new LinkedHashSet<>(imageIds)) {
+            if (queued.contains(imageId)) {
+                continue;
+            }
+            GalleryJob job = new GalleryJob();
+            job.setJobType(jobType);
+            job.setImageId(imageId);
+            job.setMaxAttempts(maxAttempts);
+            jobs.add(job);
+        }
+        galleryJobRepository.saveAll(jobs);
+        log.debug("{} {} jobs queued", jobs.size(), jobType);
+        return jobs.size();
+    }
+
+    /**
+     * 认领一批到期任务并标记为执行中
+     * 行锁只在本事务内持有，提交后其他实例看到的状态已经是 RUNNING
+     *
+     * @param workerId 工作实例标识
+     * @param limit    最多认领的数量
+     * @return 认领到的任务
+     */
+    @Transactional
+    public List<GalleryJob> claim(String workerId, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<GalleryJob> jobs = galleryJobRepository.lockDueJobs(now, limit);
+        for (GalleryJob job : jobs) {
+            job.setStatus(GalleryJob.STATUS_RUNNING);
+            job.setAttempts(job.getAttempts() + 1);
+            job.setLockedBy(workerId);
+            job.setLockedAt(now);
+        }
+        return galleryJobRepository.saveAll(jobs);
+    }
+
+    /**
+     * 标记任务完成
+     * 只有任务仍由该实例持有时才生效；租期已过、任务已被放回队列或由其他实例认领时忽略
+     *
+     * @param jobId    任务 ID
+     * @param workerId 认领任务的实例标识
+     * @return 是否更新了任务状态
+     */
+    @Transactional
+    public boolean complete(Long jobId, String workerId) {
+        return galleryJobRepository.lockOwnedJob(jobId, workerId).map(job -> {
+            job.setStatus(GalleryJob.STATUS_DONE);
+            job.setLockedBy(null);
+            job.setLockedAt(null);
+            job.setLastError(null);
+            return true;
+        }).orElseGet(() -> {
+            log.warn("Job {} is no longer held by {}, completion ignored", jobId, workerId);
+            return false;
+        });
+    }
+
+    /**
+     * 标记任务失败：未超过最大次数时按指数退避重新排队，否则标记为 FAILED
+     * 与 {@link #complete} 一样只对仍由该实例持有的任务生效
+     *
+     * @param jobId    任务 ID
+     * @param workerId 认领任务的实例标识
+     * @param error    失败原因
+     * @return 是否更新了任务状态
+     */
+    @Transactional
+    public boolean fail(Long jobId, String workerId, String error) {
+        return galleryJobRepository.lockOwnedJob(jobId, workerId).map(job -> {
+            job.setLockedBy(null);
+            job.setLockedAt(null);
+            job.setLastError(truncateError(error));
+            if (job.getAttempts() >= job.getMaxAttempts()) {
+                job.setStatus(GalleryJob.STATUS_FAILED);
+                log.error("Job {} ({}, image {}) failed permanently after {} attempts: {}",
+                    job.getId(), job.getJobType(), job.getImageId(), job.getAttempts(), error);
+            } else {
+                Duration delay = backoff(job.getAttempts());
+                job.setStatus(GalleryJob.STATUS_PENDING);
+                job.setRunAt(LocalDateTime.now().plus(delay));
+                log.warn("Job {} ({}, image {}) failed, retrying in {}s: {}",
+                    job.getId(), job.getJobType(), job.getImageId(), delay.toSeconds(), error);
+            }
+            return true;
+        }).orElseGet(() -> {
+            log.warn("Job {} is no longer held by {}, failure ignored: {}", jobId, workerId, error);
+            return false;
+        });
+    }
+
+    /**
+     * 手动重试失败的任务(重置执行次数)
+     *
+     * @throws IllegalArgumentException 如果任务不存在或不是 FAILED 状态
+     */
+    @Transactional
+    public void retry(Long jobId) {
+        GalleryJob job = galleryJobRepository.findById(jobId)
+            .orElseThrow(() -> new IllegalArgumentException("Job not found: " + jobId));
+        if (!GalleryJob.STATUS_FAILED.equals(job.getStatus())) {
+            throw new IllegalArgumentException("Only failed jobs can be retried");
+        }
+        job.setStatus(GalleryJob.STATUS_PENDING);
+        job.setAttempts(0);
+        job.setRunAt(LocalDateTime.now());
+    }
+
+    /**
+     * 维护：释放租期已过的任务，清理过期的已完成任务
+     */
+    @Transactional
+    public void maintain() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiredBefore = now.minus(lease);
+        int exhausted = galleryJobRepository.failExpired(expiredBefore,
+            "Lease expired after the last attempt (worker crashed or timed out)", now);
+        if (exhausted > 0) {
+            log.error("Failed {} gallery jobs whose lease expired on their last attempt", exhausted);
+        }
+        int released = galleryJobRepository.releaseExpired(expiredBefore, now);
+        if (released > 0) {
+            log.warn("Released {} gallery jobs whose lease expired", released);
+        }
+        int purged = galleryJobRepository.purgeDone(now.minus(retention));
+        if (purged > 0) {
+            log.info("Purged {} finished gallery jobs", purged);
+        }
+    }
+
+    /**
+     * 队列统计(所有实例共享)：各状态数量、最早待执行任务的等待时间、最近 1/5 分钟完成数
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> queueStats() {
+        Map<String, Object> byStatus = new LinkedHashMap<>();
+        for (String status : List.of(GalleryJob.STATUS_PENDING, GalleryJob.STATUS_RUNNING,
+                GalleryJob.STATUS_DONE, GalleryJob.STATUS_FAILED)) {
+            byStatus.put(status, 0L);
+        }
+        for (Object[] row : galleryJobRepository.countByStatus()) {
+            byStatus.put((String) row[0], row[1]);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime oldestPending = galleryJobRepository.findOldestPendingRunAt();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("depth", byStatus);
+        result.put("oldestPendingSeconds", oldestPending == null
+            ? 0 : Math.max(0, Duration.between(oldestPending, now).toSeconds()));
+        result.put("completedLastMinute",
+            galleryJobRepository.countByStatusAndUpdatedAtAfter(GalleryJob.STATUS_DONE, now.minusMinutes(1)));
+        result.put("completedLast5Minutes",
+            galleryJobRepository.countByStatusAndUpdatedAtAfter(GalleryJob.STATUS_DONE, now.minusMinutes(5)));
+        result.put("recentFailures", galleryJobRepository.findTop20ByStatusOrderByUpdatedAtDesc(GalleryJob.STATUS_FAILED));
+        return result;
+    }
+
+    private String truncateError(String error) {
+        return error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    private Duration backoff(int attempts) {
+        long multiplier = 1L << Math.min(attempts - 1, 20);
+        Duration delay = backoffBase.multipliedBy(multiplier);
+        return delay.compareTo(backoffMax) > 0 ? backoffMax : delay;
+    }
+}
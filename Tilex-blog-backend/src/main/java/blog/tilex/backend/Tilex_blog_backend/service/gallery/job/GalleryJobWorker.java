@@ -0,0 +1,160 @@
+package blog.tilex.backend.Tilex_blog_backend.service.gallery.job;
+
+import blog.tilex.backend.Tilex_blog_backend.entity.GalleryJob;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 画廊后台任务工作线程
+ * 定时从队列认领任务，交给固定大小的线程池执行；一次最多认领与空闲线程数相同的任务，
+ * 认领到的任务不会在本地排队，其余任务留给其他实例
+ */
+@Component
+@Slf4j
+public class GalleryJobWorker {
+
+    /** 每隔多少次轮询做一次维护(释放过期租约、清理旧任务) */
+    private static final int MAINTAIN_EVERY_POLLS = 60;
+
+    private final GalleryJobService galleryJobService;
+    private final Map<String, GalleryJobHandler> handlers = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final int workers;
+    private final long pollIntervalMs;
+    private final String workerId;
+
+    private final Semaphore freeWorkers;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService poller;
+    private int polls;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder handleNanos = new LongAdder();
+
+    public GalleryJobWorker(GalleryJobService galleryJobService,
+                            List<GalleryJobHandler> handlerList,
+                            @Value("${gallery.jobs.enabled:true}") boolean enabled,
+                            @Value("${gallery.jobs.workers:2}") int workers,
+                            @Value("${gallery.jobs.poll-interval-ms:1000}") long pollIntervalMs) {
+        this.galleryJobService = galleryJobService;
+        for (GalleryJobHandler handler : handlerList) {
+            handlers.put(handler.jobType(), handler);
+        }
+        this.enabled = enabled;
+        this.workers = workers;
+        this.pollIntervalMs = pollIntervalMs;
+        this.workerId = ManagementFactory.getRuntimeMXBean().getName();
+
+        this.freeWorkers = new Semaphore(workers);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "gallery-job-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gallery-job-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 应用启动完成后开始轮询
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Gallery job worker disabled on this instance");
+            return;
+        }
+        poller.scheduleWithFixedDelay(this::poll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Gallery job worker {} started: {} workers, handlers {}", workerId, workers, handlers.keySet());
+    }
+
+    private void poll() {
+        try {
+            if (++polls % MAINTAIN_EVERY_POLLS == 0) {
+                galleryJobService.maintain();
+            }
+
+            int free = freeWorkers.availablePermits();
+            if (free == 0) {
+                return;
+            }
+            List<GalleryJob> jobs = galleryJobService.claim(workerId, free);
+            for (GalleryJob job : jobs) {
+                freeWorkers.acquireUninterruptibly();
+                executor.execute(() -> run(job));
+            }
+        } catch (Exception e) {
+            // 数据库暂时不可用等情况，下次轮询再试
+            log.error("Error polling gallery jobs: {}", e.getMessage());
+        }
+    }
+
+    private void run(GalleryJob job) {
+        long start = System.nanoTime();
+        try {
+            GalleryJobHandler handler = handlers.get(job.getJobType());
+            if (handler == null) {
+                throw new IllegalStateException("No handler for job type " + job.getJobType());
+            }
+            handler.handle(job);
+            galleryJobService.complete(job.getId(), workerId);
+            completed.increment();
+            log.debug("Job {} ({}, image {}) done", job.getId(), job.getJobType(), job.getImageId());
+        } catch (Exception e) {
+            failed.increment();
+            try {
+                galleryJobService.fail(job.getId(), workerId, e.getClass().getSimpleName() + ": " + e.getMessage());
+            } catch (Exception recordError) {
+                // 记录失败本身也失败时，任务会在租期过后被重新放回队列
+                log.error("Error recording failure of job {}: {}", job.getId(), recordError.getMessage());
+            }
+        } finally {
+            handleNanos.add(System.nanoTime() - start);
+            freeWorkers.release();
+        }
+    }
+
+    /**
+     * 本实例的工作线程统计
+     */
+    public Map<String, Object> snapshot() {
+        long done = completed.sum();
+        long errors = failed.sum();
+        long total = done + errors;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("workerId", workerId);
+        result.put("enabled", enabled);
+        result.put("workers", workers);
+        result.put("busyWorkers", workers - freeWorkers.availablePermits());
+        result.put("completed", done);
+        result.put("failed", errors);
+        result.put("avgMillisPerJob", total == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(handleNanos.sum() / total));
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+        executor.shutdown();
+    }
+}
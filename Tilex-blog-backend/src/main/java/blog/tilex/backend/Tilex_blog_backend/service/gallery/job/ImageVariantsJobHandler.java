@@ -0,0 +1,79 @@
+package blog.tilex.backend.Tilex_blog_backend.service.gallery.job;
+
+import blog.tilex.backend.Tilex_blog_backend.entity.GalleryImage;
+import blog.tilex.backend.Tilex_blog_backend.entity.GalleryImageVariant;
+import blog.tilex.backend.Tilex_blog_backend.entity.GalleryJob;
+import blog.tilex.backend.Tilex_blog_backend.repository.GalleryImageRepository;
+import blog.tilex.backend.Tilex_blog_backend.service.gallery.AlistService;
+import blog.tilex.backend.Tilex_blog_backend.service.gallery.GalleryImageService;
+import blog.tilex.backend.Tilex_blog_backend.service.gallery.ImageDerivativeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 生成图片衍生尺寸的后台任务
+ * 从 AList 读取原图，生成各宽度版本并上传到原图旁边，最后替换数据库中的衍生尺寸记录
+ *
+ * 幂等：衍生尺寸的存储路径由原图路径和宽度决定，重复执行会覆盖同一文件；数据库记录先删后插
+ */
+@Component
+@Slf4j
+public class ImageVariantsJobHandler implements GalleryJobHandler {
+
+    public static final String JOB_TYPE = "image-variants";
+
+    private final GalleryImageRepository galleryImageRepository;
+    private final GalleryImageService galleryImageService;
+    private final AlistService alistService;
+    private final ImageDerivativeService imageDerivativeService;
+
+    public ImageVariantsJobHandler(GalleryImageRepository galleryImageRepository,
+                                   GalleryImageService galleryImageService,
+                                   AlistService alistService,
+                                   ImageDerivativeService imageDerivativeService) {
+        this.galleryImageRepository = galleryImageRepository;
+        this.galleryImageService = galleryImageService;
+        this.alistService = alistService;
+        this.imageDerivativeService = imageDerivativeService;
+    }
+
+    @Override
+    public String jobType() {
+        return JOB_TYPE;
+    }
+
+    @Override
+    public void handle(GalleryJob job) throws Exception {
+        GalleryImage image = galleryImageRepository.findById(job.getImageId()).orElse(null);
+        if (image == null) {
+            log.warn("Image {} no longer exists, skipping variants", job.getImageId());
+            return;
+        }
+
+        String fullPath = alistService.toStoragePath(image.getAlistPath());
+        List<ImageDerivativeService.Derivative> derivatives = alistService.download(fullPath,
+            response -> imageDerivativeService.generate(response.getBody(), fullPath));
+
+        List<GalleryImageVariant> variants = new ArrayList<>(derivatives.size());
+        for (ImageDerivativeService.Derivative derivative : derivatives) {
+            String variantPath = alistService.putVariant(
+                fullPath, derivative.width(), derivative.extension(), derivative.data());
+            String variantUrl = alistService.getSignedUrl(variantPath);
+
+            GalleryImageVariant variant = new GalleryImageVariant();
+            variant.setWidth(derivative.width());
+            variant.setHeight(derivative.height());
+            variant.setFormat(derivative.format());
+            variant.setFileSize((long) derivative.data().length);
+            variant.setImageUrl(variantUrl);
+            variant.setAlistPath(alistService.parseUrl(variantUrl).getPath());
+            variants.add(variant);
+        }
+
+        galleryImageService.replaceVariants(image.getId(), variants);
+        log.info("Generated {} variants for image {}", variants.size(), image.getId());
+    }
+}
@@ -2,23 +2,56 @@ package blog.tilex.backend.Tilex_blog_backend.service.impl;
 
 import blog.tilex.backend.Tilex_blog_backend.dao.PostDao;
 import blog.tilex.backend.Tilex_blog_backend.dto.*;
+import blog.tilex.backend.Tilex_blog_backend.dto.common.ResourceVersion;
 import blog.tilex.backend.Tilex_blog_backend.entity.Post;
+import blog.tilex.backend.Tilex_blog_backend.entity.PostSummary;
 import blog.tilex.backend.Tilex_blog_backend.service.ArticleService;
+import blog.tilex.backend.Tilex_blog_backend.service.cache.CacheInvalidationChannel;
+import blog.tilex.backend.Tilex_blog_backend.service.cache.WeightedLruCache;
+import blog.tilex.backend.Tilex_blog_backend.service.search.ArticleSearchIndex;
+import blog.tilex.backend.Tilex_blog_backend.service.search.SearchMetrics;
+import blog.tilex.backend.Tilex_blog_backend.service.search.SnippetBuilder;
+import blog.tilex.backend.Tilex_blog_backend.utils.CursorPageResult;
+import blog.tilex.backend.Tilex_blog_backend.utils.MarkdownSummary;
 import blog.tilex.backend.Tilex_blog_backend.utils.PageResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * 文章服务实现类
+ * 对外注入的是带缓存的 {@link CachingArticleService}，本类只负责数据库读写
  */
 @Service
 @Slf4j
@@ -27,32 +60,74 @@ public class ArticleServiceImpl implements ArticleService {
     @Autowired
     private PostDao postDao;
 
+    @Autowired
+    private ArticleSearchIndex articleSearchIndex;
+
+    @Autowired
+    private SearchMetrics searchMetrics;
+
+    @Autowired
+    private CacheInvalidationChannel cacheInvalidationChannel;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // ==================== 配置参数 ====================
 
-    /** 高亮HTML标签 */
-    private static final String HIGHLIGHT_PREFIX = "<span class='markdown-highlight'>";
-    private static final String HIGHLIGHT_SUFFIX = "</span>";
+    /** 搜索最多返回的文章数量(与原 SQL 的 LIMIT 50 保持一致) */
+    private static final int MAX_SEARCH_RESULTS = 50;
+
+    /** 批量插入时每条 INSERT 语句包含的行数 */
+    private static final int BATCH_INSERT_SIZE = 500;
+
+    /** 历史摘要回填时每次读取和更新的文章数(需要读取全文，不宜过大) */
+    private static final int SUMMARY_BACKFILL_CHUNK_SIZE = 100;
+
+    /** 导出时每写出多少行刷新一次输出流 */
+    private static final int EXPORT_FLUSH_INTERVAL = 1000;
+
+    /** 导入结果中最多返回的错误行数(失败数仍完整统计) */
+    private static final int MAX_IMPORT_ERRORS = 100;
+
+    /** 条件计数缓存有效期(毫秒)，文章写入时会立即失效 */
+    private static final long COUNT_CACHE_TTL_MS = 60_000;
+
+    /** 历史摘要回填在后台线程执行，不推迟应用就绪 */
+    private final ExecutorService summaryBackfiller = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "article-summary-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** 条件计数缓存最多保存的条件数(title 来自客户端的任意输入，必须有上限) */
+    private static final int COUNT_CACHE_MAX_ENTRIES = 1000;
 
-    /** 每个片段包含的上下文字符数 */
-    private static final int SNIPPET_CONTEXT_LENGTH = 20;
+    /** 条件计数缓存：key = title|status，超过上限时淘汰最久未访问的条件 */
+    private final WeightedLruCache<String, CachedCount> countCache =
+            new WeightedLruCache<>(COUNT_CACHE_MAX_ENTRIES, count -> 1);
 
-    /** 最多返回的片段数量 */
-    private static final int MAX_SNIPPETS = 5;
+    /**
+     * 其他实例写入文章时同样让计数缓存失效
+     */
+    @PostConstruct
+    public void subscribeInvalidation() {
+        cacheInvalidationChannel.subscribe(invalidation -> countCache.invalidateAll());
+    }
 
     /**
      * 获取所有文章（不分页）
-     * 业务逻辑：1.查询数据库 2.转换为VO 3.处理状态名称
+     * 业务逻辑：1.查询数据库(只读摘要，不读全文) 2.转换为VO 3.处理状态名称
      */
     @Override
-    public List<ArticleVO> getAllArticles() {
+    public List<ArticleSummaryVO> getAllArticles() {
         log.info("查询所有文章");
 
         // 1. 查询所有文章
-        List<Post> posts = postDao.selectAll();
+        List<PostSummary> posts = postDao.selectAllSummaries();
 
         // 2. 转换为 VO 列表
-        List<ArticleVO> articleVOS = posts.stream()
-                .map(this::convertToVO)
+        List<ArticleSummaryVO> articleVOS = posts.stream()
+                .map(this::convertToSummaryVO)
                 .collect(Collectors.toList());
 
         log.info("查询到 {} 篇文章", articleVOS.size());
@@ -64,7 +139,7 @@ public class ArticleServiceImpl implements ArticleService {
      * 业务逻辑：1.构建分页对象 2.条件查询 3.转换结果
      */
     @Override
-    public PageResult<ArticleVO> getArticleList(ArticleQueryDTO queryDTO) {
+    public PageResult<ArticleSummaryVO> getArticleList(ArticleQueryDTO queryDTO) {
         log.info("分页查询文章，参数: {}", queryDTO);
 
         // 1. 计算分页参数
@@ -73,7 +148,7 @@ public class ArticleServiceImpl implements ArticleService {
         int offset = (pageNum - 1) * pageSize;
 
         // 2. 执行条件查询分页
-        List<Post> postList = postDao.selectArticlesByCondition(
+        List<PostSummary> postList = postDao.selectArticlesByCondition(
                 offset,
                 pageSize,
                 queryDTO.getTitle(),
@@ -82,19 +157,16 @@ public class ArticleServiceImpl implements ArticleService {
                 queryDTO.getSortOrder()
         );
 
-        // 3. 查询总记录数
-        int total = postDao.countArticlesByCondition(
-                queryDTO.getTitle(),
-                queryDTO.getStatus()
-        );
+        // 3. 查询总记录数(带缓存，翻页时不重复 COUNT)
+        long total = countArticles(queryDTO.getTitle(), queryDTO.getStatus());
 
         // 4. 转换为 VO 列表
-        List<ArticleVO> articleVOS = postList.stream()
-                .map(this::convertToVO)
+        List<ArticleSummaryVO> articleVOS = postList.stream()
+                .map(this::convertToSummaryVO)
                 .collect(Collectors.toList());
 
         // 5. 构建分页结果
-        PageResult<ArticleVO> result = new PageResult<>(
+        PageResult<ArticleSummaryVO> result = new PageResult<>(
                 total,
                 pageNum,
                 pageSize,
@@ -105,6 +177,94 @@ public class ArticleServiceImpl implements ArticleService {
         return result;
     }
 
+    /**
+     * 游标分页查询文章列表
+     * 业务逻辑：1.解析游标 2.多取一条判断是否有下一页 3.生成下一页游标 4.按需统计总数
+     */
+    @Override
+    public CursorPageResult<ArticleSummaryVO> getArticleListByCursor(ArticleQueryDTO queryDTO) {
+        log.info("游标分页查询文章，参数: {}", queryDTO);
+
+        // 1. 解析游标
+        int pageSize = queryDTO.getPageSize();
+        boolean ascending = "asc".equals(queryDTO.getSortOrder());
+        LocalDateTime afterCreatedAt = null;
+        Integer afterId = null;
+        if (StringUtils.hasText(queryDTO.getAfter())) {
+            String[] parts = queryDTO.getAfter().split(",");
+            try {
+                afterCreatedAt = LocalDateTime.parse(parts[0].trim());
+                afterId = Integer.valueOf(parts[1].trim());
+            } catch (ArrayIndexOutOfBoundsException | DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("游标格式错误: " + queryDTO.getAfter());
+            }
+        }
+
+        // 2. 多取一条，用来判断是否还有下一页
+        List<PostSummary> postList = postDao.selectArticlesAfter(
+                afterCreatedAt,
+                afterId,
+                pageSize + 1,
+                queryDTO.getTitle(),
+                queryDTO.getStatus(),
+                ascending
+        );
+        boolean hasMore = postList.size() > pageSize;
+        if (hasMore) {
+            postList = postList.subList(0, pageSize);
+        }
+
+        // 3. 转换为 VO 列表并生成下一页游标
+        List<ArticleSummaryVO> articleVOS = postList.stream()
+                .map(this::convertToSummaryVO)
+                .collect(Collectors.toList());
+        String nextCursor = null;
+        if (hasMore) {
+            PostSummary last = postList.get(postList.size() - 1);
+            nextCursor = last.getCreatedAt() + "," + last.getId();
+        }
+
+        CursorPageResult<ArticleSummaryVO> result = new CursorPageResult<>(articleVOS, pageSize, hasMore, nextCursor);
+
+        // 4. 总数是可选的，且走缓存
+        if (Boolean.TRUE.equals(queryDTO.getWithTotal())) {
+            result.setTotal(countArticles(queryDTO.getTitle(), queryDTO.getStatus()));
+        }
+
+        log.info("游标分页查询到 {} 篇文章，hasMore={}", articleVOS.size(), hasMore);
+        return result;
+    }
+
+    /**
+     * 统计满足条件的文章数，结果缓存 COUNT_CACHE_TTL_MS
+     */
+    private long countArticles(String title, Integer status) {
+        String key = (title == null ? "" : title) + "|" + status;
+        long now = System.currentTimeMillis();
+        Function<String, CachedCount> loader = k -> new CachedCount(
+                postDao.countArticlesByCondition(title, status), now + COUNT_CACHE_TTL_MS);
+
+        CachedCount cached = countCache.get(key, loader);
+        if (cached.expireAt <= now) {
+            countCache.invalidate(key);
+            cached = countCache.get(key, loader);
+        }
+        return cached.count;
+    }
+
+    /**
+     * 缓存的计数值
+     */
+    private static class CachedCount {
+        final long count;
+        final long expireAt;
+
+        CachedCount(long count, long expireAt) {
+            this.count = count;
+            this.expireAt = expireAt;
+        }
+    }
+
 
 
     /**
@@ -122,11 +282,25 @@ public class ArticleServiceImpl implements ArticleService {
         return convertToVO(post);
     }
 
+    @Override
+    public ResourceVersion getArticlesVersion() {
+        return postDao.selectVersion();
+    }
+
+    @Override
+    public ResourceVersion getArticleVersion(int id) {
+        LocalDateTime updatedAt = postDao.selectUpdatedAtById(id);
+        if (updatedAt == null) {
+            return null;
+        }
+        return new ResourceVersion(1L, updatedAt, (long) id);
+    }
+
     /**
      * Entity 转换为 VO
-     * 私有方法：处理数据转换和额外字段
+     * 处理数据转换和额外字段(包可见，供基准测试调用)
      */
-    private ArticleVO convertToVO(Post post) {
+    ArticleVO convertToVO(Post post) {
         ArticleVO vo = new ArticleVO();
         BeanUtils.copyProperties(post, vo);
 
@@ -136,6 +310,63 @@ public class ArticleServiceImpl implements ArticleService {
         return vo;
     }
 
+    /**
+     * 列表投影转换为 VO
+     */
+    private ArticleSummaryVO convertToSummaryVO(PostSummary summary) {
+        ArticleSummaryVO vo = new ArticleSummaryVO();
+        BeanUtils.copyProperties(summary, vo);
+        vo.setStatusName(getStatusName(summary.getStatus()));
+        return vo;
+    }
+
+    /**
+     * 根据内容计算摘要和字数，写入前调用
+     */
+    private void fillSummary(Post post) {
+        post.setExcerpt(MarkdownSummary.excerpt(post.getContent()));
+        post.setWordCount(MarkdownSummary.wordCount(post.getContent()));
+    }
+
+    /**
+     * 启动时为历史文章回填摘要和字数
+     * 新写入的文章在 createArticle/updateArticle 中已经计算好，这里只处理 excerpt 为空的旧数据；
+     * 在后台线程中按 id 分块读取，每块一条 UPDATE，内存中最多只有一块文章的全文
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillSummaries() {
+        summaryBackfiller.execute(this::backfillSummaryChunks);
+    }
+
+    private void backfillSummaryChunks() {
+        int afterId = 0;
+        int total = 0;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Post> posts = postDao.selectWithoutSummary(afterId, SUMMARY_BACKFILL_CHUNK_SIZE);
+                if (posts.isEmpty()) {
+                    break;
+                }
+                for (Post post : posts) {
+                    fillSummary(post);
+                }
+                postDao.updateSummaries(posts);
+                total += posts.size();
+                afterId = posts.get(posts.size() - 1).getId();
+            }
+        } catch (Exception e) {
+            log.error("回填文章摘要失败，已回填 {} 篇: {}", total, e.getMessage());
+        }
+        if (total > 0) {
+            log.info("已为 {} 篇历史文章回填摘要", total);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        summaryBackfiller.shutdownNow();
+    }
+
     /**
      * 获取状态名称
      */
@@ -163,23 +394,20 @@ public class ArticleServiceImpl implements ArticleService {
     public ArticleVO createArticle(UploadArticleDTO uploadArticleDTO) {
         log.info("开始创建文章: {}", uploadArticleDTO);
 
-        // DTO -> Entity 转换
-        Post post = new Post();
-        BeanUtils.copyProperties(uploadArticleDTO, post);
-
-        // 设置默认值
-        if (post.getCreatedAt() == null) {
-            post.setCreatedAt(java.time.LocalDateTime.now());
-            post.setUpdatedAt(java.time.LocalDateTime.now());
-        } else {
-            post.setUpdatedAt(post.getCreatedAt());
-        }
+        // DTO -> Entity 转换，设置默认值
+        Post post = toPost(uploadArticleDTO);
 
         // 插入数据到数据库
         postDao.insert(post);
 
         log.info("文章插入成功，ID： {}", post.getId());
 
+        // 同步更新搜索索引(只收录已发布文章)，并让计数缓存失效
+        if (Integer.valueOf(1).equals(post.getStatus())) {
+            articleSearchIndex.index(post);
+        }
+        countCache.invalidateAll();
+
         // 转为 VO 返回给前端
         ArticleVO vo = convertToVO(post);
 
@@ -187,73 +415,386 @@ public class ArticleServiceImpl implements ArticleService {
         return vo;
     }
 
-    // 批量上传文章
-    public List<ArticleVO> createArticles(List<UploadArticleDTO> uploadArticleDTOList) {
-        List<ArticleVO> voList = new ArrayList<>();
+    /**
+     * 批量上传文章
+     * 业务逻辑：
+     * 1. 逐行校验，不合法的行记录错误后跳过
+     * 2. 合法的行按 BATCH_INSERT_SIZE 分块，每块一条多行 INSERT，整体在一个事务内
+     * 3. 某一块插入失败时退回逐行插入，定位具体失败的行
+     * 4. 事务提交后同步索引，统计写入速度
+     */
+    @Override
+    @Transactional
+    public ArticleBatchResultVO createArticles(List<UploadArticleDTO> uploadArticleDTOList) {
+        long start = System.nanoTime();
+        ArticleBatchResultVO result = new ArticleBatchResultVO();
+        result.setTotalCount(uploadArticleDTOList.size());
+
+        // 1. 校验 & 转换
+        List<Post> pending = new ArrayList<>(uploadArticleDTOList.size());
+        List<Integer> pendingIndexes = new ArrayList<>(uploadArticleDTOList.size());
+        for (int i = 0; i < uploadArticleDTOList.size(); i++) {
+            UploadArticleDTO dto = uploadArticleDTOList.get(i);
+            if (dto == null || !StringUtils.hasText(dto.getTitle()) || !StringUtils.hasText(dto.getContent())) {
+                result.getErrors().add(new ArticleBatchResultVO.RowError(
+                        i, dto == null ? null : dto.getTitle(), "标题和内容不能为空"));
+                continue;
+            }
+            pending.add(toPost(dto));
+            pendingIndexes.add(i);
+        }
 
-        for (UploadArticleDTO dto : uploadArticleDTOList) {
-            ArticleVO vo = createArticle(dto); // 循环调用单篇逻辑
-            voList.add(vo);
+        // 2. 分块多行插入
+        List<Post> inserted = new ArrayList<>(pending.size());
+        for (int from = 0; from < pending.size(); from += BATCH_INSERT_SIZE) {
+            int to = Math.min(from + BATCH_INSERT_SIZE, pending.size());
+            inserted.addAll(insertChunk(pending.subList(from, to), pendingIndexes.subList(from, to), result.getErrors()));
         }
+        afterCommit(countCache::invalidateAll);
+
+        long elapsedNanos = System.nanoTime() - start;
+        result.setArticles(inserted.stream().map(this::convertToVO).collect(Collectors.toList()));
+        result.setSuccessCount(inserted.size());
+        result.setFailedCount(result.getErrors().size());
+        result.getErrors().sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        result.setElapsedMillis(elapsedNanos / 1_000_000);
+        result.setRowsPerSecond(elapsedNanos == 0 ? 0 : inserted.size() * 1_000_000_000.0 / elapsedNanos);
+
+        log.info("批量创建文章完成：成功 {} 篇，失败 {} 篇，耗时 {} ms，{} 行/秒",
+                result.getSuccessCount(), result.getFailedCount(), result.getElapsedMillis(),
+                String.format("%.1f", result.getRowsPerSecond()));
+        return result;
+    }
 
-        return voList;
+    /**
+     * 插入一个分块，并在提交后同步搜索索引
+     * 先用一条多行 INSERT 写入；失败时 MySQL 只回滚这条语句，退回逐行插入找出具体失败的行
+     *
+     * @param chunk   待插入的文章
+     * @param indexes 每篇文章在请求中的位置(用于错误定位)
+     * @param errors  失败行追加到这里
+     * @return 成功插入的文章(已回填ID)
+     */
+    private List<Post> insertChunk(List<Post> chunk, List<Integer> indexes, List<ArticleBatchResultVO.RowError> errors) {
+        List<Post> inserted = new ArrayList<>(chunk.size());
+        try {
+            postDao.insertBatch(chunk);
+            inserted.addAll(chunk);
+        } catch (DataAccessException e) {
+            log.warn("批量插入第 {}-{} 行失败，改为逐行插入: {}",
+                    indexes.get(0), indexes.get(indexes.size() - 1), e.getMessage());
+            for (int i = 0; i < chunk.size(); i++) {
+                Post post = chunk.get(i);
+                try {
+                    postDao.insert(post);
+                    inserted.add(post);
+                } catch (DataAccessException rowError) {
+                    errors.add(new ArticleBatchResultVO.RowError(
+                            indexes.get(i), post.getTitle(), rowError.getMostSpecificCause().getMessage()));
+                }
+            }
+        }
+
+        // 索引只收录已发布文章(与启动时全量构建保持一致)；事务提交后再写入，回滚的文章不会被搜到
+        List<Post> published = inserted.stream()
+                .filter(post -> Integer.valueOf(1).equals(post.getStatus()))
+                .collect(Collectors.toList());
+        afterCommit(() -> published.forEach(articleSearchIndex::index));
+        return inserted;
+    }
+
+    /**
+     * 有事务时在提交后执行；没有事务时(如逐块提交的导入)立即执行
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 流式导出
+     * 通过 MyBatis Cursor 逐行读取，读一行写一行，任何时刻内存中只有一篇文章
+     * Cursor 依赖打开的连接，因此整个遍历在只读事务内完成
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportArticles(OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        long count = 0;
+
+        try (Cursor<Post> cursor = postDao.streamAll()) {
+            for (Post post : cursor) {
+                ArticleNdjsonRecord record = new ArticleNdjsonRecord();
+                BeanUtils.copyProperties(post, record);
+
+                out.write(objectMapper.writeValueAsBytes(record));
+                out.write('\n');
+
+                if (++count % EXPORT_FLUSH_INTERVAL == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+
+        log.info("导出文章完成，共 {} 篇，耗时 {} ms", count, System.currentTimeMillis() - start);
+        return count;
+    }
+
+    /**
+     * 流式导入
+     * 业务逻辑：
+     * 1. 逐行读取并解析 NDJSON，空行跳过，解析失败或缺少标题/内容的行记录错误
+     * 2. 每攒够 BATCH_INSERT_SIZE 行写入一次，写完即释放，内存占用与文件大小无关
+     * 3. 每个分块单独提交，中途失败时已写入的分块保留
+     */
+    @Override
+    public ArticleBatchResultVO importArticles(InputStream in) throws IOException {
+        long start = System.nanoTime();
+        ArticleBatchResultVO result = new ArticleBatchResultVO();
+        List<ArticleBatchResultVO.RowError> errors = new ArrayList<>();
+        int total = 0;
+        int success = 0;
+        int failed = 0;
+
+        List<Post> pending = new ArrayList<>(BATCH_INSERT_SIZE);
+        List<Integer> pendingLines = new ArrayList<>(BATCH_INSERT_SIZE);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                total++;
+
+                // 1. 解析单行
+                Post post;
+                try {
+                    post = toPost(objectMapper.readValue(line, ArticleNdjsonRecord.class));
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    failed++;
+                    if (errors.size() < MAX_IMPORT_ERRORS) {
+                        errors.add(new ArticleBatchResultVO.RowError(lineNumber, null, e.getMessage()));
+                    }
+                    continue;
+                }
+                pending.add(post);
+                pendingLines.add(lineNumber);
+
+                // 2. 攒够一块就写入
+                if (pending.size() == BATCH_INSERT_SIZE) {
+                    int written = flushImportChunk(pending, pendingLines, errors);
+                    success += written;
+                    failed += pendingLines.size() - written;
+                    pending.clear();
+                    pendingLines.clear();
+                }
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            int written = flushImportChunk(pending, pendingLines, errors);
+            success += written;
+            failed += pendingLines.size() - written;
+        }
+        countCache.invalidateAll();
+
+        long elapsedNanos = System.nanoTime() - start;
+        result.setTotalCount(total);
+        result.setSuccessCount(success);
+        result.setFailedCount(failed);
+        result.setErrors(errors);
+        result.setElapsedMillis(elapsedNanos / 1_000_000);
+        result.setRowsPerSecond(elapsedNanos == 0 ? 0 : success * 1_000_000_000.0 / elapsedNanos);
+
+        log.info("导入文章完成：共 {} 行，成功 {} 篇，失败 {} 篇，耗时 {} ms，{} 行/秒",
+                total, success, failed, result.getElapsedMillis(), String.format("%.1f", result.getRowsPerSecond()));
+        return result;
+    }
+
+    /**
+     * 写入导入的一个分块，错误行超过上限后只计数不记录
+     *
+     * @return 成功写入的行数
+     */
+    private int flushImportChunk(List<Post> pending, List<Integer> pendingLines,
+                                 List<ArticleBatchResultVO.RowError> errors) {
+        List<ArticleBatchResultVO.RowError> chunkErrors = new ArrayList<>();
+        int written = insertChunk(pending, pendingLines, chunkErrors).size();
+        for (ArticleBatchResultVO.RowError error : chunkErrors) {
+            if (errors.size() >= MAX_IMPORT_ERRORS) {
+                break;
+            }
+            errors.add(error);
+        }
+        return written;
+    }
+
+    /**
+     * 导入记录 -> Entity 转换(忽略ID，缺少状态时按已发布处理)
+     */
+    private Post toPost(ArticleNdjsonRecord record) {
+        if (!StringUtils.hasText(record.getTitle()) || !StringUtils.hasText(record.getContent())) {
+            throw new IllegalArgumentException("标题和内容不能为空");
+        }
+
+        UploadArticleDTO dto = new UploadArticleDTO();
+        BeanUtils.copyProperties(record, dto);
+        Post post = toPost(dto);
+        if (record.getStatus() != null) {
+            post.setStatus(record.getStatus());
+        }
+        if (record.getUpdatedAt() != null) {
+            post.setUpdatedAt(record.getUpdatedAt());
+        }
+        return post;
+    }
+
+    /**
+     * DTO -> Entity 转换
+     * 未指定创建时间时使用当前时间，更新时间与创建时间一致；同时预先计算列表页使用的摘要和字数
+     */
+    private Post toPost(UploadArticleDTO uploadArticleDTO) {
+        Post post = new Post();
+        BeanUtils.copyProperties(uploadArticleDTO, post);
+
+        if (post.getCreatedAt() == null) {
+            post.setCreatedAt(java.time.LocalDateTime.now());
+            post.setUpdatedAt(java.time.LocalDateTime.now());
+        } else {
+            post.setUpdatedAt(post.getCreatedAt());
+        }
+
+        fillSummary(post);
+        return post;
     }
 
     // ==================== 公共方法 ====================
     @Override
-    public List<ArticleSearchVO> searchArticles(String  keyword) {
+    public List<ArticleSearchVO> searchArticles(String keyword, boolean includeContent) {
         // 1. 参数校验
         if (!StringUtils.hasText(keyword)) {
             log.warn("搜索关键词为空");
             return new ArrayList<>();
         }
 
-//        // 2. 去掉首尾空格
-//        keyword = keyword.trim();
-//
-//        // 3. 转为小写，统一搜索
-//        keyword = keyword.toLowerCase();
-//        log.info("开始搜索文章， 关键词: {}", keyword);
-
-        // 4. 数据库查询：返回文章的文章对象
-        List<Post> posts = postDao.searchArticlesByKeyword(keyword);
-        System.out.println(keyword);
-        System.out.println(posts.size());
-        log.info("数据库查询完成，找到 {} 篇文章", posts.size());
+        // 2. 查询命中文章：索引可用时在内存中求交，只回表取最终结果；否则退回数据库 LIKE 查询
+        List<Post> posts;
+        Map<Integer, int[]> matchPositions;
+        boolean fromIndex = articleSearchIndex.isReady()
+                && keyword.length() >= ArticleSearchIndex.MIN_QUERY_LENGTH;
+        if (fromIndex) {
+            List<ArticleSearchIndex.SearchHit> hits = articleSearchIndex.search(keyword, MAX_SEARCH_RESULTS);
+            matchPositions = hits.stream().collect(Collectors.toMap(
+                    ArticleSearchIndex.SearchHit::getId, ArticleSearchIndex.SearchHit::getContentPositions));
+            posts = selectPostsInOrder(hits);
+            log.info("索引查询完成，关键词: {}，找到 {} 篇文章", keyword, posts.size());
+        } else {
+            matchPositions = Collections.emptyMap();
+            posts = postDao.searchArticlesByKeyword(keyword);
+            log.info("数据库查询完成，关键词: {}，找到 {} 篇文章", keyword, posts.size());
+        }
 
-        // 5. VO层处理：提取关键词所在的片段、高亮、封装
-        List<ArticleSearchVO> voList = new ArrayList<>();
+        // 3. VO层处理：根据命中位置截取片段、高亮、封装
+        List<ArticleSearchVO> voList = new ArrayList<>(posts.size());
+        long snippetNanos = 0;
+        int snippetCount = 0;
+        long responseBytes = 0;
         for (Post post : posts) {
-            ArticleSearchVO vo = convertToSearchVO(post, keyword);
+            long begin = System.nanoTime();
+            ArticleSearchVO vo = convertToSearchVO(post, keyword, matchPositions.get(post.getId()), includeContent);
+            snippetNanos += System.nanoTime() - begin;
+            snippetCount += vo.getSnippets().size();
+            responseBytes += SearchMetrics.utf8Length(vo.getTitle())
+                    + SearchMetrics.utf8Length(vo.getSnippets())
+                    + SearchMetrics.utf8Length(vo.getContent());
             voList.add(vo);
         }
+        searchMetrics.record(fromIndex, snippetCount, snippetNanos, responseBytes);
 
-        log.info("Vo封装完成，返回 {} 条搜索", voList.size());
+        log.info("Vo封装完成，返回 {} 条搜索，{} 个片段，片段耗时 {} ns，响应约 {} 字节",
+                voList.size(), snippetCount, snippetNanos, responseBytes);
         return voList;
     }
 
+    @Override
+    public Map<String, Object> getSearchStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(searchMetrics.snapshot());
+        stats.put("indexReady", articleSearchIndex.isReady());
+        stats.put("indexedArticles", articleSearchIndex.size());
+        return stats;
+    }
+
+    @Override
+    public Map<String, Object> getCacheStats() {
+        // 缓存由 CachingArticleService 负责，直接调用本类时没有缓存
+        return Collections.emptyMap();
+    }
+
+    /**
+     * 按索引命中的顺序(创建时间倒序)批量回表
+     */
+    private List<Post> selectPostsInOrder(List<ArticleSearchIndex.SearchHit> hits) {
+        if (hits.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Integer> ids = hits.stream()
+                .map(ArticleSearchIndex.SearchHit::getId)
+                .collect(Collectors.toList());
+        Map<Integer, Post> postById = postDao.selectByIds(ids).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+
+        List<Post> posts = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Post post = postById.get(id);
+            if (post != null) {
+                posts.add(post);
+            }
+        }
+        return posts;
+    }
+
     // ==================== 私有方法 - VO层核心处理逻辑 ====================
 
     /**
      * 将 Article 实体转换为 ArticleSearchVO
      * 核心步骤:
      * 1. 基础字段复制
-     * 2. 标题高亮处理
-     * 3. 从content中提取包含关键词的片段
-     * 4. 片段高亮处理
-     * 5. 判断匹配位置(标题/内容/都匹配)
+     * 2. 根据命中位置截取片段并高亮
+     * 3. 按需附带完整内容
+     *
+     * @param positions      索引给出的内容命中位置，为 null 时对内容做一次线性扫描
+     * @param includeContent 是否返回完整 content
      */
-    private ArticleSearchVO convertToSearchVO(Post post, String keyword) {
+    private ArticleSearchVO convertToSearchVO(Post post, String keyword, int[] positions, boolean includeContent) {
         ArticleSearchVO vo = new ArticleSearchVO();
 
         // 1. 复制基础字段
         vo.setId(post.getId());
         vo.setTitle(post.getTitle());
-        vo.setContent(post.getContent());
+        if (includeContent) {
+            vo.setContent(post.getContent());
+        }
 
-        // 2. 高亮片段
-        List<String> snippets = extractSnippets(post.getContent(), keyword);
-        vo.setSnippets(snippets);
+        // 2. 高亮片段(索引位置与数据库内容不一致时重新扫描)
+        String content = post.getContent();
+        if (positions != null && SnippetBuilder.verifyMatches(content, keyword, positions)) {
+            vo.setSnippets(SnippetBuilder.build(content, positions, keyword.length()));
+        } else {
+            vo.setSnippets(extractSnippets(content, keyword));
+        }
 
         return  vo;
     }
@@ -262,119 +803,20 @@ public class ArticleServiceImpl implements ArticleService {
      * 从文章内容中提取包含关键词的片段
      *
      * 算法步骤:
-     * 1. 使用正则表达式查找所有关键词位置
-     * 2. 对每个位置,提取前后各N个字符作为上下文
-     * 3. 添加省略号"..."
-     * 4. 对关键词进行高亮处理
-     * 5. 最多返回M个片段
+     * 1. 线性扫描一次内容，得到所有关键词位置(不区分大小写)
+     * 2. 对每个位置,提取前后各N个字符作为上下文，并在同一遍写出时插入高亮标签
+     * 3. 最多返回M个片段；没有命中时返回文章开头
      *
      * @param content 完整的文章内容
      * @param keyword 搜索关键词
      * @return 高亮后的片段数组
      */
     private List<String> extractSnippets(String content, String keyword) {
-        List<String> snippets = new ArrayList<>();
-
         if (!StringUtils.hasText(content) || !StringUtils.hasText(keyword)) {
-            return snippets;
-        }
-
-        try {
-            // 转义正则特殊字符
-            String escapedKeyword = Pattern.quote(keyword);
-
-            // 不区分大小写匹配
-            Pattern pattern = Pattern.compile(escapedKeyword, Pattern.CASE_INSENSITIVE);
-            Matcher matcher = pattern.matcher(content);
-
-            int count = 0;
-            while (matcher.find() && count < MAX_SNIPPETS) {
-                int matchStart = matcher.start();
-                int matchEnd = matcher.end();
-
-                // 计算片段起始位置(向前取N个字符)
-                int snippetStart = Math.max(0, matchStart - SNIPPET_CONTEXT_LENGTH);
-
-                // 计算片段结束位置(向后取N个字符)
-                int snippetEnd = Math.min(content.length(), matchEnd + SNIPPET_CONTEXT_LENGTH);
-
-                // 提取片段
-                String snippet = content.substring(snippetStart, snippetEnd);
-
-                // 添加省略号
-                StringBuilder sb = new StringBuilder();
-                if (snippetStart > 0) {
-                    sb.append("...");
-                }
-                sb.append(snippet);
-                if (snippetEnd < content.length()) {
-                    sb.append("...");
-                }
-
-                // 高亮关键词
-                String highlightedSnippet = highlightKeyword(sb.toString(), keyword);
-
-                snippets.add(highlightedSnippet);
-                count++;
-            }
-
-            // 如果没有找到匹配(理论上不会发生,因为数据库已经过滤),返回文章开头
-            if (snippets.isEmpty()) {
-                String preview = content.substring(0, Math.min(content.length(), 150));
-                if (content.length() > 150) {
-                    preview += "...";
-                }
-                snippets.add(preview);
-            }
-
-        } catch (Exception e) {
-            log.error("提取片段失败, keyword: {}", keyword, e);
-            // 降级处理: 返回文章开头
-            String preview = content.substring(0, Math.min(content.length(), 150));
-            if (content.length() > 150) {
-                preview += "...";
-            }
-            snippets.add(preview);
-        }
-
-        return snippets;
-    }
-
-    /**
-     * 关键词高亮处理
-     * 将关键词包裹在 <span class='highlight'> 标签中
-     *
-     * @param text 原始文本
-     * @param keyword 关键词
-     * @return 高亮后的文本
-     */
-    private String highlightKeyword(String text, String keyword) {
-        if (!StringUtils.hasText(text) || !StringUtils.hasText(keyword)) {
-            return text;
-        }
-
-        try {
-            // 转义特殊字符
-            String escapedKeyword = Pattern.quote(keyword);
-
-            // 不区分大小写替换
-            Pattern pattern = Pattern.compile(escapedKeyword, Pattern.CASE_INSENSITIVE);
-            Matcher matcher = pattern.matcher(text);
-
-            StringBuffer sb = new StringBuffer();
-            while (matcher.find()) {
-                // 保留原始大小写
-                String matched = matcher.group();
-                matcher.appendReplacement(sb, HIGHLIGHT_PREFIX + matched + HIGHLIGHT_SUFFIX);
-            }
-            matcher.appendTail(sb);
-
-            return sb.toString();
-
-        } catch (Exception e) {
-            log.error("关键词高亮失败, keyword: {}", keyword, e);
-            return text;
+            return new ArrayList<>();
         }
+        int[] positions = SnippetBuilder.findMatches(content, keyword);
+        return SnippetBuilder.build(content, positions, keyword.length());
     }
 
     /**
@@ -393,7 +835,19 @@ public class ArticleServiceImpl implements ArticleService {
         post.setTitle(dto.getTitle());
         post.setContent(dto.getContent());
         post.setUpdatedAt(java.time.LocalDateTime.now());
+        fillSummary(post);
         int rows = postDao.update(post);
+
+        // 更新成功后按数据库最新状态刷新索引(草稿不进入索引)
+        if (rows > 0) {
+            countCache.invalidateAll();
+            Post latest = postDao.selectById(post.getId());
+            if (latest != null) {
+                articleSearchIndex.index(latest);
+            } else {
+                articleSearchIndex.remove(post.getId());
+            }
+        }
         return rows > 0;  // 返回是否更新成功
     }
 }
@@ -0,0 +1,133 @@
+package blog.tilex.backend.Tilex_blog_backend.service.impl;
+
+import blog.tilex.backend.Tilex_blog_backend.dto.*;
+import blog.tilex.backend.Tilex_blog_backend.dto.common.ResourceVersion;
+import blog.tilex.backend.Tilex_blog_backend.service.ArticleService;
+import blog.tilex.backend.Tilex_blog_backend.service.cache.ArticleCache;
+import blog.tilex.backend.Tilex_blog_backend.utils.CursorPageResult;
+import blog.tilex.backend.Tilex_blog_backend.utils.PageResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 带缓存的文章服务
+ * 包装 ArticleServiceImpl：读请求先查缓存(read-through)，写请求完成后广播失效消息
+ * 搜索走内存索引，不经过这层缓存
+ */
+@Service
+@Primary
+@Slf4j
+public class CachingArticleService implements ArticleService {
+
+    @Autowired
+    private ArticleServiceImpl delegate;
+
+    @Autowired
+    private ArticleCache articleCache;
+
+    @Override
+    public List<ArticleSummaryVO> getAllArticles() {
+        return articleCache.getList("all", delegate::getAllArticles);
+    }
+
+    @Override
+    public PageResult<ArticleSummaryVO> getArticleList(ArticleQueryDTO queryDTO) {
+        String key = "page:" + queryDTO.getTitle()
+                + "|" + queryDTO.getStatus()
+                + "|" + queryDTO.getPageNum()
+                + "|" + queryDTO.getPageSize()
+                + "|" + queryDTO.getSortField()
+                + "|" + queryDTO.getSortOrder();
+        return articleCache.getList(key, () -> delegate.getArticleList(queryDTO));
+    }
+
+    @Override
+    public CursorPageResult<ArticleSummaryVO> getArticleListByCursor(ArticleQueryDTO queryDTO) {
+        String key = "cursor:" + queryDTO.getTitle()
+                + "|" + queryDTO.getStatus()
+                + "|" + queryDTO.getAfter()
+                + "|" + queryDTO.getPageSize()
+                + "|" + queryDTO.getSortOrder()
+                + "|" + queryDTO.getWithTotal();
+        return articleCache.getList(key, () -> delegate.getArticleListByCursor(queryDTO));
+    }
+
+    @Override
+    public ArticleVO getArticleById(int id) {
+        return articleCache.getArticle(id, () -> delegate.getArticleById(id));
+    }
+
+    @Override
+    public ResourceVersion getArticlesVersion() {
+        // 版本探针必须反映数据库当前状态，不走缓存
+        return delegate.getArticlesVersion();
+    }
+
+    @Override
+    public ResourceVersion getArticleVersion(int id) {
+        return delegate.getArticleVersion(id);
+    }
+
+    @Override
+    public ArticleVO createArticle(UploadArticleDTO uploadArticleDTO) {
+        ArticleVO vo = delegate.createArticle(uploadArticleDTO);
+        articleCache.articleCreated();
+        return vo;
+    }
+
+    @Override
+    public ArticleBatchResultVO createArticles(List<UploadArticleDTO> uploadArticleDTOList) {
+        try {
+            return delegate.createArticles(uploadArticleDTOList);
+        } finally {
+            // 中途失败时前面的文章已经写入，同样需要失效
+            articleCache.articleCreated();
+        }
+    }
+
+    @Override
+    public long exportArticles(OutputStream out) throws IOException {
+        return delegate.exportArticles(out);
+    }
+
+    @Override
+    public ArticleBatchResultVO importArticles(InputStream in) throws IOException {
+        try {
+            return delegate.importArticles(in);
+        } finally {
+            articleCache.articleCreated();
+        }
+    }
+
+    @Override
+    public List<ArticleSearchVO> searchArticles(String keyword, boolean includeContent) {
+        return delegate.searchArticles(keyword, includeContent);
+    }
+
+    @Override
+    public Map<String, Object> getSearchStats() {
+        return delegate.getSearchStats();
+    }
+
+    @Override
+    public Map<String, Object> getCacheStats() {
+        return articleCache.snapshot();
+    }
+
+    @Override
+    public boolean updateArticle(Long articleId, UpdateArticleDTO dto) {
+        boolean updated = delegate.updateArticle(articleId, dto);
+        if (updated) {
+            articleCache.articleUpdated(Math.toIntExact(articleId));
+        }
+        return updated;
+    }
+}
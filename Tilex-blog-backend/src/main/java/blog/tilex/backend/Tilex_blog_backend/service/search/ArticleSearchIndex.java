@@ -0,0 +1,349 @@
+package blog.tilex.backend.Tilex_blog_backend.service.search;
+
+import blog.tilex.backend.Tilex_blog_backend.dao.PostDao;
+import blog.tilex.backend.Tilex_blog_backend.entity.Post;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 文章内存倒排索引
+ * 启动时从 posts 表构建，创建/更新文章时增量维护
+ *
+ * 分词方式：文本小写化后逐字符切成二元组(bigram)，中文即常见的 CJK 二元分词；
+ * 英文同样按二元组切分，保证与原先 LIKE '%kw%' 的子串语义一致（"spr" 仍能命中 "Spring"）
+ * 每个二元组记录出现位置，查询时按位置连续性校验，得到精确的命中位置
+ */
+@Component
+@Slf4j
+public class ArticleSearchIndex {
+
+    /** 可以走索引的最短关键词长度(更短的关键词没有二元组，交给数据库处理) */
+    public static final int MIN_QUERY_LENGTH = 2;
+
+    private final PostDao postDao;
+
+    private final FieldIndex titleIndex = new FieldIndex();
+    private final FieldIndex contentIndex = new FieldIndex();
+
+    /** 已索引文章的创建时间，用于按 created_at DESC 排序命中结果 */
+    private final Map<Integer, LocalDateTime> createdAtById = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready = false;
+
+    public ArticleSearchIndex(PostDao postDao) {
+        this.postDao = postDao;
+    }
+
+    /**
+     * 应用启动完成后全量构建索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        List<Post> posts = postDao.selectAll();
+
+        lock.writeLock().lock();
+        try {
+            titleIndex.clear();
+            contentIndex.clear();
+            createdAtById.clear();
+            for (Post post : posts) {
+                addInternal(post);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("文章索引构建完成，共 {} 篇，耗时 {} ms", posts.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 索引是否已构建完成
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 添加或替换一篇文章的索引
+     */
+    public void index(Post post) {
+        if (post == null || post.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeInternal(post.getId());
+            addInternal(post);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 从索引中移除文章
+     */
+    public void remove(Integer postId) {
+        if (postId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeInternal(postId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 搜索标题或内容包含关键词(不区分大小写)的文章
+     *
+     * @param keyword 关键词，长度至少为 MIN_QUERY_LENGTH
+     * @param limit   最多返回的命中数
+     * @return 按创建时间倒序排列的命中结果，附带标题/内容中的命中位置
+     */
+    public List<SearchHit> search(String keyword, int limit) {
+        String query = normalize(keyword);
+        if (query.length() < MIN_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Keyword too short for index search: " + keyword);
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Integer, int[]> titleMatches = titleIndex.find(query);
+            Map<Integer, int[]> contentMatches = contentIndex.find(query);
+
+            Set<Integer> docIds = new HashSet<>(titleMatches.keySet());
+            docIds.addAll(contentMatches.keySet());
+
+            List<SearchHit> hits = new ArrayList<>(docIds.size());
+            for (Integer docId : docIds) {
+                hits.add(new SearchHit(
+                        docId,
+                        createdAtById.get(docId),
+                        titleMatches.getOrDefault(docId, EMPTY),
+                        contentMatches.getOrDefault(docId, EMPTY)));
+            }
+
+            hits.sort(HIT_ORDER);
+            return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 已索引的文章数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return createdAtById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addInternal(Post post) {
+        int docId = post.getId();
+        titleIndex.add(docId, normalize(post.getTitle()));
+        contentIndex.add(docId, normalize(post.getContent()));
+        createdAtById.put(docId, post.getCreatedAt());
+    }
+
+    private void removeInternal(int docId) {
+        titleIndex.remove(docId);
+        contentIndex.remove(docId);
+        createdAtById.remove(docId);
+    }
+
+    /**
+     * 逐字符小写化，保持长度不变，使索引中的位置与原文下标一一对应
+     */
+    static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private static int bigram(String text, int pos) {
+        return (text.charAt(pos) << 16) | text.charAt(pos + 1);
+    }
+
+    private static final int[] EMPTY = new int[0];
+
+    /** 按创建时间倒序，时间相同(或缺失)时按 ID 倒序 */
+    private static final Comparator<SearchHit> HIT_ORDER = Comparator
+            .comparing(SearchHit::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(SearchHit::getId, Comparator.reverseOrder());
+
+    /**
+     * 单个字段的位置倒排表
+     * bigram -> (文章ID -> 升序排列的出现位置)
+     */
+    private static class FieldIndex {
+        private final Map<Integer, Map<Integer, int[]>> postings = new HashMap<>();
+
+        /** 文章ID -> 该文章出现过的 bigram，用于删除 */
+        private final Map<Integer, int[]> docBigrams = new HashMap<>();
+
+        void add(int docId, String text) {
+            if (text.length() < 2) {
+                return;
+            }
+
+            // 先在局部收集每个 bigram 的位置，再一次性写入倒排表
+            Map<Integer, PositionList> local = new HashMap<>();
+            for (int i = 0; i + 1 < text.length(); i++) {
+                local.computeIfAbsent(bigram(text, i), k -> new PositionList()).add(i);
+            }
+
+            int[] keys = new int[local.size()];
+            int k = 0;
+            for (Map.Entry<Integer, PositionList> entry : local.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), key -> new HashMap<>())
+                        .put(docId, entry.getValue().toArray());
+                keys[k++] = entry.getKey();
+            }
+            docBigrams.put(docId, keys);
+        }
+
+        void remove(int docId) {
+            int[] keys = docBigrams.remove(docId);
+            if (keys == null) {
+                return;
+            }
+            for (int key : keys) {
+                Map<Integer, int[]> docs = postings.get(key);
+                if (docs != null) {
+                    docs.remove(docId);
+                    if (docs.isEmpty()) {
+                        postings.remove(key);
+                    }
+                }
+            }
+        }
+
+        void clear() {
+            postings.clear();
+            docBigrams.clear();
+        }
+
+        /**
+         * 查找包含 query 的文章及所有命中起始位置
+         */
+        Map<Integer, int[]> find(String query) {
+            int gramCount = query.length() - 1;
+            List<Map<Integer, int[]>> lists = new ArrayList<>(gramCount);
+            for (int i = 0; i < gramCount; i++) {
+                Map<Integer, int[]> docs = postings.get(bigram(query, i));
+                if (docs == null) {
+                    return Collections.emptyMap();
+                }
+                lists.add(docs);
+            }
+
+            // 从最短的倒排链开始遍历候选文章
+            Map<Integer, int[]> shortest = lists.get(0);
+            for (Map<Integer, int[]> docs : lists) {
+                if (docs.size() < shortest.size()) {
+                    shortest = docs;
+                }
+            }
+
+            Map<Integer, int[]> result = new HashMap<>();
+            for (Integer docId : shortest.keySet()) {
+                int[][] positions = new int[gramCount][];
+                boolean candidate = true;
+                for (int i = 0; i < gramCount; i++) {
+                    positions[i] = lists.get(i).get(docId);
+                    if (positions[i] == null) {
+                        candidate = false;
+                        break;
+                    }
+                }
+                if (!candidate) {
+                    continue;
+                }
+
+                // 位置连续性校验：起点 p 处第 i 个 bigram 必须出现在 p + i
+                PositionList matches = new PositionList();
+                for (int start : positions[0]) {
+                    boolean matched = true;
+                    for (int i = 1; i < gramCount; i++) {
+                        if (Arrays.binarySearch(positions[i], start + i) < 0) {
+                            matched = false;
+                            break;
+                        }
+                    }
+                    if (matched) {
+                        matches.add(start);
+                    }
+                }
+                if (matches.size() > 0) {
+                    result.put(docId, matches.toArray());
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 简单的可增长 int 数组，避免 List<Integer> 装箱
+     */
+    private static class PositionList {
+        private int[] data = new int[4];
+        private int size = 0;
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+
+    /**
+     * 一条搜索命中
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class SearchHit {
+        /** 文章ID */
+        private final Integer id;
+
+        /** 文章创建时间 */
+        private final LocalDateTime createdAt;
+
+        /** 标题中的命中起始位置(升序) */
+        private final int[] titlePositions;
+
+        /** 内容中的命中起始位置(升序) */
+        private final int[] contentPositions;
+    }
+}
@@ -0,0 +1,101 @@
+package blog.tilex.backend.Tilex_blog_backend.service.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 搜索接口统计
+ * 分别记录走索引和走数据库两条路径的请求数、片段生成耗时和响应体大小，便于对比优化前后的效果
+ */
+@Component
+public class SearchMetrics {
+
+    private final PathStats indexStats = new PathStats();
+    private final PathStats databaseStats = new PathStats();
+
+    /**
+     * 记录一次搜索
+     *
+     * @param fromIndex     是否命中索引路径
+     * @param snippetCount  生成的片段数
+     * @param snippetNanos  生成片段的总耗时(纳秒)
+     * @param responseBytes 响应数据(标题、片段、内容)的 UTF-8 字节数
+     */
+    public void record(boolean fromIndex, int snippetCount, long snippetNanos, long responseBytes) {
+        PathStats stats = fromIndex ? indexStats : databaseStats;
+        stats.requests.increment();
+        stats.snippets.add(snippetCount);
+        stats.snippetNanos.add(snippetNanos);
+        stats.responseBytes.add(responseBytes);
+    }
+
+    /**
+     * 当前统计快照
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("index", indexStats.snapshot());
+        result.put("database", databaseStats.snapshot());
+        return result;
+    }
+
+    /**
+     * 估算一组字符串的 UTF-8 字节数
+     */
+    public static long utf8Length(List<String> values) {
+        long total = 0;
+        if (values != null) {
+            for (String value : values) {
+                total += utf8Length(value);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 计算字符串的 UTF-8 字节数(不实际编码，避免额外分配)
+     */
+    public static long utf8Length(String value) {
+        if (value == null) {
+            return 0;
+        }
+        long bytes = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    private static class PathStats {
+        final LongAdder requests = new LongAdder();
+        final LongAdder snippets = new LongAdder();
+        final LongAdder snippetNanos = new LongAdder();
+        final LongAdder responseBytes = new LongAdder();
+
+        Map<String, Object> snapshot() {
+            long requestCount = requests.sum();
+            long snippetCount = snippets.sum();
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("requests", requestCount);
+            result.put("snippets", snippetCount);
+            result.put("avgNanosPerSnippet", snippetCount == 0 ? 0 : snippetNanos.sum() / snippetCount);
+            result.put("avgBytesPerResponse", requestCount == 0 ? 0 : responseBytes.sum() / requestCount);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package blog.tilex.backend.Tilex_blog_backend.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 搜索片段生成器
+ * 根据已知的命中位置直接截取上下文并插入高亮标签，整个过程只顺序扫描一次，不使用正则
+ *
+ * 命中位置优先来自倒排索引；没有索引时由 {@link #findMatches} 对全文做一次线性扫描得到
+ */
+public final class SnippetBuilder {
+
+    /** 高亮HTML标签 */
+    public static final String HIGHLIGHT_PREFIX = "<span class='markdown-highlight'>";
+    public static final String HIGHLIGHT_SUFFIX = "</span>";
+
+    /** 每个片段包含的上下文字符数 */
+    public static final int SNIPPET_CONTEXT_LENGTH = 20;
+
+    /** 最多返回的片段数量 */
+    public static final int MAX_SNIPPETS = 5;
+
+    /** 没有命中时返回的文章开头长度 */
+    public static final int PREVIEW_LENGTH = 150;
+
+    private static final String ELLIPSIS = "...";
+
+    private SnippetBuilder() {
+    }
+
+    /**
+     * 在文本中查找关键词的所有出现位置(逐字符小写比较，与索引的归一化方式一致)
+     *
+     * @return 升序排列的命中起始位置
+     */
+    public static int[] findMatches(String text, String keyword) {
+        if (text == null || keyword == null || keyword.isEmpty() || text.length() < keyword.length()) {
+            return new int[0];
+        }
+
+        char[] key = ArticleSearchIndex.normalize(keyword).toCharArray();
+        char first = key[0];
+        int last = text.length() - key.length;
+
+        int[] positions = new int[8];
+        int count = 0;
+        for (int i = 0; i <= last; i++) {
+            if (Character.toLowerCase(text.charAt(i)) != first || !matchesAt(text, i, key)) {
+                continue;
+            }
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+            }
+            positions[count++] = i;
+        }
+        return Arrays.copyOf(positions, count);
+    }
+
+    /**
+     * 校验给定位置是否都确实命中关键词
+     * 索引与数据库内容可能存在短暂不一致(例如其他实例刚更新过文章)，此时应重新扫描
+     */
+    public static boolean verifyMatches(String text, String keyword, int[] positions) {
+        if (text == null || positions == null) {
+            return false;
+        }
+        char[] key = ArticleSearchIndex.normalize(keyword).toCharArray();
+        for (int position : positions) {
+            if (position < 0 || position + key.length > text.length() || !matchesAt(text, position, key)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 根据命中位置生成高亮片段
+     *
+     * 每个片段以一次命中为中心，向前后各取 SNIPPET_CONTEXT_LENGTH 个字符；
+     * 完整落在上一个片段内的命中不再单独成段，而是在该片段内一并高亮
+     *
+     * @param content       完整的文章内容
+     * @param positions     升序排列的命中起始位置
+     * @param keywordLength 关键词长度
+     * @return 高亮后的片段数组；没有命中时返回文章开头
+     */
+    public static List<String> build(String content, int[] positions, int keywordLength) {
+        List<String> snippets = new ArrayList<>();
+        if (content == null || content.isEmpty()) {
+            return snippets;
+        }
+        if (positions == null || positions.length == 0 || keywordLength <= 0) {
+            snippets.add(preview(content));
+            return snippets;
+        }
+
+        int length = content.length();
+        int next = 0;
+        while (next < positions.length && snippets.size() < MAX_SNIPPETS) {
+            int matchStart = positions[next];
+            int snippetStart = Math.max(0, matchStart - SNIPPET_CONTEXT_LENGTH);
+            int snippetEnd = Math.min(length, matchStart + keywordLength + SNIPPET_CONTEXT_LENGTH);
+
+            StringBuilder sb = new StringBuilder(snippetEnd - snippetStart
+                    + 2 * ELLIPSIS.length() + HIGHLIGHT_PREFIX.length() + HIGHLIGHT_SUFFIX.length());
+            if (snippetStart > 0) {
+                sb.append(ELLIPSIS);
+            }
+
+            // 顺序写出片段，遇到完整落在片段内的命中就包裹高亮标签
+            int cursor = snippetStart;
+            while (next < positions.length && positions[next] + keywordLength <= snippetEnd) {
+                int start = positions[next];
+                if (start >= cursor) {
+                    sb.append(content, cursor, start)
+                            .append(HIGHLIGHT_PREFIX)
+                            .append(content, start, start + keywordLength)
+                            .append(HIGHLIGHT_SUFFIX);
+                    cursor = start + keywordLength;
+                }
+                next++;
+            }
+            sb.append(content, cursor, snippetEnd);
+
+            if (snippetEnd < length) {
+                sb.append(ELLIPSIS);
+            }
+            snippets.add(sb.toString());
+        }
+        return snippets;
+    }
+
+    /**
+     * 对一段文本中的所有关键词做高亮(不区分大小写，保留原始大小写)
+     */
+    public static String highlight(String text, String keyword) {
+        if (text == null || text.isEmpty() || keyword == null || keyword.isEmpty()) {
+            return text;
+        }
+        int[] positions = findMatches(text, keyword);
+        if (positions.length == 0) {
+            return text;
+        }
+
+        int keywordLength = keyword.length();
+        StringBuilder sb = new StringBuilder(text.length()
+                + positions.length * (HIGHLIGHT_PREFIX.length() + HIGHLIGHT_SUFFIX.length()));
+        int cursor = 0;
+        for (int start : positions) {
+            if (start < cursor) {
+                continue;
+            }
+            sb.append(text, cursor, start)
+                    .append(HIGHLIGHT_PREFIX)
+                    .append(text, start, start + keywordLength)
+                    .append(HIGHLIGHT_SUFFIX);
+            cursor = start + keywordLength;
+        }
+        sb.append(text, cursor, text.length());
+        return sb.toString();
+    }
+
+    /**
+     * 文章开头预览
+     */
+    public static String preview(String content) {
+        if (content.length() <= PREVIEW_LENGTH) {
+            return content;
+        }
+        return content.substring(0, PREVIEW_LENGTH) + ELLIPSIS;
+    }
+
+    private static boolean matchesAt(String text, int offset, char[] key) {
+        for (int j = 0; j < key.length; j++) {
+            if (Character.toLowerCase(text.charAt(offset + j)) != key[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,27 @@
+package blog.tilex.backend.Tilex_blog_backend.utils;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 游标分页响应结果
+ * 不返回页码，客户端用 nextCursor 请求下一页
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPageResult<T> {
+    private List<T> records;   // 数据列表
+    private Integer pageSize;  // 每页大小
+    private Boolean hasMore;   // 是否还有下一页
+    private String nextCursor; // 下一页游标（没有更多数据时为 null）
+    private Long total;        // 总记录数（仅在请求 withTotal=true 时返回）
+
+    public CursorPageResult(List<T> records, int pageSize, boolean hasMore, String nextCursor) {
+        this.records = records;
+        this.pageSize = pageSize;
+        this.hasMore = hasMore;
+        this.nextCursor = nextCursor;
+    }
+}
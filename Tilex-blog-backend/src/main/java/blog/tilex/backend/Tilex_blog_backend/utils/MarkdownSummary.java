@@ -0,0 +1,84 @@
+package blog.tilex.backend.Tilex_blog_backend.utils;
+
+/**
+ * 文章摘要工具
+ * 在写入文章时预先计算列表页需要的摘要和字数，列表查询因此不必读取 content 全文
+ *
+ * 摘要的截取规则与前端 trimMarkdown 保持一致：先截到 EXCERPT_LENGTH 个字符，
+ * 再回退到最后一个完整句子或段落，保证 Markdown 片段可以正常渲染
+ */
+public final class MarkdownSummary {
+
+    /** 摘要最大长度(字符)，与首页卡片的预览长度一致 */
+    public static final int EXCERPT_LENGTH = 400;
+
+    private static final String[] BREAK_MARKS = {"。", "？", "！", "\n\n"};
+
+    private MarkdownSummary() {
+    }
+
+    /**
+     * 生成摘要
+     *
+     * @param content Markdown 原文
+     * @return 不超过 EXCERPT_LENGTH 个字符的 Markdown 片段
+     */
+    public static String excerpt(String content) {
+        if (content == null || content.isEmpty()) {
+            return "";
+        }
+        if (content.length() <= EXCERPT_LENGTH) {
+            return content;
+        }
+
+        int end = EXCERPT_LENGTH;
+        // 避免截断代理对
+        if (Character.isHighSurrogate(content.charAt(end - 1))) {
+            end--;
+        }
+        String trimmed = content.substring(0, end);
+
+        // 回退到最后一个句号、问号、感叹号或空行
+        int lastBreak = -1;
+        for (String mark : BREAK_MARKS) {
+            int position = trimmed.lastIndexOf(mark);
+            if (position > 0) {
+                lastBreak = Math.max(lastBreak, position);
+            }
+        }
+        if (lastBreak > 0) {
+            trimmed = trimmed.substring(0, lastBreak + 1);
+        }
+        return trimmed;
+    }
+
+    /**
+     * 统计字数
+     * 中日韩文字每个字计 1，连续的字母或数字计 1 个单词，标点、空白和 Markdown 符号不计
+     */
+    public static int wordCount(String content) {
+        if (content == null || content.isEmpty()) {
+            return 0;
+        }
+
+        int count = 0;
+        boolean inWord = false;
+        for (int i = 0; i < content.length(); ) {
+            int codePoint = content.codePointAt(i);
+            i += Character.charCount(codePoint);
+
+            if (Character.isIdeographic(codePoint)) {
+                count++;
+                inWord = false;
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                if (!inWord) {
+                    count++;
+                    inWord = true;
+                }
+            } else {
+                inWord = false;
+            }
+        }
+        return count;
+    }
+}
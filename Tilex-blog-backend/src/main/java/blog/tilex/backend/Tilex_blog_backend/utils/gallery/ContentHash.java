@@ -0,0 +1,43 @@
+package blog.tilex.backend.Tilex_blog_backend.utils.gallery;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 文件内容哈希(SHA-256)
+ * 以固定大小的缓冲区流式读取，不把文件读入内存
+ */
+public final class ContentHash {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private ContentHash() {
+    }
+
+    /**
+     * 计算输入流剩余内容的 SHA-256(不关闭输入流)
+     *
+     * @return 64 位小写十六进制字符串
+     */
+    public static String sha256(InputStream in) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // 每个 JRE 都必须支持 SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
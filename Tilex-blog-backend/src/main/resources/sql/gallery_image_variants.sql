@@ -0,0 +1,19 @@
+-- 图片衍生尺寸：上传时生成的缩略图/响应式版本
+-- gallery_images.thumbnail_url 冗余保存最小的版本，列表接口无需关联查询
+
+ALTER TABLE `gallery_images`
+  ADD COLUMN `thumbnail_url` TEXT NULL COMMENT '最小衍生尺寸的URL，列表展示使用' AFTER `image_url`;
+
+CREATE TABLE IF NOT EXISTS `gallery_image_variants` (
+  `id` BIGINT PRIMARY KEY AUTO_INCREMENT,
+  `image_id` BIGINT NOT NULL COMMENT '原图ID',
+  `width` INT NOT NULL COMMENT '宽度(像素)',
+  `height` INT NOT NULL COMMENT '高度(像素)',
+  `format` VARCHAR(20) NOT NULL COMMENT '编码格式：jpeg/png',
+  `file_size` BIGINT NOT NULL COMMENT '文件大小(字节)',
+  `image_url` TEXT NOT NULL COMMENT '完整访问URL',
+  `alist_path` TEXT NOT NULL COMMENT 'URL路径',
+  `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  UNIQUE KEY `uk_image_width` (`image_id`, `width`),
+  INDEX `idx_variant_image_id` (`image_id`)
+) CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='画廊图片衍生尺寸表';
@@ -0,0 +1,6 @@
+-- 图片内容去重：上传时计算 SHA-256，相同内容直接复用已有图片
+-- 历史图片为 NULL(唯一索引允许多个 NULL)，可通过 POST /gallery/admin/images/hash-backfill 回填
+
+ALTER TABLE `gallery_images`
+  ADD COLUMN `content_hash` CHAR(64) NULL COMMENT '原图内容的SHA-256' AFTER `alist_path`,
+  ADD UNIQUE INDEX `uk_content_hash` (`content_hash`);
@@ -0,0 +1,6 @@
+-- 画廊图片列表游标分页(keyset)所需索引
+-- 前台：WHERE is_deleted = 0 AND (sort_order, id) > (?, ?) ORDER BY sort_order, id
+CREATE INDEX `idx_deleted_sort_id` ON `gallery_images` (`is_deleted`, `sort_order`, `id`);
+
+-- 后台不按删除状态筛选时使用
+CREATE INDEX `idx_sort_id` ON `gallery_images` (`sort_order`, `id`);
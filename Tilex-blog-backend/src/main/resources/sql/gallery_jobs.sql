@@ -0,0 +1,19 @@
+-- 画廊后台任务队列
+-- 工作线程通过 SELECT ... FOR UPDATE SKIP LOCKED 认领任务，需要 MySQL 8.0+
+
+CREATE TABLE IF NOT EXISTS `gallery_jobs` (
+  `id` BIGINT PRIMARY KEY AUTO_INCREMENT,
+  `job_type` VARCHAR(50) NOT NULL COMMENT '任务类型',
+  `image_id` BIGINT NOT NULL COMMENT '处理的图片ID',
+  `status` VARCHAR(20) NOT NULL DEFAULT 'PENDING' COMMENT 'PENDING/RUNNING/DONE/FAILED',
+  `attempts` INT NOT NULL DEFAULT 0 COMMENT '已执行次数',
+  `max_attempts` INT NOT NULL COMMENT '最大执行次数',
+  `run_at` DATETIME(6) NOT NULL COMMENT '最早可执行时间',
+  `locked_by` VARCHAR(100) NULL COMMENT '认领该任务的工作实例',
+  `locked_at` DATETIME(6) NULL COMMENT '认领时间',
+  `last_error` TEXT NULL COMMENT '最近一次失败原因',
+  `created_at` DATETIME(6) NOT NULL,
+  `updated_at` DATETIME(6) NOT NULL,
+  INDEX `idx_job_status_run_at` (`status`, `run_at`),
+  INDEX `idx_job_image_id` (`image_id`)
+) CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='画廊后台任务表';
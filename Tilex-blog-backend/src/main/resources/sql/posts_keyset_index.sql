@@ -0,0 +1,6 @@
+-- 文章列表游标分页（keyset）所需索引
+-- 按状态筛选：WHERE status = ? AND (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC
+CREATE INDEX `idx_posts_status_created_id` ON `posts` (`status`, `created_at`, `id`);
+
+-- 不按状态筛选时使用
+CREATE INDEX `idx_posts_created_id` ON `posts` (`created_at`, `id`);
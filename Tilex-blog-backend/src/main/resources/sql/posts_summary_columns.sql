@@ -0,0 +1,6 @@
+-- 文章列表投影：预先计算的摘要和字数
+-- 列表查询只读取这两列，不再读取 content 全文
+-- 历史文章的 excerpt 为 NULL，应用启动时会自动回填
+ALTER TABLE `posts`
+    ADD COLUMN `excerpt` VARCHAR(400) NULL COMMENT '摘要（Markdown 片段）' AFTER `content`,
+    ADD COLUMN `word_count` INT NOT NULL DEFAULT 0 COMMENT '字数' AFTER `excerpt`;
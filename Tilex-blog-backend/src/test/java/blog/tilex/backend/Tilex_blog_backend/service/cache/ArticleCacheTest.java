@@ -0,0 +1,91 @@
+package blog.tilex.backend.Tilex_blog_backend.service.cache;
+
+import blog.tilex.backend.Tilex_blog_backend.dto.ArticleVO;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 文章缓存测试(两个实例共用一个 JVM 内失效通道，模拟多实例部署)
+ */
+class ArticleCacheTest {
+
+	@Test
+	void readsThroughAndCountsHits() {
+		ArticleCache cache = new ArticleCache(new LocalInvalidationChannel(), 10_000, 10_000);
+		AtomicInteger loads = new AtomicInteger();
+
+		cache.getArticle(1, () -> article(1, "a", loads));
+		cache.getArticle(1, () -> article(1, "a", loads));
+
+		assertEquals(1, loads.get());
+		Map<String, Object> stats = stats(cache, "articles");
+		assertEquals(1L, stats.get("hits"));
+		assertEquals(1L, stats.get("misses"));
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedByWeight() {
+		// 每篇约 64 + 100 权重，上限只能放下两篇
+		ArticleCache cache = new ArticleCache(new LocalInvalidationChannel(), 400, 10_000);
+		AtomicInteger loads = new AtomicInteger();
+		String content = "x".repeat(100);
+
+		cache.getArticle(1, () -> article(1, content, loads));
+		cache.getArticle(2, () -> article(2, content, loads));
+		cache.getArticle(1, () -> article(1, content, loads));
+		cache.getArticle(3, () -> article(3, content, loads));
+
+		assertEquals(1L, stats(cache, "articles").get("evictions"));
+		cache.getArticle(1, () -> article(1, content, loads));
+		assertEquals(3, loads.get());
+		cache.getArticle(2, () -> article(2, content, loads));
+		assertEquals(4, loads.get());
+	}
+
+	@Test
+	void invalidatesEveryInstanceOnUpdate() {
+		LocalInvalidationChannel channel = new LocalInvalidationChannel();
+		ArticleCache writer = new ArticleCache(channel, 10_000, 10_000);
+		ArticleCache reader = new ArticleCache(channel, 10_000, 10_000);
+		AtomicInteger loads = new AtomicInteger();
+
+		reader.getArticle(1, () -> article(1, "old", loads));
+		reader.getList("all", () -> "page");
+		writer.articleUpdated(1);
+
+		assertEquals("new", reader.getArticle(1, () -> article(1, "new", loads)).getContent());
+		assertEquals("page2", reader.getList("all", () -> "page2"));
+	}
+
+	@Test
+	void doesNotCacheValueLoadedDuringInvalidation() {
+		ArticleCache cache = new ArticleCache(new LocalInvalidationChannel(), 10_000, 10_000);
+		AtomicInteger loads = new AtomicInteger();
+
+		// 加载过程中文章被更新，加载到的旧值不能进入缓存
+		cache.getArticle(1, () -> {
+			cache.articleUpdated(1);
+			return article(1, "stale", loads);
+		});
+
+		assertEquals("fresh", cache.getArticle(1, () -> article(1, "fresh", loads)).getContent());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> stats(ArticleCache cache, String region) {
+		return (Map<String, Object>) cache.snapshot().get(region);
+	}
+
+	private static ArticleVO article(int id, String content, AtomicInteger loads) {
+		loads.incrementAndGet();
+		ArticleVO vo = new ArticleVO();
+		vo.setId(id);
+		vo.setTitle("");
+		vo.setContent(content);
+		return vo;
+	}
+}
@@ -0,0 +1,113 @@
+package blog.tilex.backend.Tilex_blog_backend.service.gallery;
+
+import blog.tilex.backend.Tilex_blog_backend.dto.gallery.TagSuggestionVO;
+import blog.tilex.backend.Tilex_blog_backend.entity.GalleryTag;
+import blog.tilex.backend.Tilex_blog_backend.repository.GalleryImageRepository;
+import blog.tilex.backend.Tilex_blog_backend.repository.GalleryImageTagRepository;
+import blog.tilex.backend.Tilex_blog_backend.repository.GalleryTagRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 画廊标签目录测试(不依赖数据库)
+ */
+class GalleryTagCatalogTest {
+
+	private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+	private GalleryTagRepository tagRepository;
+	private GalleryTagIndex index;
+	private GalleryTagCatalog catalog;
+
+	@BeforeEach
+	void setUp() {
+		tagRepository = mock(GalleryTagRepository.class);
+		GalleryImageRepository imageRepository = mock(GalleryImageRepository.class);
+		GalleryImageTagRepository imageTagRepository = mock(GalleryImageTagRepository.class);
+		when(imageRepository.findActiveIds()).thenReturn(List.of(1L, 2L));
+		when(imageTagRepository.findAllTagImagePairs()).thenReturn(List.of(
+				new Object[]{10L, 1L}, new Object[]{10L, 2L}, new Object[]{20L, 2L}
+		));
+		when(tagRepository.findAllDetached()).thenReturn(List.of(
+				tag(10L, "Cat", 2, 0, T0),
+				tag(20L, "dog", 1, 0, T0.plusDays(1)),
+				tag(30L, "bird", 0, 1, T0.plusDays(2))
+		));
+
+		index = new GalleryTagIndex(imageTagRepository, imageRepository, 0);
+		index.rebuild();
+		catalog = new GalleryTagCatalog(tagRepository, imageTagRepository, index, 0);
+		catalog.start();
+	}
+
+	@AfterEach
+	void tearDown() {
+		catalog.shutdown();
+		index.shutdown();
+	}
+
+	@Test
+	void servesReadsFromSnapshot() {
+		assertEquals(List.of(20L, 10L), catalog.findAll().stream().map(GalleryTag::getId).toList());
+		assertEquals(10L, catalog.findByName("cat").orElseThrow().getId());
+		assertTrue(catalog.findById(30L).isEmpty());
+		assertEquals(Set.of(10L), catalog.activeIds(List.of(10L, 30L, 99L)));
+		assertEquals(List.of(10L), catalog.search("A").stream().map(GalleryTag::getId).toList());
+		assertEquals(2, catalog.count());
+		assertEquals(Map.of(10L, 2, 20L, 1), catalog.imageCountsByTag());
+		assertEquals(3L, catalog.version().getCount());
+		assertEquals(T0.plusDays(2), catalog.version().getLastModified());
+
+		// 读取不访问数据库
+		verify(tagRepository, times(1)).findAllDetached();
+	}
+
+	@Test
+	void suggestsBySubstringRankedByImageCount() {
+		when(tagRepository.findAllDetached()).thenReturn(List.of(
+				tag(10L, "Cat", 2, 0, T0),
+				tag(20L, "dog", 1, 0, T0),
+				tag(40L, "风景摄影", 3, 0, T0),
+				tag(50L, "city", 4, 0, T0)
+		));
+		catalog.reload();
+
+		// 10 有两张图片，排在 50 前面
+		assertEquals(List.of(10L, 50L), catalog.suggest("c", 10).stream().map(TagSuggestionVO::getId).toList());
+		assertEquals(List.of(10L), catalog.suggest("AT", 10).stream().map(TagSuggestionVO::getId).toList());
+		assertEquals(List.of(40L), catalog.suggest("摄影", 10).stream().map(TagSuggestionVO::getId).toList());
+		assertEquals(2, catalog.suggest("c", 10).get(0).getImageCount());
+		assertEquals(1, catalog.suggest("", 1).size());
+		assertTrue(catalog.suggest("xyz", 10).isEmpty());
+		assertEquals(List.of(40L), catalog.search("景摄").stream().map(GalleryTag::getId).toList());
+	}
+
+	@Test
+	void refreshesAfterWrites() throws InterruptedException {
+		when(tagRepository.findAllDetached()).thenReturn(List.of(tag(10L, "Cat", 2, 0, T0)));
+		catalog.reloadAfterCommit();
+		assertTrue(catalog.findById(20L).isEmpty());
+
+		index.removeImage(1L);
+		for (int i = 0; i < 100 && !Map.of(10L, 1, 20L, 1).equals(catalog.imageCountsByTag()); i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(Map.of(10L, 1, 20L, 1), catalog.imageCountsByTag());
+	}
+
+	private static GalleryTag tag(Long id, String name, int sortOrder, int deleted, LocalDateTime updatedAt) {
+		return new GalleryTag(id, name, null, "#999999", sortOrder, T0, updatedAt, deleted);
+	}
+}
@@ -0,0 +1,79 @@
+package blog.tilex.backend.Tilex_blog_backend.service.gallery;
+
+import blog.tilex.backend.Tilex_blog_backend.repository.GalleryImageRepository;
+import blog.tilex.backend.Tilex_blog_backend.repository.GalleryImageTagRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 画廊标签位图索引测试(不依赖数据库)
+ */
+class GalleryTagIndexTest {
+
+	private GalleryTagIndex index;
+
+	@BeforeEach
+	void setUp() {
+		GalleryImageRepository imageRepository = mock(GalleryImageRepository.class);
+		GalleryImageTagRepository imageTagRepository = mock(GalleryImageTagRepository.class);
+		when(imageRepository.findActiveIds()).thenReturn(List.of(1L, 2L, 3L, 4L));
+		// 标签 10：1 2 3，标签 20：2 3 4，标签 30：3
+		when(imageTagRepository.findAllTagImagePairs()).thenReturn(List.of(
+				new Object[]{10L, 1L}, new Object[]{10L, 2L}, new Object[]{10L, 3L},
+				new Object[]{20L, 2L}, new Object[]{20L, 3L}, new Object[]{20L, 4L},
+				new Object[]{30L, 3L}
+		));
+		index = new GalleryTagIndex(imageTagRepository, imageRepository, 0);
+		index.rebuild();
+	}
+
+	@Test
+	void evaluatesTagExpressions() {
+		assertTrue(index.isReady());
+		assertEquals(2, index.count(List.of(10L, 20L), null, null));
+		assertEquals(4, index.count(null, List.of(10L, 20L), null));
+		assertEquals(1, index.count(List.of(10L, 20L), null, List.of(30L)));
+		assertEquals(1, index.count(null, null, List.of(10L)));
+		assertEquals(0, index.count(List.of(10L, 99L), null, null));
+		assertEquals(List.of(2L, 3L), index.imageIds(20L).subList(0, 2));
+	}
+
+	@Test
+	void reflectsWritesOutsideTransactions() {
+		index.addAssociations(4L, List.of(30L));
+		assertTrue(index.contains(4L, 30L));
+
+		index.removeImage(3L);
+		assertFalse(index.contains(3L, 10L));
+		assertEquals(Map.of(10L, 2, 20L, 2, 30L, 1), index.tagCounts());
+
+		index.removeTag(30L);
+		assertEquals(0, index.count(List.of(30L), null, null));
+	}
+
+	@Test
+	void keepsWritesCommittedDuringRebuild() {
+		GalleryImageRepository imageRepository = mock(GalleryImageRepository.class);
+		GalleryImageTagRepository imageTagRepository = mock(GalleryImageTagRepository.class);
+		GalleryTagIndex rebuilding = new GalleryTagIndex(imageTagRepository, imageRepository, 0);
+		when(imageRepository.findActiveIds()).thenReturn(List.of(1L, 2L));
+		// 读取关联时另一个事务提交：数据库结果中还没有这次修改
+		when(imageTagRepository.findAllTagImagePairs()).thenAnswer(invocation -> {
+			rebuilding.addAssociations(2L, List.of(10L));
+			rebuilding.removeImage(1L);
+			return List.<Object[]>of(new Object[]{10L, 1L});
+		});
+		rebuilding.rebuild();
+
+		assertTrue(rebuilding.contains(2L, 10L));
+		assertFalse(rebuilding.contains(1L, 10L));
+		assertEquals(Map.of(10L, 1), rebuilding.tagCounts());
+	}
+}
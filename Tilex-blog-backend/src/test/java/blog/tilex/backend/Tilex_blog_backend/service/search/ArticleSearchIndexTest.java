@@ -0,0 +1,70 @@
+package blog.tilex.backend.Tilex_blog_backend.service.search;
+
+import blog.tilex.backend.Tilex_blog_backend.dao.PostDao;
+import blog.tilex.backend.Tilex_blog_backend.entity.Post;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 文章倒排索引测试(不依赖数据库)
+ */
+class ArticleSearchIndexTest {
+
+	private ArticleSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		PostDao postDao = mock(PostDao.class);
+		when(postDao.selectAll()).thenReturn(List.of(
+				post(1, "Spring Boot 入门", "使用 Spring Boot 搭建博客后端", LocalDateTime.of(2025, 1, 1, 0, 0)),
+				post(2, "中文分词", "倒排索引使用二元分词，搜索中文很方便", LocalDateTime.of(2025, 2, 1, 0, 0)),
+				post(3, "杂记", "分词 与 词分 不是同一个词", LocalDateTime.of(2025, 3, 1, 0, 0))
+		));
+		index = new ArticleSearchIndex(postDao);
+		index.rebuild();
+	}
+
+	@Test
+	void matchesSubstringIgnoringCase() {
+		List<ArticleSearchIndex.SearchHit> hits = index.search("spr", 50);
+
+		assertEquals(1, hits.size());
+		assertEquals(1, hits.get(0).getId());
+		assertArrayEquals(new int[]{0}, hits.get(0).getTitlePositions());
+		assertArrayEquals(new int[]{3}, hits.get(0).getContentPositions());
+	}
+
+	@Test
+	void requiresAdjacentBigrams() {
+		// 文章3 同时包含"分词"与"词分"，但"分词索"只在文章2出现过(且位置不连续)
+		assertTrue(index.search("分词索", 50).isEmpty());
+		assertEquals(List.of(3, 2), index.search("分词", 50).stream().map(ArticleSearchIndex.SearchHit::getId).toList());
+	}
+
+	@Test
+	void reflectsUpdatesAndRemovals() {
+		index.index(post(1, "Vue 入门", "前端框架", LocalDateTime.of(2025, 1, 1, 0, 0)));
+		assertTrue(index.search("spring", 50).isEmpty());
+		assertEquals(1, index.search("前端", 50).size());
+
+		index.remove(1);
+		assertTrue(index.search("前端", 50).isEmpty());
+		assertEquals(2, index.size());
+	}
+
+	private static Post post(int id, String title, String content, LocalDateTime createdAt) {
+		Post post = new Post();
+		post.setId(id);
+		post.setTitle(title);
+		post.setContent(content);
+		post.setCreatedAt(createdAt);
+		return post;
+	}
+}
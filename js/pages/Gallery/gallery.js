@@ -2,6 +2,7 @@
  * Canvas 图片画廊（二维无限滚动 + 每列独立状态）
  */
 import { getGalleryCanvas } from "../../dom/galleryDom.js";
+import { getGalleryImages } from "../../utils/api.js";
 
 // ================= 配置 =================
 const config = {
@@ -11,6 +12,7 @@ const config = {
   baseGapY: 50,
   columnShiftX: 18,
   cornerRadius: 16,
+  pageSize: 30,
 };
 
 // ================= 状态 =================
@@ -20,6 +22,11 @@ const state = {
   isDragging: false,
   lastMouse: { x: 0, y: 0 },
   images: [],
+  // 分页加载状态
+  nextCursor: null,
+  hasMore: true,
+  loading: false,
+  dragDistance: 0,
 };
 
 // ================= DOM =================
@@ -29,15 +36,50 @@ const ctx = canvas.getContext("2d");
 // ================= 图片缓存 =================
 const imageCache = new Map();
 
-function initImages() {
+// 分页加载下一批图片，列表缩略图优先
+async function loadMoreImages() {
+  if (state.loading || !state.hasMore) {
+    return;
+  }
+  state.loading = true;
+
+  try {
+    const params = { pageSize: config.pageSize };
+    if (state.nextCursor) {
+      params.after = state.nextCursor;
+    }
+    const res = await getGalleryImages(params);
+    if (res.code !== 200) {
+      throw new Error(res.message);
+    }
+
+    state.images.push(
+      ...res.data.images.map((image) => image.thumbnailUrl || image.imageUrl),
+    );
+    state.nextCursor = res.data.nextCursor;
+    state.hasMore = res.data.hasMore;
+  } catch (error) {
+    console.error("加载画廊图片失败：", error);
+    state.hasMore = false;
+  } finally {
+    state.loading = false;
+  }
+}
+
+async function initImages() {
   if (state.images.length > 0) {
     return;
   }
 
-  state.images = Array.from(
-    { length: 200 },
-    (_, i) => `https://picsum.photos/seed/${i}/600/800`,
-  );
+  await loadMoreImages();
+
+  // 画廊暂无图片时使用占位图
+  if (state.images.length === 0) {
+    state.images = Array.from(
+      { length: 200 },
+      (_, i) => `https://picsum.photos/seed/${i}/600/800`,
+    );
+  }
 }
 
 // 加载图片（只创建一次）
@@ -234,6 +276,15 @@ window.addEventListener("mousemove", (e) => {
   state.offsetX += e.clientX - state.lastMouse.x;
   state.offsetY += e.clientY - state.lastMouse.y;
 
+  // 每拖动约一屏的距离加载下一页
+  state.dragDistance +=
+    Math.abs(e.clientX - state.lastMouse.x) +
+    Math.abs(e.clientY - state.lastMouse.y);
+  if (state.dragDistance > Math.max(canvas.width, canvas.height)) {
+    state.dragDistance = 0;
+    loadMoreImages();
+  }
+
   state.lastMouse = { x: e.clientX, y: e.clientY };
 });
 
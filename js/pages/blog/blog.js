@@ -43,7 +43,7 @@ async function renderBlogPosts(container) {
     // 动态填充数据
     clone.querySelector(".blog__title").textContent = post.title;
     clone.querySelector(".blog__date").textContent = post.date;
-    clone.querySelector(".blog__text").textContent = post.content;
+    clone.querySelector(".blog__text").textContent = post.excerpt;
 
     // 给按钮加上跳转事件
     const btnGoto = clone.querySelector(".blog__goto");
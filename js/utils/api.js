@@ -27,3 +27,11 @@ export function getArticleById(id) {
 export function searchArticles(params) {
   return request("/articles/search", "POST", params);
 }
+
+/**
+ * 分页获取画廊图片
+ * params: { pageSize, after, tagId, from, to, withTotal }
+ */
+export function getGalleryImages(params) {
+  return request("/gallery/images", "GET", null, params);
+}